@@ -0,0 +1,320 @@
+package com.example.attendancesystem.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.database.Cursor;
+
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.attendancesystem.util.AttendanceBitmap;
+import com.example.attendancesystem.util.SessionDays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+/**
+ * Tests every migration in {@link Migrations} against the exported schemas in app/schemas
+ *
+ * Each step creates a database at the old version, fills it with rows the migration has
+ * to carry over, migrates it and lets Room validate the result against the new schema.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+
+    private static final long HOUR_MS = 60L * 60 * 1000;
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    @Test
+    public void migrate1To2_keepsLatestRecordOfEachSession() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1);
+        insertStudentAndClass(db);
+        db.execSQL("INSERT INTO attendance (id, studentId, classId, date, isPresent) VALUES (1, 1, 1, 1000, 1)");
+        db.execSQL("INSERT INTO attendance (id, studentId, classId, date, isPresent) VALUES (2, 1, 1, 1000, 0)");
+        db.execSQL("INSERT INTO attendance (id, studentId, classId, date, isPresent) VALUES (3, 1, 1, 2000, 1)");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 2, true, Migrations.MIGRATION_1_2);
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM attendance"));
+        assertEquals(0, count(db, "SELECT isPresent FROM attendance WHERE date = 1000"));
+        db.close();
+    }
+
+    @Test
+    public void migrate2To3() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 2);
+        insertStudentAndClass(db);
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 3, true, Migrations.MIGRATION_2_3);
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM students"));
+        db.close();
+    }
+
+    @Test
+    public void migrate3To4_indexesExistingRowsNormalized() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 3);
+        // Arabic yeh and kaf, and Persian digits
+        db.execSQL("INSERT INTO students (id, name, studentNumber) VALUES (1, 'علي', '۱۲۳')");
+        db.execSQL("INSERT INTO classes (id, courseName, instructorName, day, time) "
+                + "VALUES (1, 'كامپيوتر', 'Reza', 'Sat', '10:00')");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 4, true, Migrations.MIGRATION_3_4);
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM students_fts WHERE students_fts MATCH 'علی'"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM students_fts WHERE students_fts MATCH '123'"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM classes_fts WHERE classes_fts MATCH 'کامپیوتر'"));
+
+        // Rows written after the migration are indexed by the triggers
+        db.execSQL("INSERT INTO students (id, name, studentNumber) VALUES (2, 'Sara', '456')");
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM students_fts WHERE students_fts MATCH 'sara'"));
+        db.close();
+    }
+
+    @Test
+    public void migrate4To5() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 4);
+        insertStudentAndClass(db);
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 5, true, Migrations.MIGRATION_4_5);
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM packed_sessions"));
+        db.close();
+    }
+
+    @Test
+    public void migrate5To6_enrollsEveryStudentInEveryClass() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 5);
+        db.execSQL("INSERT INTO students (id, name, studentNumber) VALUES (1, 'Ali', '1')");
+        db.execSQL("INSERT INTO students (id, name, studentNumber) VALUES (2, 'Sara', '2')");
+        db.execSQL("INSERT INTO classes (id, courseName) VALUES (1, 'Math')");
+        db.execSQL("INSERT INTO classes (id, courseName) VALUES (2, 'Physics')");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 6, true, Migrations.MIGRATION_5_6);
+        assertEquals(4, count(db, "SELECT COUNT(*) FROM enrollments"));
+        db.close();
+    }
+
+    @Test
+    public void migrate6To7() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 6);
+        insertStudentAndClass(db);
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 7, true, Migrations.MIGRATION_6_7);
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM attendance_stats"));
+        db.close();
+    }
+
+    @Test
+    public void migrate7To8_keysSessionsByDayAndExpandsPackedSessions() throws IOException {
+        long day = SessionDays.fromDate(2024, 2, 4);
+        long morning = SessionDays.toMillis(day) + 9 * HOUR_MS;
+        long evening = SessionDays.toMillis(day) + 17 * HOUR_MS;
+        long nextMorning = SessionDays.toMillis(day + 1) + 9 * HOUR_MS;
+
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 7);
+        db.execSQL("INSERT INTO students (id, name, studentNumber) VALUES (1, 'Ali', '1')");
+        db.execSQL("INSERT INTO students (id, name, studentNumber) VALUES (2, 'Sara', '2')");
+        db.execSQL("INSERT INTO students (id, name, studentNumber) VALUES (3, 'Reza', '3')");
+        db.execSQL("INSERT INTO classes (id, courseName) VALUES (1, 'Math')");
+        // Two roll calls on one day: the later one wins
+        db.execSQL("INSERT INTO attendance (id, studentId, classId, date, isPresent) VALUES (1, 1, 1, ?, 1)",
+                new Object[] {morning});
+        db.execSQL("INSERT INTO attendance (id, studentId, classId, date, isPresent) VALUES (2, 1, 1, ?, 0)",
+                new Object[] {evening});
+        // A packed session on the same day: rows win over it, Sara's status comes from it
+        insertPacked(db, morning, new int[] {1, 2}, new boolean[] {true, true});
+        // A packed session alone on the next day
+        insertPacked(db, nextMorning, new int[] {1, 2, 3}, new boolean[] {true, false, true});
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 8, true, Migrations.MIGRATION_7_8);
+        assertEquals(0, count(db, "SELECT isPresent FROM attendance WHERE studentId = 1 AND epochDay = " + day));
+        assertEquals(1, count(db, "SELECT isPresent FROM attendance WHERE studentId = 2 AND epochDay = " + day));
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM attendance WHERE epochDay = " + day));
+        assertEquals(3, count(db, "SELECT COUNT(*) FROM attendance WHERE epochDay = " + (day + 1)));
+        assertEquals(0, count(db, "SELECT isPresent FROM attendance WHERE studentId = 2 AND epochDay = " + (day + 1)));
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM class_sessions"));
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM packed_sessions"));
+        assertEquals(1, count(db, "SELECT presentCount FROM attendance_stats WHERE studentId = 1"));
+        assertEquals(1, count(db, "SELECT absentCount FROM attendance_stats WHERE studentId = 1"));
+        assertEquals(day + 1, count(db, "SELECT lastEpochDay FROM attendance_stats WHERE studentId = 1"));
+        db.close();
+    }
+
+    @Test
+    public void migrate8To9_mergesStudentsSharingANumber() throws IOException {
+        long day = SessionDays.fromDate(2024, 2, 4);
+
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 8);
+        db.execSQL("INSERT INTO students (id, name, studentNumber) VALUES (1, 'Ali', '۱۲۳')");
+        db.execSQL("INSERT INTO students (id, name, studentNumber) VALUES (2, 'Ali B', ' 123 ')");
+        db.execSQL("INSERT INTO students (id, name, studentNumber) VALUES (3, 'Sara', ' ')");
+        db.execSQL("INSERT INTO students (id, name, studentNumber) VALUES (4, 'Reza', '456')");
+        db.execSQL("INSERT INTO classes (id, courseName) VALUES (1, 'Math')");
+        db.execSQL("INSERT INTO enrollments (classId, studentId) VALUES (1, 2)");
+        db.execSQL("INSERT INTO enrollments (classId, studentId) VALUES (1, 4)");
+        for (long sessionDay = day; sessionDay <= day + 2; sessionDay++) {
+            db.execSQL("INSERT INTO class_sessions (classId, epochDay) VALUES (1, " + sessionDay + ")");
+        }
+        // Both in the first session: the kept student's own record wins
+        db.execSQL("INSERT INTO attendance (studentId, classId, epochDay, isPresent) VALUES (1, 1, ?, 1)",
+                new Object[] {day});
+        db.execSQL("INSERT INTO attendance (studentId, classId, epochDay, isPresent) VALUES (2, 1, ?, 0)",
+                new Object[] {day});
+        // Only the duplicate in the second session: the record moves to the kept student
+        db.execSQL("INSERT INTO attendance (studentId, classId, epochDay, isPresent) VALUES (2, 1, ?, 1)",
+                new Object[] {day + 1});
+        byte[] presence = AttendanceBitmap.newBitmap(2);
+        AttendanceBitmap.set(presence, 0);
+        db.execSQL("INSERT INTO packed_sessions (classId, epochDay, rosterSize, presentCount, rosterIds, presence) "
+                + "VALUES (1, ?, 2, 1, ?, ?)",
+                new Object[] {day + 2, AttendanceBitmap.encodeIds(new int[] {2, 4}), presence});
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 9, true, Migrations.MIGRATION_8_9);
+        assertEquals(3, count(db, "SELECT COUNT(*) FROM students"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM students WHERE id = 1 AND studentNumber = '123'"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM students WHERE id = 3 AND studentNumber IS NULL"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM enrollments WHERE classId = 1 AND studentId = 1"));
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM enrollments WHERE studentId = 2"));
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM attendance WHERE studentId = 2"));
+        assertEquals(1, count(db, "SELECT isPresent FROM attendance WHERE studentId = 1 AND epochDay = " + day));
+        assertEquals(1, count(db, "SELECT isPresent FROM attendance WHERE studentId = 1 AND epochDay = " + (day + 1)));
+        try (Cursor cursor = db.query("SELECT rosterIds, presence FROM packed_sessions")) {
+            assertTrue(cursor.moveToFirst());
+            byte[] rosterIds = cursor.getBlob(0);
+            assertEquals(0, AttendanceBitmap.indexOf(rosterIds, 1));
+            assertEquals(-1, AttendanceBitmap.indexOf(rosterIds, 2));
+            assertTrue(AttendanceBitmap.get(cursor.getBlob(1), 0));
+            assertFalse(AttendanceBitmap.get(cursor.getBlob(1), 1));
+        }
+        assertEquals(3, count(db, "SELECT presentCount FROM attendance_stats WHERE studentId = 1"));
+        db.close();
+    }
+
+    @Test
+    public void migrate9To10_keepsRowsLive() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 9);
+        insertStudentAndClass(db);
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 10, true, Migrations.MIGRATION_9_10);
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM students WHERE deleted = 0"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM classes WHERE deleted = 0"));
+        db.close();
+    }
+
+    @Test
+    public void migrate10To11_keepsPackedSessionsInLastDay() throws IOException {
+        long day = SessionDays.fromDate(2024, 2, 4);
+
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 10);
+        insertStudentAndClass(db);
+        db.execSQL("INSERT INTO class_sessions (classId, epochDay) VALUES (1, ?)", new Object[] {day});
+        db.execSQL("INSERT INTO class_sessions (classId, epochDay) VALUES (1, ?)", new Object[] {day + 1});
+        byte[] presence = AttendanceBitmap.newBitmap(1);
+        AttendanceBitmap.set(presence, 0);
+        db.execSQL("INSERT INTO packed_sessions (classId, epochDay, rosterSize, presentCount, rosterIds, presence) "
+                + "VALUES (1, ?, 1, 1, ?, ?)", new Object[] {day, AttendanceBitmap.encodeIds(new int[] {1}), presence});
+        db.execSQL("INSERT INTO attendance (studentId, classId, epochDay, isPresent) VALUES (1, 1, ?, 0)",
+                new Object[] {day + 1});
+        // As the old delete trigger could leave it
+        db.execSQL("INSERT INTO attendance_stats (studentId, classId, presentCount, absentCount, lastEpochDay) "
+                + "VALUES (1, 1, 1, 1, 0)");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 11, true, Migrations.MIGRATION_10_11);
+        assertEquals(day + 1, count(db, "SELECT lastEpochDay FROM attendance_stats WHERE studentId = 1"));
+
+        // Deleting the last record falls back to the packed session
+        db.execSQL("DELETE FROM attendance WHERE epochDay = ?", new Object[] {day + 1});
+        assertEquals(0, count(db, "SELECT absentCount FROM attendance_stats WHERE studentId = 1"));
+        assertEquals(day, count(db, "SELECT lastEpochDay FROM attendance_stats WHERE studentId = 1"));
+        db.close();
+    }
+
+    @Test
+    public void migrate11To12_addsRollCallDrafts() throws IOException {
+        long day = SessionDays.fromDate(2024, 2, 4);
+
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 11);
+        insertStudentAndClass(db);
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 12, true, Migrations.MIGRATION_11_12);
+        db.execSQL("INSERT INTO roll_call_drafts (classId, epochDay, studentId, isPresent) VALUES (1, ?, 1, 0)",
+                new Object[] {day});
+        // A draft is not a session: nothing else sees it
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM class_sessions"));
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM attendance_stats"));
+
+        db.execSQL("DELETE FROM students WHERE id = 1");
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM roll_call_drafts"));
+        db.close();
+    }
+
+    @Test
+    public void migrateAll() throws IOException {
+        long day = SessionDays.fromDate(2024, 2, 4);
+
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1);
+        insertStudentAndClass(db);
+        db.execSQL("INSERT INTO attendance (studentId, classId, date, isPresent) VALUES (1, 1, ?, 0)",
+                new Object[] {SessionDays.toMillis(day) + 9 * HOUR_MS});
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 12, true, Migrations.ALL);
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM enrollments"));
+        assertEquals(day, count(db, "SELECT epochDay FROM attendance"));
+        assertEquals(1, count(db, "SELECT absentCount FROM attendance_stats"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM students_fts WHERE students_fts MATCH 'ali'"));
+        db.close();
+    }
+
+    private static void insertStudentAndClass(SupportSQLiteDatabase db) {
+        db.execSQL("INSERT INTO students (id, name, studentNumber) VALUES (1, 'Ali', '1')");
+        db.execSQL("INSERT INTO classes (id, courseName, instructorName, day, time) "
+                + "VALUES (1, 'Math', 'Reza', 'Sat', '10:00')");
+    }
+
+    /**
+     * Insert a version 7 packed session of class 1
+     */
+    private static void insertPacked(SupportSQLiteDatabase db, long date, int[] rosterIds, boolean[] present) {
+        byte[] presence = AttendanceBitmap.newBitmap(rosterIds.length);
+        for (int position = 0; position < rosterIds.length; position++) {
+            if (present[position]) {
+                AttendanceBitmap.set(presence, position);
+            }
+        }
+        db.execSQL("INSERT INTO packed_sessions (classId, date, rosterSize, presentCount, rosterIds, presence) "
+                + "VALUES (1, ?, ?, ?, ?, ?)",
+                new Object[] {date, rosterIds.length, AttendanceBitmap.popcount(presence),
+                        AttendanceBitmap.encodeIds(rosterIds), presence});
+    }
+
+    /**
+     * @return The first column of the first row of a query
+     */
+    private static long count(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            assertTrue(sql, cursor.moveToFirst());
+            return cursor.getLong(0);
+        }
+    }
+}
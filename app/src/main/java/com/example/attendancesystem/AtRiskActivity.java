@@ -0,0 +1,86 @@
+package com.example.attendancesystem;
+
+import android.os.Bundle;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.attendancesystem.adapter.AtRiskAdapter;
+import com.example.attendancesystem.repository.AttendanceRepository;
+
+import java.util.concurrent.Future;
+
+/**
+ * Dashboard of the students attending too few sessions, across all classes
+ * Reloaded on every resume; the repository answers from its cache unless attendance changed.
+ */
+public class AtRiskActivity extends AppCompatActivity {
+
+    /** Students attending less than this percentage of a class's sessions are listed */
+    private static final int AT_RISK_PERCENTAGE = 75;
+    /** Percentages from here up to AT_RISK_PERCENTAGE are shown as a warning */
+    private static final int WARNING_PERCENTAGE = 50;
+    /** Maximum number of (student, class) pairs listed, lowest rate first */
+    private static final int MAX_ROWS = 200;
+
+    private RecyclerView rvAtRisk;
+    private TextView tvEmptyState;
+
+    private AttendanceRepository attendanceRepository;
+    private AtRiskAdapter adapter;
+    private Future<?> loadTask;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_at_risk);
+
+        attendanceRepository = AttendanceRepository.getInstance(this);
+
+        Toolbar toolbar = findViewById(R.id.toolbar);
+        setSupportActionBar(toolbar);
+        getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        getSupportActionBar().setDisplayShowHomeEnabled(true);
+
+        TextView tvThreshold = findViewById(R.id.tvThreshold);
+        tvThreshold.setText(getString(R.string.at_risk_threshold, AT_RISK_PERCENTAGE, MAX_ROWS));
+
+        rvAtRisk = findViewById(R.id.rvAtRisk);
+        tvEmptyState = findViewById(R.id.tvEmptyState);
+        adapter = new AtRiskAdapter(this, WARNING_PERCENTAGE);
+        rvAtRisk.setLayoutManager(new LinearLayoutManager(this));
+        rvAtRisk.setAdapter(adapter);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (loadTask != null) {
+            loadTask.cancel(false);
+        }
+        loadTask = attendanceRepository.getAtRiskStudents(AT_RISK_PERCENTAGE, MAX_ROWS, students -> {
+            boolean empty = students.isEmpty();
+            rvAtRisk.setVisibility(empty ? View.GONE : View.VISIBLE);
+            tvEmptyState.setVisibility(empty ? View.VISIBLE : View.GONE);
+            adapter.submitList(students);
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (loadTask != null) {
+            loadTask.cancel(false);
+        }
+        super.onDestroy();
+    }
+
+    @Override
+    public boolean onSupportNavigateUp() {
+        onBackPressed();
+        return true;
+    }
+}
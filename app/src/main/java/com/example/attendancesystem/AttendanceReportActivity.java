@@ -1,26 +1,33 @@
 package com.example.attendancesystem;
 
+import android.net.Uri;
 import android.os.Bundle;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
+import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.attendancesystem.adapter.AttendanceReportAdapter;
-import com.example.attendancesystem.database.AppDatabase;
-import com.example.attendancesystem.entity.Attendance;
-import com.example.attendancesystem.entity.Student;
-import com.example.attendancesystem.model.StudentAttendanceInfo;
+import com.example.attendancesystem.export.ExportFormat;
+import com.example.attendancesystem.export.ReportExporter;
+import com.example.attendancesystem.model.ClassAttendanceTotals;
+import com.example.attendancesystem.model.DayRange;
+import com.example.attendancesystem.model.ReportRow;
+import com.example.attendancesystem.repository.AttendanceRepository;
+import com.example.attendancesystem.view.AttendanceTrendView;
 
-import java.text.SimpleDateFormat;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Locale;
-import java.util.Map;
+import java.util.concurrent.Future;
 
 /**
  * Activity for viewing attendance reports for a specific class
@@ -30,23 +37,37 @@ public class AttendanceReportActivity extends AppCompatActivity {
     private Toolbar toolbar;
     private RecyclerView rvAttendance;
     private TextView tvCourseName, tvClassDetails, tvTotalSessions, tvPresentCount, tvAbsentCount, tvEmptyState;
+    private AttendanceTrendView trendView;
 
-    private AppDatabase database;
+    private AttendanceRepository attendanceRepository;
     private AttendanceReportAdapter attendanceAdapter;
 
     private int classId;
     private String courseName, instructorName, day, time;
-    private List<Student> studentList;
-    private List<Attendance> attendanceList;
+    private DayRange range = DayRange.all();
 
-    private SimpleDateFormat dateFormat;
+    private ReportRow.Formatter rowFormatter;
+    private Future<?> rowsTask;
+    private Future<?> trendTask;
+
+    private ReportExporter reportExporter;
+    private Future<?> exportTask;
+    private AlertDialog exportDialog;
+
+    private final ActivityResultLauncher<String> exportCsvLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(ExportFormat.CSV.mimeType),
+            uri -> startExport(ExportFormat.CSV, uri));
+    private final ActivityResultLauncher<String> exportXlsxLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(ExportFormat.XLSX.mimeType),
+            uri -> startExport(ExportFormat.XLSX, uri));
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_attendance_report);
 
-        database = AppDatabase.getInstance(this);
+        attendanceRepository = AttendanceRepository.getInstance(this);
+        reportExporter = new ReportExporter(this);
 
         // Get intent data
         classId = getIntent().getIntExtra("classId", -1);
@@ -61,7 +82,7 @@ public class AttendanceReportActivity extends AppCompatActivity {
             return;
         }
 
-        dateFormat = new SimpleDateFormat("yyyy/MM/dd", Locale.getDefault());
+        rowFormatter = new ReportRow.Formatter(this);
 
         initViews();
         setupToolbar();
@@ -78,6 +99,7 @@ public class AttendanceReportActivity extends AppCompatActivity {
         tvPresentCount = findViewById(R.id.tvPresentCount);
         tvAbsentCount = findViewById(R.id.tvAbsentCount);
         tvEmptyState = findViewById(R.id.tvEmptyState);
+        trendView = findViewById(R.id.trendView);
 
         tvCourseName.setText(courseName);
         tvClassDetails.setText("استاد: " + instructorName + " | " + day + " - " + time);
@@ -97,10 +119,26 @@ public class AttendanceReportActivity extends AppCompatActivity {
     }
 
     private void loadData() {
-        studentList = database.studentDao().getAllStudents();
-        attendanceList = database.attendanceDao().getAttendanceByClass(classId);
+        // Totals and per-student counts are aggregated by SQLite in the background
+        final DayRange requested = range;
+        // The class's trend is cached by the repository; only the shown range changes
+        if (trendTask != null) {
+            trendTask.cancel(false);
+        }
+        trendTask = attendanceRepository.getSessionTrend(classId, series -> {
+            if (requested == range) {
+                trendView.setSeries(series, requested.fromDay, requested.toDay);
+            }
+        });
+        attendanceRepository.getClassTotals(classId, requested, totals -> {
+            if (requested == range) {
+                showTotals(totals);
+            }
+        });
+    }
 
-        if (attendanceList.isEmpty()) {
+    private void showTotals(ClassAttendanceTotals totals) {
+        if (totals.getTotalCount() == 0) {
             rvAttendance.setVisibility(View.GONE);
             tvEmptyState.setVisibility(View.VISIBLE);
             tvTotalSessions.setText("0");
@@ -112,39 +150,120 @@ public class AttendanceReportActivity extends AppCompatActivity {
         rvAttendance.setVisibility(View.VISIBLE);
         tvEmptyState.setVisibility(View.GONE);
 
-        Map<Integer, StudentAttendanceInfo> studentStats = new HashMap<>();
+        tvTotalSessions.setText(String.valueOf(totals.getTotalCount()));
+        tvPresentCount.setText(String.valueOf(totals.presentCount));
+        tvAbsentCount.setText(String.valueOf(totals.absentCount));
 
-        // ⚡ استفاده از سازنده با آرگومان‌ها
-        for (Student student : studentList) {
-            StudentAttendanceInfo info = new StudentAttendanceInfo(student, 0, 0);
-            studentStats.put(student.getId(), info);
+        final DayRange requested = range;
+        if (rowsTask != null) {
+            rowsTask.cancel(false);
         }
-
-        for (Attendance attendance : attendanceList) {
-            StudentAttendanceInfo info = studentStats.get(attendance.getStudentId());
-            if (info != null) {
-                if (attendance.isPresent()) {
-                    info.presentCount++;
-                } else {
-                    info.absentCount++;
-                }
+        rowsTask = attendanceRepository.getReportRows(classId, requested, rowFormatter, rows -> {
+            if (requested == range) {
+                attendanceAdapter.submitList(rows);
             }
+        });
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_attendance_report, menu);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        int id = item.getItemId();
+        if (id == R.id.action_range_all) {
+            range = DayRange.all();
+        } else if (id == R.id.action_range_last_4_weeks) {
+            range = DayRange.lastWeeks(4);
+        } else if (id == R.id.action_range_term) {
+            range = DayRange.currentTerm();
+        } else if (id == R.id.action_export_csv) {
+            exportCsvLauncher.launch(exportFileName(ExportFormat.CSV));
+            return true;
+        } else if (id == R.id.action_export_xlsx) {
+            exportXlsxLauncher.launch(exportFileName(ExportFormat.XLSX));
+            return true;
+        } else {
+            return super.onOptionsItemSelected(item);
         }
+        item.setChecked(true);
+        loadData();
+        return true;
+    }
+
+    private String exportFileName(ExportFormat format) {
+        String name = courseName == null ? "attendance" : courseName.replaceAll("[\\\\/:*?\"<>|]", "_");
+        return name + "." + format.extension;
+    }
 
-        int totalPresent = 0;
-        int totalAbsent = 0;
-        for (StudentAttendanceInfo info : studentStats.values()) {
-            totalPresent += info.presentCount;
-            totalAbsent += info.absentCount;
+    /**
+     * Export the report of the selected range to the document the user created
+     * @param uri The document, null if the user cancelled
+     */
+    private void startExport(ExportFormat format, Uri uri) {
+        if (uri == null || exportTask != null) {
+            return;
         }
+        View view = getLayoutInflater().inflate(R.layout.dialog_progress, null);
+        ProgressBar progressBar = view.findViewById(R.id.progressBar);
+        TextView tvProgress = view.findViewById(R.id.tvProgress);
+        exportDialog = new AlertDialog.Builder(this)
+                .setTitle(R.string.export_in_progress)
+                .setView(view)
+                .setCancelable(false)
+                .setNegativeButton(R.string.cancel, (dialog, which) -> finishExport())
+                .show();
+
+        exportTask = reportExporter.export(classId, range, format, uri, new ReportExporter.Listener() {
+            @Override
+            public void onProgress(int exportedStudents, int totalStudents) {
+                progressBar.setIndeterminate(false);
+                progressBar.setProgress(exportedStudents * 100 / totalStudents);
+                tvProgress.setText(getString(R.string.export_progress, exportedStudents, totalStudents));
+            }
+
+            @Override
+            public void onComplete(int exportedStudents) {
+                finishExport();
+                Toast.makeText(AttendanceReportActivity.this,
+                        getString(R.string.export_done, exportedStudents), Toast.LENGTH_SHORT).show();
+            }
 
-        int totalSessions = totalPresent + totalAbsent;
+            @Override
+            public void onError(@NonNull Exception error) {
+                finishExport();
+                Toast.makeText(AttendanceReportActivity.this, R.string.export_failed, Toast.LENGTH_LONG).show();
+            }
+        });
+    }
 
-        tvTotalSessions.setText(String.valueOf(totalSessions));
-        tvPresentCount.setText(String.valueOf(totalPresent));
-        tvAbsentCount.setText(String.valueOf(totalAbsent));
+    /**
+     * Dismiss the progress dialog, cancelling the export if it is still running
+     */
+    private void finishExport() {
+        if (exportTask != null) {
+            exportTask.cancel(true);
+            exportTask = null;
+        }
+        if (exportDialog != null) {
+            exportDialog.dismiss();
+            exportDialog = null;
+        }
+    }
 
-        attendanceAdapter.setData(studentStats, dateFormat);
+    @Override
+    protected void onDestroy() {
+        if (rowsTask != null) {
+            rowsTask.cancel(false);
+        }
+        if (trendTask != null) {
+            trendTask.cancel(false);
+        }
+        finishExport();
+        super.onDestroy();
     }
 
     @Override
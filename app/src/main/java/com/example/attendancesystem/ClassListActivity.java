@@ -4,28 +4,40 @@ import android.app.AlertDialog;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.ProgressBar;
 import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.paging.PagingData;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.attendancesystem.adapter.ClassAdapter;
-import com.example.attendancesystem.database.AppDatabase;
+import com.example.attendancesystem.adapter.EnrollmentAdapter;
 import com.example.attendancesystem.entity.ClassCourse;
+import com.example.attendancesystem.entity.Student;
+import com.example.attendancesystem.repository.ClassRepository;
+import com.example.attendancesystem.repository.DeletionService;
+import com.example.attendancesystem.repository.StudentRepository;
+import com.example.attendancesystem.repository.StudentSearchPipeline;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Activity for managing classes (courses)
@@ -38,23 +50,23 @@ public class ClassListActivity extends AppCompatActivity {
     private RecyclerView rvClasses;
     private FloatingActionButton fabAddClass;
     private TextView tvEmptyState;
+    private ProgressBar pbPurge;
     
-    // Database
-    private AppDatabase database;
+    // Repositories
+    private ClassRepository classRepository;
+    private StudentRepository studentRepository;
     
     // Adapter
     private ClassAdapter classAdapter;
     
-    // Data
-    private List<ClassCourse> classList;
-    
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_class_list);
         
-        // Initialize database
-        database = AppDatabase.getInstance(this);
+        // Initialize repositories
+        classRepository = ClassRepository.getInstance(this);
+        studentRepository = StudentRepository.getInstance(this);
         
         // Initialize views
         initViews();
@@ -68,8 +80,9 @@ public class ClassListActivity extends AppCompatActivity {
         // Setup FAB
         setupFab();
         
-        // Load classes
-        loadClasses();
+        // Observe classes
+        observeClasses();
+        observePurge();
     }
     
     /**
@@ -80,6 +93,7 @@ public class ClassListActivity extends AppCompatActivity {
         rvClasses = findViewById(R.id.rvClasses);
         fabAddClass = findViewById(R.id.fabAddClass);
         tvEmptyState = findViewById(R.id.tvEmptyState);
+        pbPurge = findViewById(R.id.pbPurge);
     }
     
     /**
@@ -95,11 +109,10 @@ public class ClassListActivity extends AppCompatActivity {
      * Setup RecyclerView with adapter
      */
     private void setupRecyclerView() {
-        classList = new ArrayList<>();
-        classAdapter = new ClassAdapter(classList, new ClassAdapter.OnItemClickListener() {
+        classAdapter = new ClassAdapter(new ClassAdapter.OnItemClickListener() {
             @Override
             public void onItemClick(ClassCourse classCourse) {
-                // Handle class click if needed
+                showEnrollmentDialog(classCourse);
             }
             
             @Override
@@ -135,15 +148,36 @@ public class ClassListActivity extends AppCompatActivity {
     }
     
     /**
-     * Load all classes from database
+     * Observe all classes
+     * The list is re-queried only when the classes table changes, not on every resume
+     */
+    private void observeClasses() {
+        classRepository.observeAllClasses().observe(this, this::showClasses);
+    }
+    
+    /**
+     * Show the progress of deleted classes and students being purged in the background
      */
-    private void loadClasses() {
-        classList.clear();
-        classList.addAll(database.classCourseDao().getAllClasses());
-        classAdapter.notifyDataSetChanged();
+    private void observePurge() {
+        DeletionService.getInstance(this).getProgress().observe(this, progress -> {
+            if (progress == null) {
+                pbPurge.setVisibility(View.GONE);
+                return;
+            }
+            pbPurge.setMax(Math.max(1, progress.totalRecords));
+            pbPurge.setProgress(progress.purgedRecords);
+            pbPurge.setVisibility(View.VISIBLE);
+        });
+    }
+    
+    /**
+     * Display loaded classes
+     */
+    private void showClasses(List<ClassCourse> classes) {
+        classAdapter.submitList(classes);
         
         // Show/hide empty state
-        if (classList.isEmpty()) {
+        if (classes.isEmpty()) {
             rvClasses.setVisibility(View.GONE);
             tvEmptyState.setVisibility(View.VISIBLE);
         } else {
@@ -193,11 +227,10 @@ public class ClassListActivity extends AppCompatActivity {
                 
                 // Create new class
                 ClassCourse newClass = new ClassCourse(courseName, instructorName, day, time);
-                database.classCourseDao().insert(newClass);
-                
-                Toast.makeText(ClassListActivity.this, R.string.success, Toast.LENGTH_SHORT).show();
+                classRepository.insert(newClass, rowId -> {
+                    Toast.makeText(ClassListActivity.this, R.string.success, Toast.LENGTH_SHORT).show();
+                });
                 dialog.dismiss();
-                loadClasses();
             }
         });
         
@@ -235,6 +268,98 @@ public class ClassListActivity extends AppCompatActivity {
         startActivity(intent);
     }
     
+    /**
+     * Show dialog for choosing the students enrolled in a class
+     * The roster is paged in name order and can be searched, so the picker never loads
+     * the whole student table. Only the changed enrollments are written.
+     */
+    private void showEnrollmentDialog(final ClassCourse classCourse) {
+        studentRepository.getStudentCount(studentCount -> {
+            if (studentCount == 0) {
+                Toast.makeText(this, R.string.no_students, Toast.LENGTH_SHORT).show();
+                return;
+            }
+            classRepository.getEnrolledStudentIds(classCourse.getId(), enrolledIds -> {
+                final Set<Integer> wasEnrolled = new HashSet<>(enrolledIds);
+                final Set<Integer> checked = new HashSet<>(enrolledIds);
+                
+                View dialogView = LayoutInflater.from(this).inflate(R.layout.dialog_enrollment, null);
+                EditText etSearch = dialogView.findViewById(R.id.etSearch);
+                RecyclerView rvStudents = dialogView.findViewById(R.id.rvStudents);
+                EnrollmentAdapter adapter = new EnrollmentAdapter(checked);
+                rvStudents.setLayoutManager(new LinearLayoutManager(this));
+                rvStudents.setAdapter(adapter);
+                
+                // The full roster is paged; a query shows search results instead
+                LiveData<PagingData<Student>> rosterPages = studentRepository.getStudentsPaged();
+                Observer<PagingData<Student>> showRoster = pagingData ->
+                    adapter.submitData(getLifecycle(), pagingData);
+                rosterPages.observe(this, showRoster);
+                StudentSearchPipeline search = new StudentSearchPipeline(studentRepository, (query, students) -> {
+                    if (query.equals(etSearch.getText().toString())) {
+                        adapter.submitData(getLifecycle(), PagingData.from(students));
+                    }
+                });
+                etSearch.addTextChangedListener(new TextWatcher() {
+                    @Override
+                    public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+                    
+                    @Override
+                    public void onTextChanged(CharSequence s, int start, int before, int count) {}
+                    
+                    @Override
+                    public void afterTextChanged(Editable s) {
+                        String query = s.toString();
+                        if (query.isEmpty()) {
+                            search.cancel();
+                            if (!rosterPages.hasObservers()) {
+                                rosterPages.observe(ClassListActivity.this, showRoster);
+                            }
+                        } else {
+                            rosterPages.removeObserver(showRoster);
+                            search.submit(query);
+                        }
+                    }
+                });
+                
+                new AlertDialog.Builder(this)
+                    .setTitle(getString(R.string.manage_enrollment) + " - " + classCourse.getCourseName())
+                    .setView(dialogView)
+                    .setPositiveButton(R.string.save, (dialog, which) -> {
+                        List<Integer> toEnroll = new ArrayList<>();
+                        for (Integer studentId : checked) {
+                            if (!wasEnrolled.contains(studentId)) {
+                                toEnroll.add(studentId);
+                            }
+                        }
+                        List<Integer> toUnenroll = new ArrayList<>();
+                        for (Integer studentId : wasEnrolled) {
+                            if (!checked.contains(studentId)) {
+                                toUnenroll.add(studentId);
+                            }
+                        }
+                        classRepository.updateEnrollments(classCourse.getId(), toIntArray(toEnroll),
+                            toIntArray(toUnenroll), () ->
+                                Toast.makeText(this, R.string.success, Toast.LENGTH_SHORT).show());
+                    })
+                    .setNegativeButton(R.string.cancel, null)
+                    .setOnDismissListener(dialog -> {
+                        search.cancel();
+                        rosterPages.removeObserver(showRoster);
+                    })
+                    .show();
+            });
+        });
+    }
+    
+    private static int[] toIntArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+    
     /**
      * Show confirmation dialog before deleting a class
      */
@@ -245,26 +370,16 @@ public class ClassListActivity extends AppCompatActivity {
             .setPositiveButton(R.string.yes, new DialogInterface.OnClickListener() {
                 @Override
                 public void onClick(DialogInterface dialog, int which) {
-                    // Delete attendance records first
-                    database.attendanceDao().deleteAttendanceByClass(classCourse.getId());
-                    
-                    // Then delete the class
-                    database.classCourseDao().delete(classCourse);
-                    
-                    Toast.makeText(ClassListActivity.this, R.string.success, Toast.LENGTH_SHORT).show();
-                    loadClasses();
+                    // Hide the class now; its attendance records are purged in the background
+                    classRepository.delete(classCourse, () -> {
+                        Toast.makeText(ClassListActivity.this, R.string.success, Toast.LENGTH_SHORT).show();
+                    });
                 }
             })
             .setNegativeButton(R.string.no, null)
             .show();
     }
     
-    @Override
-    protected void onResume() {
-        super.onResume();
-        loadClasses();
-    }
-    
     @Override
     public boolean onSupportNavigateUp() {
         onBackPressed();
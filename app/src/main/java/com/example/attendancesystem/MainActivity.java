@@ -2,13 +2,19 @@ package com.example.attendancesystem;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 
+import com.example.attendancesystem.repository.AttendanceRepository;
+import com.example.attendancesystem.repository.DeletionService;
+
 /**
  * Main Activity - Entry point of the Attendance System application
  * Provides navigation to Class Management and Student Management sections
+ * and to the at-risk students dashboard
  */
 public class MainActivity extends AppCompatActivity {
     
@@ -22,6 +28,11 @@ public class MainActivity extends AppCompatActivity {
      */
     private CardView cardStudents;
     
+    /**
+     * CardView for navigating to the at-risk students dashboard
+     */
+    private CardView cardAtRisk;
+    
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -32,6 +43,12 @@ public class MainActivity extends AppCompatActivity {
         
         // Set click listeners
         setupClickListeners();
+        
+        // Pack finalized sessions and finish interrupted deletions in the background (once per launch)
+        if (savedInstanceState == null) {
+            AttendanceRepository.getInstance(this).compactFinalizedSessions(null);
+            DeletionService.getInstance(this).resumePurge();
+        }
     }
     
     /**
@@ -40,6 +57,7 @@ public class MainActivity extends AppCompatActivity {
     private void initViews() {
         cardClasses = findViewById(R.id.cardClasses);
         cardStudents = findViewById(R.id.cardStudents);
+        cardAtRisk = findViewById(R.id.cardAtRisk);
     }
     
     /**
@@ -63,5 +81,24 @@ public class MainActivity extends AppCompatActivity {
                 startActivity(intent);
             }
         });
+        
+        // Navigate to the at-risk dashboard
+        cardAtRisk.setOnClickListener(v -> startActivity(new Intent(this, AtRiskActivity.class)));
+    }
+    
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        // Metrics are recorded in every build, so they can be saved from the field
+        getMenuInflater().inflate(R.menu.menu_main, menu);
+        return true;
+    }
+    
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == R.id.action_query_metrics) {
+            startActivity(new Intent(this, MetricsActivity.class));
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package com.example.attendancesystem;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+
+import com.example.attendancesystem.metrics.MetricsDump;
+import com.example.attendancesystem.metrics.QueryMetrics;
+import com.example.attendancesystem.repository.AppExecutors;
+
+import java.io.IOException;
+import java.util.concurrent.Future;
+
+/**
+ * Screen listing the recorded database metrics
+ * Shows the same tab separated text that "save to file" writes.
+ */
+public class MetricsActivity extends AppCompatActivity {
+
+    private static final String TAG = "MetricsActivity";
+
+    private TextView tvMetrics;
+    private Future<?> task;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_metrics);
+
+        Toolbar toolbar = findViewById(R.id.toolbar);
+        setSupportActionBar(toolbar);
+        getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        getSupportActionBar().setDisplayShowHomeEnabled(true);
+
+        tvMetrics = findViewById(R.id.tvMetrics);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        loadMetrics();
+    }
+
+    /**
+     * Format the metrics off the main thread and show them
+     */
+    private void loadMetrics() {
+        cancelTask();
+        Context context = getApplicationContext();
+        task = AppExecutors.getInstance().read(() -> {
+            StringBuilder text = new StringBuilder();
+            MetricsDump.write(context, text);
+            return text.toString();
+        }, text -> tvMetrics.setText(text));
+    }
+
+    private void saveMetrics() {
+        cancelTask();
+        Context context = getApplicationContext();
+        task = AppExecutors.getInstance().read(() -> {
+            try {
+                return MetricsDump.writeToFile(context);
+            } catch (IOException e) {
+                Log.e(TAG, "Saving metrics failed", e);
+                return null;
+            }
+        }, file -> {
+            if (file == null) {
+                Toast.makeText(this, R.string.metrics_save_failed, Toast.LENGTH_LONG).show();
+            } else {
+                Toast.makeText(this, getString(R.string.metrics_saved, file.getAbsolutePath()),
+                        Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    private void cancelTask() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_metrics, menu);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        int id = item.getItemId();
+        if (id == R.id.action_refresh_metrics) {
+            loadMetrics();
+        } else if (id == R.id.action_save_metrics) {
+            saveMetrics();
+        } else if (id == R.id.action_reset_metrics) {
+            QueryMetrics.getInstance().reset();
+            loadMetrics();
+        } else {
+            return super.onOptionsItemSelected(item);
+        }
+        return true;
+    }
+
+    @Override
+    protected void onDestroy() {
+        cancelTask();
+        super.onDestroy();
+    }
+
+    @Override
+    public boolean onSupportNavigateUp() {
+        onBackPressed();
+        return true;
+    }
+}
@@ -2,28 +2,45 @@ package com.example.attendancesystem;
 
 import android.app.AlertDialog;
 import android.content.DialogInterface;
+import android.net.Uri;
 import android.os.Bundle;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.LayoutInflater;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.lifecycle.LiveData;
+import androidx.paging.LoadState;
+import androidx.paging.PagingData;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import androidx.room.InvalidationTracker;
 
 import com.example.attendancesystem.adapter.StudentAdapter;
-import com.example.attendancesystem.database.AppDatabase;
 import com.example.attendancesystem.entity.Student;
+import com.example.attendancesystem.model.RosterImportReport;
+import com.example.attendancesystem.repository.ClassRepository;
+import com.example.attendancesystem.repository.DeletionService;
+import com.example.attendancesystem.repository.RosterImporter;
+import com.example.attendancesystem.repository.StudentRepository;
+import com.example.attendancesystem.repository.StudentSearchPipeline;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.Future;
+
+import kotlin.Unit;
 
 /**
  * Activity for managing students
@@ -37,23 +54,37 @@ public class StudentListActivity extends AppCompatActivity {
     private FloatingActionButton fabAddStudent;
     private EditText etSearch;
     private TextView tvEmptyState;
+    private ProgressBar pbPurge;
     
-    // Database
-    private AppDatabase database;
+    // Repository
+    private StudentRepository studentRepository;
     
     // Adapter
     private StudentAdapter studentAdapter;
     
+    // Search
+    private StudentSearchPipeline searchPipeline;
+    
     // Data
-    private List<Student> studentList;
+    private LiveData<PagingData<Student>> rosterPages;
+    private InvalidationTracker.Observer studentChanges;
+    private String currentQuery = "";
+    
+    // Import
+    private RosterImporter rosterImporter;
+    private Future<?> importTask;
+    private AlertDialog importDialog;
+    private final ActivityResultLauncher<String[]> importLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(), this::chooseImportClass);
     
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_student_list);
         
-        // Initialize database
-        database = AppDatabase.getInstance(this);
+        // Initialize repository
+        studentRepository = StudentRepository.getInstance(this);
+        rosterImporter = new RosterImporter(this);
         
         // Initialize views
         initViews();
@@ -72,6 +103,7 @@ public class StudentListActivity extends AppCompatActivity {
         
         // Load students
         loadStudents();
+        observePurge();
     }
     
     /**
@@ -83,6 +115,7 @@ public class StudentListActivity extends AppCompatActivity {
         fabAddStudent = findViewById(R.id.fabAddStudent);
         etSearch = findViewById(R.id.etSearch);
         tvEmptyState = findViewById(R.id.tvEmptyState);
+        pbPurge = findViewById(R.id.pbPurge);
     }
     
     /**
@@ -98,8 +131,7 @@ public class StudentListActivity extends AppCompatActivity {
      * Setup RecyclerView with adapter
      */
     private void setupRecyclerView() {
-        studentList = new ArrayList<>();
-        studentAdapter = new StudentAdapter(studentList, new StudentAdapter.OnItemClickListener() {
+        studentAdapter = new StudentAdapter(new StudentAdapter.OnItemClickListener() {
             @Override
             public void onEditClick(Student student) {
                 showEditStudentDialog(student);
@@ -111,6 +143,14 @@ public class StudentListActivity extends AppCompatActivity {
             }
         });
         
+        // Show/hide empty state once the first page (or search result) is loaded
+        studentAdapter.addLoadStateListener(loadStates -> {
+            if (loadStates.getRefresh() instanceof LoadState.NotLoading) {
+                updateEmptyState(studentAdapter.getItemCount() == 0);
+            }
+            return Unit.INSTANCE;
+        });
+        
         rvStudents.setLayoutManager(new LinearLayoutManager(this));
         rvStudents.setAdapter(studentAdapter);
     }
@@ -131,6 +171,21 @@ public class StudentListActivity extends AppCompatActivity {
      * Setup search functionality
      */
     private void setupSearch() {
+        // Only results of the latest query reach the list
+        searchPipeline = new StudentSearchPipeline(studentRepository, (query, students) -> {
+            if (query.equals(currentQuery)) {
+                studentAdapter.submitData(getLifecycle(), PagingData.from(students));
+            }
+        });
+        
+        // Search results are re-queried only after the students table changes
+        studentChanges = studentRepository.observeStudentChanges(() -> {
+            searchPipeline.clearCache();
+            if (!currentQuery.isEmpty()) {
+                searchPipeline.submit(currentQuery);
+            }
+        });
+        
         etSearch.addTextChangedListener(new TextWatcher() {
             @Override
             public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
@@ -146,15 +201,37 @@ public class StudentListActivity extends AppCompatActivity {
     }
     
     /**
-     * Load all students from database
+     * Show the full roster
+     * It is paged from the database and reloads by itself when students change
      */
     private void loadStudents() {
-        studentList.clear();
-        studentList.addAll(database.studentDao().getAllStudents());
-        studentAdapter.notifyDataSetChanged();
-        
-        // Show/hide empty state
-        if (studentList.isEmpty()) {
+        if (rosterPages == null) {
+            rosterPages = studentRepository.getStudentsPaged();
+            rosterPages.observe(this, pagingData ->
+                studentAdapter.submitData(getLifecycle(), pagingData));
+        }
+    }
+    
+    /**
+     * Show the progress of deleted classes and students being purged in the background
+     */
+    private void observePurge() {
+        DeletionService.getInstance(this).getProgress().observe(this, progress -> {
+            if (progress == null) {
+                pbPurge.setVisibility(View.GONE);
+                return;
+            }
+            pbPurge.setMax(Math.max(1, progress.totalRecords));
+            pbPurge.setProgress(progress.purgedRecords);
+            pbPurge.setVisibility(View.VISIBLE);
+        });
+    }
+    
+    /**
+     * Show/hide empty state
+     */
+    private void updateEmptyState(boolean isEmpty) {
+        if (isEmpty) {
             rvStudents.setVisibility(View.GONE);
             tvEmptyState.setVisibility(View.VISIBLE);
         } else {
@@ -164,16 +241,23 @@ public class StudentListActivity extends AppCompatActivity {
     }
     
     /**
-     * Search students by name
+     * Search students by name or student number
+     * Keystrokes are debounced; an empty query shows the full roster right away
      */
     private void searchStudents(String query) {
+        currentQuery = query;
         if (query.isEmpty()) {
+            searchPipeline.cancel();
             loadStudents();
-        } else {
-            studentList.clear();
-            studentList.addAll(database.studentDao().searchStudentsByName(query));
-            studentAdapter.notifyDataSetChanged();
+            return;
         }
+        
+        // Stop paging the roster while search results are shown
+        if (rosterPages != null) {
+            rosterPages.removeObservers(this);
+            rosterPages = null;
+        }
+        searchPipeline.submit(query);
     }
     
     /**
@@ -207,21 +291,16 @@ public class StudentListActivity extends AppCompatActivity {
                     return;
                 }
                 
-                // Check if student number already exists
-                Student existingStudent = database.studentDao().getStudentByNumber(studentNumber);
-                if (existingStudent != null) {
-                    Toast.makeText(StudentListActivity.this, "شماره دانشجویی تکراری است", 
-                        Toast.LENGTH_SHORT).show();
-                    return;
-                }
-                
-                // Create new student
-                Student newStudent = new Student(name, studentNumber);
-                database.studentDao().insert(newStudent);
-                
-                Toast.makeText(StudentListActivity.this, R.string.success, Toast.LENGTH_SHORT).show();
-                dialog.dismiss();
-                loadStudents();
+                // The unique student number decides, in the same statement as the insert
+                studentRepository.insertIfNew(name, studentNumber, inserted -> {
+                    if (!inserted) {
+                        Toast.makeText(StudentListActivity.this, "شماره دانشجویی تکراری است", 
+                            Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    Toast.makeText(StudentListActivity.this, R.string.success, Toast.LENGTH_SHORT).show();
+                    dialog.dismiss();
+                });
             }
         });
         
@@ -271,22 +350,16 @@ public class StudentListActivity extends AppCompatActivity {
                     return;
                 }
                 
-                // Check if student number already exists (excluding current student)
-                Student existingStudent = database.studentDao().getStudentByNumber(studentNumber);
-                if (existingStudent != null && existingStudent.getId() != student.getId()) {
-                    Toast.makeText(StudentListActivity.this, "شماره دانشجویی تکراری است", 
-                        Toast.LENGTH_SHORT).show();
-                    return;
-                }
-                
-                // Update student
-                student.setName(name);
-                student.setStudentNumber(studentNumber);
-                database.studentDao().update(student);
-                
-                Toast.makeText(StudentListActivity.this, R.string.success, Toast.LENGTH_SHORT).show();
-                dialog.dismiss();
-                loadStudents();
+                // Fails without changes if another student has the number
+                studentRepository.updateIfNumberIsFree(student.getId(), name, studentNumber, updated -> {
+                    if (!updated) {
+                        Toast.makeText(StudentListActivity.this, "شماره دانشجویی تکراری است", 
+                            Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    Toast.makeText(StudentListActivity.this, R.string.success, Toast.LENGTH_SHORT).show();
+                    dialog.dismiss();
+                });
             }
         });
         
@@ -311,14 +384,10 @@ public class StudentListActivity extends AppCompatActivity {
             .setPositiveButton(R.string.yes, new DialogInterface.OnClickListener() {
                 @Override
                 public void onClick(DialogInterface dialog, int which) {
-                    // Delete attendance records first
-                    database.attendanceDao().deleteAttendanceByStudent(student.getId());
-                    
-                    // Then delete the student
-                    database.studentDao().delete(student);
-                    
-                    Toast.makeText(StudentListActivity.this, R.string.success, Toast.LENGTH_SHORT).show();
-                    loadStudents();
+                    // Hide the student now; their attendance records are purged in the background
+                    studentRepository.delete(student, () -> {
+                        Toast.makeText(StudentListActivity.this, R.string.success, Toast.LENGTH_SHORT).show();
+                    });
                 }
             })
             .setNegativeButton(R.string.no, null)
@@ -326,9 +395,116 @@ public class StudentListActivity extends AppCompatActivity {
     }
     
     @Override
-    protected void onResume() {
-        super.onResume();
-        loadStudents();
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_student_list, menu);
+        return true;
+    }
+    
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == R.id.action_import_csv) {
+            importLauncher.launch(new String[] {"text/*", "application/vnd.ms-excel"});
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+    
+    /**
+     * Ask which class the imported students should be enrolled in
+     * @param uri The chosen CSV file, null if the user cancelled
+     */
+    private void chooseImportClass(Uri uri) {
+        if (uri == null || importTask != null) {
+            return;
+        }
+        ClassRepository.getInstance(this).getAllClasses(classes -> {
+            String[] labels = new String[classes.size() + 1];
+            labels[0] = getString(R.string.import_no_class);
+            for (int i = 0; i < classes.size(); i++) {
+                labels[i + 1] = classes.get(i).getCourseName();
+            }
+            new AlertDialog.Builder(this)
+                .setTitle(R.string.import_target_class)
+                .setItems(labels, (dialog, which) -> startImport(uri,
+                    which == 0 ? RosterImporter.NO_CLASS : classes.get(which - 1).getId()))
+                .setNegativeButton(R.string.cancel, null)
+                .show();
+        });
+    }
+    
+    /**
+     * Import the roster in the background behind a progress dialog
+     * The student list refreshes by itself as chunks are committed
+     */
+    private void startImport(Uri uri, int classId) {
+        View view = getLayoutInflater().inflate(R.layout.dialog_progress, null);
+        TextView tvProgress = view.findViewById(R.id.tvProgress);
+        importDialog = new AlertDialog.Builder(this)
+            .setTitle(R.string.import_in_progress)
+            .setView(view)
+            .setCancelable(false)
+            .setNegativeButton(R.string.cancel, (dialog, which) -> finishImport())
+            .show();
+        
+        importTask = rosterImporter.importCsv(uri, classId, new RosterImporter.Listener() {
+            @Override
+            public void onProgress(int rowsRead) {
+                tvProgress.setText(getString(R.string.import_progress, rowsRead));
+            }
+            
+            @Override
+            public void onComplete(@NonNull RosterImportReport report) {
+                finishImport();
+                showImportReport(report);
+            }
+            
+            @Override
+            public void onError(@NonNull Exception error) {
+                finishImport();
+                Toast.makeText(StudentListActivity.this, R.string.import_failed, Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+    
+    /**
+     * Dismiss the progress dialog, cancelling the import if it is still running
+     */
+    private void finishImport() {
+        if (importTask != null) {
+            importTask.cancel(true);
+            importTask = null;
+        }
+        if (importDialog != null) {
+            importDialog.dismiss();
+            importDialog = null;
+        }
+    }
+    
+    /**
+     * Show import counts and the rejected rows
+     */
+    private void showImportReport(RosterImportReport report) {
+        StringBuilder message = new StringBuilder(getString(R.string.import_summary,
+            report.insertedCount, report.updatedCount, report.unchangedCount, report.rejectedCount));
+        for (RosterImportReport.RowError error : report.errors) {
+            message.append('\n').append(getString(R.string.import_error_line, error.lineNumber, error.message));
+        }
+        if (report.rejectedCount > report.errors.size()) {
+            message.append("\n…");
+        }
+        new AlertDialog.Builder(this)
+            .setTitle(R.string.import_result_title)
+            .setMessage(message)
+            .setPositiveButton(android.R.string.ok, null)
+            .show();
+    }
+    
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        finishImport();
+        searchPipeline.cancel();
+        studentRepository.removeObserver(studentChanges);
     }
     
     @Override
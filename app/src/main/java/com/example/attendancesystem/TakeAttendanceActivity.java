@@ -2,28 +2,36 @@ package com.example.attendancesystem;
 
 import android.app.DatePickerDialog;
 import android.os.Bundle;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 import android.widget.Button;
 import android.widget.DatePicker;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.paging.LoadState;
+import androidx.room.InvalidationTracker;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.attendancesystem.adapter.TakeAttendanceAdapter;
-import com.example.attendancesystem.database.AppDatabase;
-import com.example.attendancesystem.entity.Attendance;
-import com.example.attendancesystem.entity.Student;
+import com.example.attendancesystem.model.RollCallState;
+import com.example.attendancesystem.repository.AttendanceRepository;
+import com.example.attendancesystem.repository.DataCallback;
+import com.example.attendancesystem.repository.StudentRepository;
+import com.example.attendancesystem.util.SessionDays;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Future;
+
+import kotlin.Unit;
 
 /**
  * Activity for taking attendance for a specific class on a specific date
@@ -40,8 +48,9 @@ public class TakeAttendanceActivity extends AppCompatActivity {
     private Button btnSaveAttendance;
     private TextView tvEmptyState;
     
-    // Database
-    private AppDatabase database;
+    // Repositories
+    private StudentRepository studentRepository;
+    private AttendanceRepository attendanceRepository;
     
     // Adapter
     private TakeAttendanceAdapter attendanceAdapter;
@@ -49,9 +58,13 @@ public class TakeAttendanceActivity extends AppCompatActivity {
     // Data
     private int classId;
     private String courseName;
-    private List<Student> studentList;
-    private List<Attendance> attendanceList;
-    private long selectedDate;
+    private long selectedDay;
+    // Day of the roll call shown, which lags selectedDay while the next one loads
+    private long rollCallDay;
+    private Future<RollCallState> rollCallTask;
+    // Set when a toggle lands while a roll call loads, which may have missed it
+    private boolean rollCallStale;
+    private InvalidationTracker.Observer rosterChanges;
     
     // Date format
     private SimpleDateFormat dateFormat;
@@ -61,8 +74,9 @@ public class TakeAttendanceActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_take_attendance);
         
-        // Initialize database
-        database = AppDatabase.getInstance(this);
+        // Initialize repositories
+        studentRepository = StudentRepository.getInstance(this);
+        attendanceRepository = AttendanceRepository.getInstance(this);
         
         // Get intent data
         classId = getIntent().getIntExtra("classId", -1);
@@ -77,8 +91,8 @@ public class TakeAttendanceActivity extends AppCompatActivity {
         // Initialize date format
         dateFormat = new SimpleDateFormat("yyyy/MM/dd", Locale.getDefault());
         
-        // Set current date as default
-        selectedDate = System.currentTimeMillis();
+        // Set today as default; sessions are keyed by day, see SessionDays
+        selectedDay = SessionDays.today();
         
         // Initialize views
         initViews();
@@ -132,12 +146,34 @@ public class TakeAttendanceActivity extends AppCompatActivity {
      * Setup RecyclerView with adapter
      */
     private void setupRecyclerView() {
-        studentList = new ArrayList<>();
-        attendanceList = new ArrayList<>();
-        attendanceAdapter = new TakeAttendanceAdapter(studentList, attendanceList, selectedDate);
+        attendanceAdapter = new TakeAttendanceAdapter();
+        
+        // Toggles are journaled as they happen, written behind as drafts, and promoted on save
+        attendanceAdapter.setOnStatusChangeListener((studentIds, presentStatuses) -> {
+            attendanceRepository.recordRollCall(classId, rollCallDay, studentIds, presentStatuses);
+            if (rollCallTask != null) {
+                rollCallStale = true;
+            }
+        });
+        
+        // Show/hide empty state once the first page of students is loaded
+        attendanceAdapter.addLoadStateListener(loadStates -> {
+            if (loadStates.getRefresh() instanceof LoadState.NotLoading) {
+                updateEmptyState(attendanceAdapter.getItemCount() == 0);
+            }
+            return Unit.INSTANCE;
+        });
         
         rvStudents.setLayoutManager(new LinearLayoutManager(this));
         rvStudents.setAdapter(attendanceAdapter);
+        
+        // Enrolled students are paged; the roster reloads by itself when students or enrollments change
+        studentRepository.getStudentsPagedByClass(classId).observe(this, pagingData ->
+            attendanceAdapter.submitData(getLifecycle(), pagingData));
+        
+        // The roll call is reloaded with it, so students enrolled meanwhile can be toggled;
+        // recorded toggles are reapplied by student ID
+        rosterChanges = studentRepository.observeRosterChanges(this::loadData);
     }
     
     /**
@@ -169,7 +205,7 @@ public class TakeAttendanceActivity extends AppCompatActivity {
      */
     private void showDatePicker() {
         Calendar calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(selectedDate);
+        calendar.setTimeInMillis(SessionDays.toMillis(selectedDay));
         
         int year = calendar.get(Calendar.YEAR);
         int month = calendar.get(Calendar.MONTH);
@@ -180,9 +216,7 @@ public class TakeAttendanceActivity extends AppCompatActivity {
             new DatePickerDialog.OnDateSetListener() {
                 @Override
                 public void onDateSet(DatePicker view, int year, int month, int dayOfMonth) {
-                    Calendar newCalendar = Calendar.getInstance();
-                    newCalendar.set(year, month, dayOfMonth, 0, 0, 0);
-                    selectedDate = newCalendar.getTimeInMillis();
+                    selectedDay = SessionDays.fromDate(year, month, dayOfMonth);
                     updateSelectedDateText();
                     loadData();
                 }
@@ -197,27 +231,35 @@ public class TakeAttendanceActivity extends AppCompatActivity {
      * Update selected date text display
      */
     private void updateSelectedDateText() {
-        tvSelectedDate.setText("تاریخ: " + dateFormat.format(new Date(selectedDate)));
+        tvSelectedDate.setText("تاریخ: " + dateFormat.format(new Date(SessionDays.toMillis(selectedDay))));
     }
     
     /**
-     * Load students and attendance data
+     * Load the roll call of the selected day in the background
      */
     private void loadData() {
-        // Load all students
-        studentList.clear();
-        studentList.addAll(database.studentDao().getAllStudents());
-        
-        // Load existing attendance for selected date
-        attendanceList.clear();
-        attendanceList.addAll(database.attendanceDao().getAttendanceByClassAndDate(classId, selectedDate));
-        
-        // Update adapter
-        attendanceAdapter.setAttendanceList(attendanceList);
-        attendanceAdapter.notifyDataSetChanged();
-        
-        // Show/hide empty state
-        if (studentList.isEmpty()) {
+        if (rollCallTask != null) {
+            rollCallTask.cancel(false);
+        }
+        rollCallStale = false;
+        final long epochDay = selectedDay;
+        rollCallTask = attendanceRepository.loadRollCall(classId, epochDay, rollCall -> {
+            rollCallTask = null;
+            if (epochDay == selectedDay) {
+                rollCallDay = epochDay;
+                attendanceAdapter.setRollCall(rollCall);
+            }
+            if (rollCallStale) {
+                loadData();
+            }
+        });
+    }
+    
+    /**
+     * Show/hide empty state
+     */
+    private void updateEmptyState(boolean isEmpty) {
+        if (isEmpty) {
             rvStudents.setVisibility(View.GONE);
             tvEmptyState.setVisibility(View.VISIBLE);
         } else {
@@ -228,43 +270,57 @@ public class TakeAttendanceActivity extends AppCompatActivity {
     
     /**
      * Save attendance data to database
+     * Toggles recorded so far are written; students that were not toggled and have no record are saved as present
      */
     private void saveAttendance() {
-        List<Attendance> newAttendanceList = new ArrayList<>();
-        
-        // Get attendance status for each student
-        for (Student student : studentList) {
-            boolean isPresent = attendanceAdapter.isStudentPresent(student.getId());
-            
-            // Check if attendance already exists
-            boolean found = false;
-            for (Attendance existingAttendance : attendanceList) {
-                if (existingAttendance.getStudentId() == student.getId() && 
-                    existingAttendance.getDate() == selectedDate) {
-                    // Update existing attendance
-                    existingAttendance.setPresent(isPresent);
-                    database.attendanceDao().update(existingAttendance);
-                    found = true;
-                    break;
-                }
+        attendanceRepository.saveRollCall(classId, selectedDay, new DataCallback<Void>() {
+            @Override
+            public void onResult(Void result) {
+                Toast.makeText(TakeAttendanceActivity.this, "حضور و غیاب با موفقیت ثبت شد", Toast.LENGTH_SHORT).show();
+                
+                // Reload data
+                loadData();
             }
             
-            // If not found, create new attendance
-            if (!found) {
-                Attendance attendance = new Attendance(student.getId(), classId, selectedDate, isPresent);
-                newAttendanceList.add(attendance);
+            @Override
+            public void onError(@NonNull Throwable error) {
+                // The toggles stay in the journal or the drafts, so saving again can still succeed
+                Toast.makeText(TakeAttendanceActivity.this, "ثبت حضور و غیاب ناموفق بود", Toast.LENGTH_LONG).show();
             }
+        });
+    }
+    
+    @Override
+    protected void onDestroy() {
+        if (rollCallTask != null) {
+            rollCallTask.cancel(false);
         }
-        
-        // Insert new attendance records
-        if (!newAttendanceList.isEmpty()) {
-            database.attendanceDao().insertAll(newAttendanceList);
+        if (rosterChanges != null) {
+            studentRepository.removeObserver(rosterChanges);
         }
-        
-        Toast.makeText(this, "حضور و غیاب با موفقیت ثبت شد", Toast.LENGTH_SHORT).show();
-        
-        // Reload data
-        loadData();
+        super.onDestroy();
+    }
+    
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_take_attendance, menu);
+        return true;
+    }
+    
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        int itemId = item.getItemId();
+        if (itemId == R.id.action_mark_all_present) {
+            attendanceAdapter.markAll(true);
+            return true;
+        } else if (itemId == R.id.action_mark_all_absent) {
+            attendanceAdapter.markAll(false);
+            return true;
+        } else if (itemId == R.id.action_invert_attendance) {
+            attendanceAdapter.invertAll();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
     }
     
     @Override
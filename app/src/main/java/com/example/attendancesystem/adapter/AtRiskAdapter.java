@@ -0,0 +1,105 @@
+package com.example.attendancesystem.adapter;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.attendancesystem.R;
+import com.example.attendancesystem.model.AtRiskStudent;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Adapter for the at-risk dashboard
+ * Shows one (student, class) pair per row with its attendance percentage
+ */
+public class AtRiskAdapter extends ListAdapter<AtRiskStudent, AtRiskAdapter.AtRiskViewHolder> {
+
+    /**
+     * Identifies rows by student and class and compares the displayed values
+     */
+    private static final DiffUtil.ItemCallback<AtRiskStudent> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<AtRiskStudent>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull AtRiskStudent oldItem, @NonNull AtRiskStudent newItem) {
+            return oldItem.studentId == newItem.studentId && oldItem.classId == newItem.classId;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull AtRiskStudent oldItem, @NonNull AtRiskStudent newItem) {
+            return oldItem.presentCount == newItem.presentCount
+                    && oldItem.absentCount == newItem.absentCount
+                    && Objects.equals(oldItem.studentName, newItem.studentName)
+                    && Objects.equals(oldItem.courseName, newItem.courseName);
+        }
+    };
+
+    private final Context context;
+    private final int warningColor;
+    private final int badColor;
+    private final int warningPercentage;
+    private final NumberFormat percentageFormat;
+
+    /**
+     * @param context Context of the list, for strings and colors
+     * @param warningPercentage Percentages at or above this are shown in orange, lower ones in red
+     */
+    public AtRiskAdapter(@NonNull Context context, int warningPercentage) {
+        super(DIFF_CALLBACK);
+        this.context = context;
+        this.warningPercentage = warningPercentage;
+        warningColor = ContextCompat.getColor(context, android.R.color.holo_orange_dark);
+        badColor = ContextCompat.getColor(context, R.color.absent_red);
+        percentageFormat = NumberFormat.getNumberInstance(Locale.getDefault());
+        percentageFormat.setMinimumFractionDigits(1);
+        percentageFormat.setMaximumFractionDigits(1);
+    }
+
+    @NonNull
+    @Override
+    public AtRiskViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_at_risk, parent, false);
+        return new AtRiskViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull AtRiskViewHolder holder, int position) {
+        AtRiskStudent item = getItem(position);
+        double percentage = item.getPercentage();
+        holder.tvStudentName.setText(item.studentName);
+        holder.tvCourseName.setText(item.courseName);
+        holder.tvSessions.setText(context.getString(R.string.at_risk_sessions,
+                item.presentCount, item.getTotalCount()));
+        holder.tvPercentage.setText(percentageFormat.format(percentage) + "%");
+        holder.tvPercentage.setTextColor(percentage >= warningPercentage ? warningColor : badColor);
+    }
+
+    /**
+     * ViewHolder for at-risk items
+     */
+    static class AtRiskViewHolder extends RecyclerView.ViewHolder {
+        final TextView tvStudentName;
+        final TextView tvCourseName;
+        final TextView tvSessions;
+        final TextView tvPercentage;
+
+        AtRiskViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvStudentName = itemView.findViewById(R.id.tvStudentName);
+            tvCourseName = itemView.findViewById(R.id.tvCourseName);
+            tvSessions = itemView.findViewById(R.id.tvSessions);
+            tvPercentage = itemView.findViewById(R.id.tvPercentage);
+        }
+    }
+}
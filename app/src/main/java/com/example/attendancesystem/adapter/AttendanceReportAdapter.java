@@ -6,38 +6,40 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.attendancesystem.R;
-import com.example.attendancesystem.model.StudentAttendanceInfo;
-
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import com.example.attendancesystem.model.ReportRow;
 
 /**
  * Adapter for displaying attendance reports in RecyclerView
  * Shows each student's attendance statistics
+ * Rows arrive formatted from a background thread and are diffed there too,
+ * so binding only assigns precomputed texts and colors
  */
-public class AttendanceReportAdapter extends RecyclerView.Adapter<AttendanceReportAdapter.ReportViewHolder> {
-
-    private List<StudentAttendanceInfo> studentList = new ArrayList<>();
-    private SimpleDateFormat dateFormat;
-
-    public AttendanceReportAdapter() {
-    }
+public class AttendanceReportAdapter extends ListAdapter<ReportRow, AttendanceReportAdapter.ReportViewHolder> {
 
     /**
-     * Set data for the adapter
-     *
-     * @param studentStats Map of student ID to attendance statistics
-     * @param dateFormat   Date formatter for displaying dates
+     * Identifies rows by student ID and compares the displayed values
      */
-    public void setData(Map<Integer, StudentAttendanceInfo> studentStats, SimpleDateFormat dateFormat) {
-        this.studentList = new ArrayList<>(studentStats.values());
-        this.dateFormat = dateFormat;
-        notifyDataSetChanged();
+    private static final DiffUtil.ItemCallback<ReportRow> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<ReportRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ReportRow oldItem, @NonNull ReportRow newItem) {
+            return oldItem.studentId == newItem.studentId;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ReportRow oldItem, @NonNull ReportRow newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    public AttendanceReportAdapter() {
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -50,14 +52,12 @@ public class AttendanceReportAdapter extends RecyclerView.Adapter<AttendanceRepo
 
     @Override
     public void onBindViewHolder(@NonNull ReportViewHolder holder, int position) {
-        if (position < studentList.size()) {
-            holder.bind(studentList.get(position));
-        }
+        holder.bind(getItem(position));
     }
 
     @Override
-    public int getItemCount() {
-        return studentList.size();
+    public long getItemId(int position) {
+        return getItem(position).studentId;
     }
 
     /**
@@ -81,31 +81,14 @@ public class AttendanceReportAdapter extends RecyclerView.Adapter<AttendanceRepo
             tvPercentage = itemView.findViewById(R.id.tvPercentage);
         }
 
-        public void bind(StudentAttendanceInfo info) {
-            tvStudentName.setText(info.student.getName());
-            tvStudentNumber.setText("شماره دانشجویی: " + info.student.getStudentNumber());
-
-            int totalSessions = info.presentCount + info.absentCount;
-            double percentage = totalSessions > 0 ? (info.presentCount * 100.0 / totalSessions) : 0.0;
-
-            tvPresentCount.setText(String.valueOf(info.presentCount));
-            tvAbsentCount.setText(String.valueOf(info.absentCount));
-            tvTotalSessions.setText(String.valueOf(totalSessions));
-
-            String percentageText = String.format("%.1f%%", percentage);
-            tvPercentage.setText(percentageText);
-
-            // Color code the percentage
-            if (percentage >= 75) {
-                tvPercentage.setTextColor(itemView.getContext().getResources()
-                        .getColor(R.color.present_green));
-            } else if (percentage >= 50) {
-                tvPercentage.setTextColor(itemView.getContext().getResources()
-                        .getColor(android.R.color.holo_orange_dark));
-            } else {
-                tvPercentage.setTextColor(itemView.getContext().getResources()
-                        .getColor(R.color.absent_red));
-            }
+        public void bind(ReportRow row) {
+            tvStudentName.setText(row.name);
+            tvStudentNumber.setText(row.studentNumberText);
+            tvPresentCount.setText(row.presentText);
+            tvAbsentCount.setText(row.absentText);
+            tvTotalSessions.setText(row.totalText);
+            tvPercentage.setText(row.percentageText);
+            tvPercentage.setTextColor(row.percentageColor);
         }
     }
 }
@@ -7,19 +7,21 @@ import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.attendancesystem.R;
 import com.example.attendancesystem.entity.ClassCourse;
 
-import java.util.List;
+import java.util.Objects;
 
 /**
  * Adapter for displaying list of classes in RecyclerView
+ * New lists are diffed on a background thread, so only changed rows are rebound
  */
-public class ClassAdapter extends RecyclerView.Adapter<ClassAdapter.ClassViewHolder> {
+public class ClassAdapter extends ListAdapter<ClassCourse, ClassAdapter.ClassViewHolder> {
     
-    private List<ClassCourse> classList;
     private OnItemClickListener listener;
     
     /**
@@ -32,14 +34,32 @@ public class ClassAdapter extends RecyclerView.Adapter<ClassAdapter.ClassViewHol
         void onDeleteClick(ClassCourse classCourse);
     }
     
+    /**
+     * Identifies classes by ID and compares their displayed fields
+     */
+    private static final DiffUtil.ItemCallback<ClassCourse> DIFF_CALLBACK = new DiffUtil.ItemCallback<ClassCourse>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ClassCourse oldItem, @NonNull ClassCourse newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull ClassCourse oldItem, @NonNull ClassCourse newItem) {
+            return Objects.equals(oldItem.getCourseName(), newItem.getCourseName())
+                && Objects.equals(oldItem.getInstructorName(), newItem.getInstructorName())
+                && Objects.equals(oldItem.getDay(), newItem.getDay())
+                && Objects.equals(oldItem.getTime(), newItem.getTime());
+        }
+    };
+    
     /**
      * Constructor
-     * @param classList List of classes to display
      * @param listener Click listener for items
      */
-    public ClassAdapter(List<ClassCourse> classList, OnItemClickListener listener) {
-        this.classList = classList;
+    public ClassAdapter(OnItemClickListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
+        setHasStableIds(true);
     }
     
     @NonNull
@@ -52,13 +72,13 @@ public class ClassAdapter extends RecyclerView.Adapter<ClassAdapter.ClassViewHol
     
     @Override
     public void onBindViewHolder(@NonNull ClassViewHolder holder, int position) {
-        ClassCourse classCourse = classList.get(position);
+        ClassCourse classCourse = getItem(position);
         holder.bind(classCourse, listener);
     }
     
     @Override
-    public int getItemCount() {
-        return classList.size();
+    public long getItemId(int position) {
+        return getItem(position).getId();
     }
     
     /**
@@ -114,6 +134,16 @@ public class ClassAdapter extends RecyclerView.Adapter<ClassAdapter.ClassViewHol
                 }
             });
             
+            // Click to manage enrolled students
+            itemView.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    if (listener != null) {
+                        listener.onItemClick(classCourse);
+                    }
+                }
+            });
+            
             // Long press to delete
             itemView.setOnLongClickListener(new View.OnLongClickListener() {
                 @Override
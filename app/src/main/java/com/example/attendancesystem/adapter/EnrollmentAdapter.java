@@ -0,0 +1,96 @@
+package com.example.attendancesystem.adapter;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.CheckedTextView;
+
+import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.attendancesystem.entity.Student;
+
+import java.util.Set;
+
+/**
+ * Adapter for picking the students enrolled in a class
+ *
+ * Students are loaded page by page (or as search results), so the picker works the same
+ * for any number of students. The checked students are kept in a set of IDs owned by the
+ * caller, outside of the pages, so checks survive pages being dropped and searches.
+ */
+public class EnrollmentAdapter extends PagingDataAdapter<Student, EnrollmentAdapter.EnrollmentViewHolder> {
+
+    private final Set<Integer> checkedIds;
+
+    /**
+     * Constructor
+     * @param checkedIds IDs of the checked students; updated as rows are clicked
+     */
+    public EnrollmentAdapter(Set<Integer> checkedIds) {
+        super(StudentAdapter.DIFF_CALLBACK);
+        this.checkedIds = checkedIds;
+    }
+
+    @NonNull
+    @Override
+    public EnrollmentViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+            .inflate(android.R.layout.simple_list_item_multiple_choice, parent, false);
+        return new EnrollmentViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull EnrollmentViewHolder holder, int position) {
+        Student student = getItem(position);
+        if (student != null) {
+            holder.bind(student);
+        } else {
+            holder.clear();
+        }
+    }
+
+    /**
+     * ViewHolder for picker rows
+     */
+    class EnrollmentViewHolder extends RecyclerView.ViewHolder {
+        private final CheckedTextView tvStudent;
+
+        public EnrollmentViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvStudent = itemView.findViewById(android.R.id.text1);
+
+            itemView.setOnClickListener(v -> {
+                int position = getBindingAdapterPosition();
+                if (position == RecyclerView.NO_POSITION) {
+                    return;
+                }
+                Student student = peek(position);
+                if (student == null) {
+                    return;
+                }
+                boolean checked = !checkedIds.contains(student.getId());
+                if (checked) {
+                    checkedIds.add(student.getId());
+                } else {
+                    checkedIds.remove(student.getId());
+                }
+                tvStudent.setChecked(checked);
+            });
+        }
+
+        public void bind(Student student) {
+            tvStudent.setText(student.getName() + " (" + student.getStudentNumber() + ")");
+            tvStudent.setChecked(checkedIds.contains(student.getId()));
+        }
+
+        /**
+         * Show an empty row while the student's page is still loading
+         */
+        public void clear() {
+            tvStudent.setText("");
+            tvStudent.setChecked(false);
+        }
+    }
+}
@@ -7,19 +7,21 @@ import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.attendancesystem.R;
 import com.example.attendancesystem.entity.Student;
 
-import java.util.List;
+import java.util.Objects;
 
 /**
  * Adapter for displaying list of students in RecyclerView
+ * Students are loaded page by page, so only the pages around the visible rows are kept in memory
  */
-public class StudentAdapter extends RecyclerView.Adapter<StudentAdapter.StudentViewHolder> {
+public class StudentAdapter extends PagingDataAdapter<Student, StudentAdapter.StudentViewHolder> {
     
-    private List<Student> studentList;
     private OnItemClickListener listener;
     
     /**
@@ -30,13 +32,28 @@ public class StudentAdapter extends RecyclerView.Adapter<StudentAdapter.StudentV
         void onDeleteClick(Student student);
     }
     
+    /**
+     * Identifies students by ID and compares their displayed fields
+     */
+    static final DiffUtil.ItemCallback<Student> DIFF_CALLBACK = new DiffUtil.ItemCallback<Student>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Student oldItem, @NonNull Student newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull Student oldItem, @NonNull Student newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                && Objects.equals(oldItem.getStudentNumber(), newItem.getStudentNumber());
+        }
+    };
+    
     /**
      * Constructor
-     * @param studentList List of students to display
      * @param listener Click listener for items
      */
-    public StudentAdapter(List<Student> studentList, OnItemClickListener listener) {
-        this.studentList = studentList;
+    public StudentAdapter(OnItemClickListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
     }
     
@@ -50,13 +67,12 @@ public class StudentAdapter extends RecyclerView.Adapter<StudentAdapter.StudentV
     
     @Override
     public void onBindViewHolder(@NonNull StudentViewHolder holder, int position) {
-        Student student = studentList.get(position);
-        holder.bind(student, listener);
-    }
-    
-    @Override
-    public int getItemCount() {
-        return studentList.size();
+        Student student = getItem(position);
+        if (student != null) {
+            holder.bind(student, listener);
+        } else {
+            holder.clear();
+        }
     }
     
     /**
@@ -106,5 +122,15 @@ public class StudentAdapter extends RecyclerView.Adapter<StudentAdapter.StudentV
                 }
             });
         }
+        
+        /**
+         * Show an empty row while the student's page is still loading
+         */
+        public void clear() {
+            tvStudentName.setText("");
+            tvStudentNumber.setText("");
+            btnEdit.setOnClickListener(null);
+            btnDelete.setOnClickListener(null);
+        }
     }
-}
\ No newline at end of file
+}
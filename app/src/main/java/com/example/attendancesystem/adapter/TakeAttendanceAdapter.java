@@ -1,5 +1,6 @@
 package com.example.attendancesystem.adapter;
 
+import android.content.res.ColorStateList;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -7,71 +8,109 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.paging.PagingDataAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.attendancesystem.R;
-import com.example.attendancesystem.entity.Attendance;
 import com.example.attendancesystem.entity.Student;
-
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import com.example.attendancesystem.model.RollCallState;
 
 /**
  * Adapter for taking attendance in RecyclerView
  * Allows toggling attendance status for each student
+ * 
+ * Students are loaded page by page. Attendance status is kept in a {@link RollCallState},
+ * outside of the pages, so toggles survive pages being dropped and reloaded. Rows look up
+ * their status by student ID rather than by position, so a roster that changed since the
+ * roll call was loaded never shows or toggles another student's status.
  */
-public class TakeAttendanceAdapter extends RecyclerView.Adapter<TakeAttendanceAdapter.AttendanceViewHolder> {
+public class TakeAttendanceAdapter extends PagingDataAdapter<Student, TakeAttendanceAdapter.AttendanceViewHolder> {
     
-    private List<Student> studentList;
-    private List<Attendance> attendanceList;
-    private long currentDate;
-    private Map<Integer, Boolean> attendanceMap;
+    private RollCallState rollCall;
+    private OnStatusChangeListener statusChangeListener;
+    
+    /**
+     * Interface for status changes made by the user
+     */
+    public interface OnStatusChangeListener {
+        /**
+         * Called when some students' status changed
+         * @param studentIds Students whose status changed
+         * @param presentStatuses New status of each entry of studentIds
+         */
+        void onStatusChanged(int[] studentIds, boolean[] presentStatuses);
+    }
     
     /**
      * Constructor
-     * @param studentList List of students
-     * @param attendanceList List of existing attendance records
-     * @param currentDate Current selected date
      */
-    public TakeAttendanceAdapter(List<Student> studentList, List<Attendance> attendanceList, long currentDate) {
-        this.studentList = studentList;
-        this.attendanceList = attendanceList;
-        this.currentDate = currentDate;
-        this.attendanceMap = new HashMap<>();
-        
-        // Build attendance map for quick lookup
-        buildAttendanceMap();
+    public TakeAttendanceAdapter() {
+        super(StudentAdapter.DIFF_CALLBACK);
+        this.rollCall = RollCallState.empty();
+    }
+    
+    /**
+     * Set the listener notified of toggles and bulk changes
+     * @param listener The listener
+     */
+    public void setOnStatusChangeListener(OnStatusChangeListener listener) {
+        this.statusChangeListener = listener;
     }
     
     /**
-     * Build a map of student ID to attendance status
+     * Replace the roll call, e.g. with the records of another session
+     * Toggles made so far are discarded. Only loaded rows whose status changed are rebound.
+     * @param newRollCall Roll call of the selected session
      */
-    private void buildAttendanceMap() {
-        attendanceMap.clear();
-        for (Attendance attendance : attendanceList) {
-            if (attendance.getDate() == currentDate) {
-                attendanceMap.put(attendance.getStudentId(), attendance.isPresent());
+    public void setRollCall(RollCallState newRollCall) {
+        RollCallState previous = rollCall;
+        rollCall = newRollCall;
+        for (int position = 0; position < getItemCount(); position++) {
+            Student student = peek(position);
+            if (student != null && isPresent(previous, student) != isPresent(rollCall, student)) {
+                notifyItemChanged(position);
             }
         }
     }
     
     /**
-     * Update attendance list and rebuild map
-     * @param attendanceList New attendance list
+     * Get the current roll call
+     * @return The roll call shown by the adapter
+     */
+    public RollCallState getRollCall() {
+        return rollCall;
+    }
+    
+    /**
+     * Mark every student as present or absent
+     * @param isPresent The status to set
      */
-    public void setAttendanceList(List<Attendance> attendanceList) {
-        this.attendanceList = attendanceList;
-        buildAttendanceMap();
+    public void markAll(boolean isPresent) {
+        rollCall.markAll(isPresent);
+        notifyItemRangeChanged(0, getItemCount());
+        notifyAllChanged();
     }
     
     /**
-     * Check if a student is marked as present
-     * @param studentId Student ID
-     * @return true if present, false otherwise
+     * Swap present and absent for every student
      */
-    public boolean isStudentPresent(int studentId) {
-        return attendanceMap.containsKey(studentId) && attendanceMap.get(studentId);
+    public void invertAll() {
+        rollCall.invert();
+        notifyItemRangeChanged(0, getItemCount());
+        notifyAllChanged();
+    }
+    
+    private void notifyAllChanged() {
+        if (statusChangeListener != null && rollCall.size() > 0) {
+            statusChangeListener.onStatusChanged(rollCall.copyStudentIds(), rollCall.copyPresentStatuses());
+        }
+    }
+    
+    private static boolean isPresent(RollCallState state, Student student) {
+        // Students missing from the roll call (e.g. before it is loaded, or enrolled since) are shown as present
+        int position = state.positionOf(student.getId());
+        return position < 0 || state.isPresent(position);
     }
     
     @NonNull
@@ -84,13 +123,12 @@ public class TakeAttendanceAdapter extends RecyclerView.Adapter<TakeAttendanceAd
     
     @Override
     public void onBindViewHolder(@NonNull AttendanceViewHolder holder, int position) {
-        Student student = studentList.get(position);
-        holder.bind(student, currentDate);
-    }
-    
-    @Override
-    public int getItemCount() {
-        return studentList.size();
+        Student student = getItem(position);
+        if (student != null) {
+            holder.bind(student, isPresent(rollCall, student));
+        } else {
+            holder.clear();
+        }
     }
     
     /**
@@ -102,6 +140,12 @@ public class TakeAttendanceAdapter extends RecyclerView.Adapter<TakeAttendanceAd
         private TextView tvStatus;
         private ImageView ivStatusIcon;
         
+        // Resolved once per view holder
+        private final int presentColor;
+        private final int absentColor;
+        private final ColorStateList presentTint;
+        private final ColorStateList absentTint;
+        
         public AttendanceViewHolder(@NonNull View itemView) {
             super(itemView);
             
@@ -109,32 +153,52 @@ public class TakeAttendanceAdapter extends RecyclerView.Adapter<TakeAttendanceAd
             tvStudentNumber = itemView.findViewById(R.id.tvStudentNumber);
             tvStatus = itemView.findViewById(R.id.tvStatus);
             ivStatusIcon = itemView.findViewById(R.id.ivStatusIcon);
+            
+            presentColor = ContextCompat.getColor(itemView.getContext(), R.color.present_green);
+            absentColor = ContextCompat.getColor(itemView.getContext(), R.color.absent_red);
+            presentTint = ColorStateList.valueOf(presentColor);
+            absentTint = ColorStateList.valueOf(absentColor);
+            
+            // Click to toggle attendance status
+            itemView.setOnClickListener(v -> {
+                int adapterPosition = getBindingAdapterPosition();
+                if (adapterPosition == RecyclerView.NO_POSITION) {
+                    return;
+                }
+                // Ignore placeholders, and students enrolled since the roll call was loaded
+                // until it is reloaded
+                Student student = peek(adapterPosition);
+                int position = student == null ? -1 : rollCall.positionOf(student.getId());
+                if (position < 0) {
+                    return;
+                }
+                boolean isPresent = rollCall.toggle(position);
+                updateAttendanceDisplay(isPresent);
+                if (statusChangeListener != null) {
+                    statusChangeListener.onStatusChanged(new int[] {student.getId()}, new boolean[] {isPresent});
+                }
+            });
         }
         
         /**
          * Bind data to the view holder
          * @param student The student to display
-         * @param date The date for attendance
+         * @param isPresent Attendance status of the student
          */
-        public void bind(Student student, long date) {
+        public void bind(Student student, boolean isPresent) {
             tvStudentName.setText(student.getName());
             tvStudentNumber.setText("شماره دانشجویی: " + student.getStudentNumber());
-            
-            // Get attendance status
-            boolean isPresent = attendanceMap.containsKey(student.getId()) ? 
-                attendanceMap.get(student.getId()) : true; // Default to present
-            
             updateAttendanceDisplay(isPresent);
-            
-            // Click to toggle attendance status
-            itemView.setOnClickListener(new View.OnClickListener() {
-                @Override
-                public void onClick(View v) {
-                    boolean newStatus = !isStudentPresent(student.getId());
-                    attendanceMap.put(student.getId(), newStatus);
-                    updateAttendanceDisplay(newStatus);
-                }
-            });
+        }
+        
+        /**
+         * Show an empty row while the student's page is still loading
+         */
+        public void clear() {
+            tvStudentName.setText("");
+            tvStudentNumber.setText("");
+            tvStatus.setText("");
+            ivStatusIcon.setImageDrawable(null);
         }
         
         /**
@@ -143,20 +207,16 @@ public class TakeAttendanceAdapter extends RecyclerView.Adapter<TakeAttendanceAd
          */
         private void updateAttendanceDisplay(boolean isPresent) {
             if (isPresent) {
-                tvStatus.setText("حاضر");
-                tvStatus.setTextColor(itemView.getContext().getResources()
-                    .getColor(R.color.present_green));
+                tvStatus.setText(R.string.present);
+                tvStatus.setTextColor(presentColor);
                 ivStatusIcon.setImageResource(android.R.drawable.presence_online);
-                ivStatusIcon.setImageTintList(itemView.getContext().getResources()
-                    .getColorStateList(R.color.present_green));
+                ivStatusIcon.setImageTintList(presentTint);
             } else {
-                tvStatus.setText("غایب");
-                tvStatus.setTextColor(itemView.getContext().getResources()
-                    .getColor(R.color.absent_red));
+                tvStatus.setText(R.string.absent);
+                tvStatus.setTextColor(absentColor);
                 ivStatusIcon.setImageResource(android.R.drawable.presence_offline);
-                ivStatusIcon.setImageTintList(itemView.getContext().getResources()
-                    .getColorStateList(R.color.absent_red));
+                ivStatusIcon.setImageTintList(absentTint);
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -1,39 +1,69 @@
 package com.example.attendancesystem.dao;
 
+import android.database.Cursor;
+
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import com.example.attendancesystem.entity.Attendance;
+import com.example.attendancesystem.entity.AttendanceStats;
+import com.example.attendancesystem.entity.PackedSession;
+import com.example.attendancesystem.entity.RollCallDraft;
+import com.example.attendancesystem.model.AtRiskStudent;
 import com.example.attendancesystem.model.AttendanceSummary;
+import com.example.attendancesystem.model.ClassAttendanceTotals;
+import com.example.attendancesystem.model.SessionKey;
+import com.example.attendancesystem.model.StudentAttendanceInfo;
+import com.example.attendancesystem.util.AttendanceBitmap;
 
-
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object for Attendance entity
  * Provides methods for database operations on attendance table
+ * 
+ * Sessions are keyed by class and epoch day (see SessionDays) and listed in class_sessions,
+ * which every attendance row references. Date-range queries scan the (classId, epochDay)
+ * prefix of the attendance index.
+ * 
+ * A finalized session can be stored either as one attendance row per student or as a
+ * single packed_sessions row (see {@link #packSession(int, long)}). Methods noted as
+ * covering packed sessions return the same results whichever storage a session uses.
+ * 
+ * A roll call being taken is written behind to roll_call_drafts, which only the roll call
+ * reads, and becomes a session when it is saved (see {@link #promoteRollCall(int, long)}).
  */
 @Dao
 public interface AttendanceDao {
     
     /**
      * Insert a new attendance record into the database
+     * Fails if the student already has a record for the session, use
+     * AttendanceRepository#upsertSession to overwrite. (A REPLACE
+     * conflict would delete the old row without firing the attendance_stats triggers.)
+     * The session must exist, see {@link #insertClassSession(int, long)}.
      * @param attendance The attendance object to insert
      * @return The row ID of the newly inserted record
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    @Insert(onConflict = OnConflictStrategy.ABORT)
     long insert(Attendance attendance);
     
     /**
      * Insert multiple attendance records
+     * Fails if a student already has a record for a session, see {@link #insert(Attendance)}
      * @param attendanceList List of attendance records to insert
      * @return Array of row IDs for the inserted records
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    @Insert(onConflict = OnConflictStrategy.ABORT)
     long[] insertAll(List<Attendance> attendanceList);
     
     /**
@@ -43,6 +73,102 @@ public interface AttendanceDao {
     @Update
     void update(Attendance attendance);
     
+    /**
+     * Insert the status of a student in a session
+     * Ignored if the student already has a record for that session
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     * @param studentId The student ID
+     * @param isPresent Attendance status
+     */
+    @Query(AttendanceSql.INSERT_SESSION_STATUS)
+    void insertSessionStatus(int classId, long epochDay, int studentId, boolean isPresent);
+    
+    /**
+     * Create a session if it does not exist yet
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     */
+    @Query(AttendanceSql.INSERT_CLASS_SESSION)
+    void insertClassSession(int classId, long epochDay);
+    
+    /**
+     * Save every enrolled student without a record for a session as present
+     * One statement for the whole roster; existing records are kept.
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     */
+    @Query("INSERT OR IGNORE INTO attendance (studentId, classId, epochDay, isPresent) " +
+           "SELECT enrollments.studentId, :classId, :epochDay, 1 FROM enrollments " +
+           "INNER JOIN students ON students.id = enrollments.studentId " +
+           "WHERE enrollments.classId = :classId AND students.deleted = 0")
+    void insertMissingAsPresent(int classId, long epochDay);
+    
+    /**
+     * Get the statuses written behind for a roll call that has not been saved yet
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     * @return Drafts of the roll call, in no particular order
+     */
+    @Query("SELECT * FROM roll_call_drafts WHERE classId = :classId AND epochDay = :epochDay")
+    List<RollCallDraft> getRollCallDrafts(int classId, long epochDay);
+    
+    /**
+     * Overwrite the records of enrolled students that differ from their roll call draft
+     * A status that differs is the other one, so it is flipped.
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     */
+    @Query("UPDATE attendance SET isPresent = NOT isPresent " +
+           "WHERE classId = :classId AND epochDay = :epochDay AND EXISTS (SELECT 1 FROM roll_call_drafts " +
+           "INNER JOIN enrollments ON enrollments.classId = roll_call_drafts.classId " +
+           "AND enrollments.studentId = roll_call_drafts.studentId " +
+           "WHERE roll_call_drafts.classId = attendance.classId AND roll_call_drafts.epochDay = attendance.epochDay " +
+           "AND roll_call_drafts.studentId = attendance.studentId " +
+           "AND roll_call_drafts.isPresent != attendance.isPresent)")
+    void updateRecordsFromDrafts(int classId, long epochDay);
+    
+    /**
+     * Insert the roll call drafts of enrolled students without a record as records
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     */
+    @Query("INSERT OR IGNORE INTO attendance (studentId, classId, epochDay, isPresent) " +
+           "SELECT roll_call_drafts.studentId, :classId, :epochDay, roll_call_drafts.isPresent " +
+           "FROM roll_call_drafts INNER JOIN enrollments ON enrollments.classId = roll_call_drafts.classId " +
+           "AND enrollments.studentId = roll_call_drafts.studentId " +
+           "WHERE roll_call_drafts.classId = :classId AND roll_call_drafts.epochDay = :epochDay")
+    void insertRecordsFromDrafts(int classId, long epochDay);
+    
+    /**
+     * Drop the roll call drafts of a session
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     */
+    @Query("DELETE FROM roll_call_drafts WHERE classId = :classId AND epochDay = :epochDay")
+    void deleteRollCallDrafts(int classId, long epochDay);
+    
+    /**
+     * Save a roll call from its drafts
+     * The session is created if needed, and unpacked if packed. The drafts of enrolled
+     * students then overwrite or add their records, every other enrolled student without a
+     * record is saved as present, and the drafts are dropped: a fixed number of statements,
+     * whatever the roster size. Enrollments are dropped when a student is deleted, so drafts
+     * of deleted students are left out too.
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     */
+    @Transaction
+    default void promoteRollCall(int classId, long epochDay) {
+        insertClassSession(classId, epochDay);
+        // A packed session is expanded back to rows before it is edited
+        unpackSession(classId, epochDay);
+        updateRecordsFromDrafts(classId, epochDay);
+        insertRecordsFromDrafts(classId, epochDay);
+        insertMissingAsPresent(classId, epochDay);
+        deleteRollCallDrafts(classId, epochDay);
+    }
+    
     /**
      * Delete an attendance record
      * @param attendance The attendance object to delete
@@ -62,7 +188,7 @@ public interface AttendanceDao {
      * @param classId The class ID
      * @return List of attendance records for that class
      */
-    @Query("SELECT * FROM attendance WHERE classId = :classId")
+    @Query(AttendanceSql.ATTENDANCE_BY_CLASS)
     List<Attendance> getAttendanceByClass(int classId);
     
     /**
@@ -74,21 +200,102 @@ public interface AttendanceDao {
     List<Attendance> getAttendanceByStudent(int studentId);
     
     /**
-     * Get attendance records for a specific class on a specific date
+     * Get attendance records for a specific class on a specific day
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     * @return List of attendance records for that class on that day
+     */
+    @Query("SELECT * FROM attendance WHERE classId = :classId AND epochDay = :epochDay")
+    List<Attendance> getAttendanceByClassAndDay(int classId, long epochDay);
+    
+    /**
+     * Get attendance records for a class on a specific day, covering packed sessions
+     * Records of a packed session are rebuilt from its bitmap and have no ID
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     * @return List of attendance records for that class on that day
+     */
+    @Transaction
+    default List<Attendance> getSessionAttendance(int classId, long epochDay) {
+        List<Attendance> records = getAttendanceByClassAndDay(classId, epochDay);
+        if (!records.isEmpty()) {
+            return records;
+        }
+        PackedSession session = getPackedSession(classId, epochDay);
+        if (session == null) {
+            return records;
+        }
+        List<Attendance> unpacked = new ArrayList<>(session.getRosterSize());
+        for (int position = 0; position < session.getRosterSize(); position++) {
+            unpacked.add(new Attendance(AttendanceBitmap.idAt(session.getRosterIds(), position), classId, epochDay,
+                    AttendanceBitmap.get(session.getPresence(), position)));
+        }
+        return unpacked;
+    }
+    
+    /**
+     * Get the session days of a class, covering packed sessions
+     * @param classId The class ID
+     * @return Epoch days, most recent first
+     */
+    @Query("SELECT epochDay FROM class_sessions WHERE classId = :classId ORDER BY epochDay DESC")
+    List<Long> getClassSessionDays(int classId);
+    
+    /**
+     * Get the session days of a class within a range, covering packed sessions
+     * @param classId The class ID
+     * @param fromDay First day of the range (inclusive)
+     * @param toDay Last day of the range (inclusive)
+     * @return Epoch days, most recent first
+     */
+    @Query("SELECT epochDay FROM class_sessions " +
+           "WHERE classId = :classId AND epochDay BETWEEN :fromDay AND :toDay " +
+           "ORDER BY epochDay DESC")
+    List<Long> getClassSessionDaysBetween(int classId, long fromDay, long toDay);
+    
+    /**
+     * Stream the present and total record counts of every session of a class, covering packed sessions
+     * Row records are grouped per day through the (classId, epochDay) index; packed sessions
+     * contribute their stored popcount and roster size.
+     * Columns: epochDay, presentCount, totalCount
+     * @param classId The class ID
+     * @return Cursor over one row per session with records, ascending day order; to be closed by the caller
+     */
+    @Query("SELECT attendance.epochDay AS epochDay, SUM(attendance.isPresent) AS presentCount, COUNT(*) AS totalCount " +
+           "FROM attendance INNER JOIN students ON students.id = attendance.studentId " +
+           "WHERE attendance.classId = :classId AND students.deleted = 0 GROUP BY attendance.epochDay " +
+           "UNION ALL " +
+           "SELECT epochDay, presentCount, rosterSize AS totalCount " +
+           "FROM packed_sessions WHERE classId = :classId " +
+           "ORDER BY epochDay")
+    Cursor getSessionTrendCursor(int classId);
+    
+    /**
+     * Get the present/absent record totals of one session from its rows
+     * A session is stored as rows right after it is saved, see AttendanceRepository#upsertSession.
      * @param classId The class ID
-     * @param date The date (timestamp)
-     * @return List of attendance records for that class on that date
+     * @param epochDay The session day, see SessionDays
+     * @return A single row with the totals (zero when the session has no rows)
      */
-    @Query("SELECT * FROM attendance WHERE classId = :classId AND date = :date")
-    List<Attendance> getAttendanceByClassAndDate(int classId, long date);
+    @Query("SELECT COALESCE(SUM(isPresent), 0) AS presentCount, " +
+           "COUNT(*) - COALESCE(SUM(isPresent), 0) AS absentCount " +
+           "FROM attendance WHERE classId = :classId AND epochDay = :epochDay")
+    ClassAttendanceTotals getSessionTotals(int classId, long epochDay);
     
     /**
-     * Get unique dates for a class (all session dates)
+     * Get attendance records of a class within a range of days (packed sessions excluded)
+     * A range scan of the (classId, epochDay, studentId) index
      * @param classId The class ID
-     * @return List of unique date timestamps
+     * @param fromDay First day of the range (inclusive)
+     * @param toDay Last day of the range (inclusive)
+     * @return List of attendance records, by day
      */
-    @Query("SELECT DISTINCT date FROM attendance WHERE classId = :classId ORDER BY date DESC")
-    List<Long> getClassSessionDates(int classId);
+    @Query("SELECT attendance.* FROM attendance " +
+           "INNER JOIN students ON students.id = attendance.studentId " +
+           "WHERE attendance.classId = :classId AND attendance.epochDay BETWEEN :fromDay AND :toDay " +
+           "AND students.deleted = 0 " +
+           "ORDER BY attendance.epochDay")
+    List<Attendance> getAttendanceByClassBetween(int classId, long fromDay, long toDay);
     
     /**
      * Get attendance records for a specific student in a specific class
@@ -100,43 +307,412 @@ public interface AttendanceDao {
     List<Attendance> getAttendanceByStudentAndClass(int studentId, int classId);
     
     /**
-     * Get attendance summary for a student in a class
-     * Returns the count of present and absent sessions
+     * Get attendance summary for a student in a class, from attendance_stats
+     * Returns the count of present and absent sessions, covering packed sessions
      * @param studentId The student ID
      * @param classId The class ID
-     * @return Array where index 0 = present count, index 1 = absent count
+     * @return One row per status with a non-zero count
      */
-    @Query("SELECT isPresent, COUNT(*) as count FROM attendance WHERE studentId = :studentId AND classId = :classId GROUP BY isPresent")
+    @Query("SELECT 1 AS isPresent, presentCount AS count FROM attendance_stats " +
+           "WHERE studentId = :studentId AND classId = :classId AND presentCount > 0 " +
+           "UNION ALL " +
+           "SELECT 0 AS isPresent, absentCount AS count FROM attendance_stats " +
+           "WHERE studentId = :studentId AND classId = :classId AND absentCount > 0")
     List<AttendanceSummary> getAttendanceSummary(int studentId, int classId);
+    
+    /**
+     * Get the running counts of a student in a class
+     * @param studentId The student ID
+     * @param classId The class ID
+     * @return The counts, or null if the student has no record in the class
+     */
+    @Query("SELECT * FROM attendance_stats WHERE studentId = :studentId AND classId = :classId")
+    AttendanceStats getStats(int studentId, int classId);
+    
     /**
-     * Count present sessions for a student in a class
+     * Count present sessions for a student in a class, covering packed sessions
      * @param studentId The student ID
      * @param classId The class ID
      * @return Number of present sessions
      */
-    @Query("SELECT COUNT(*) FROM attendance WHERE studentId = :studentId AND classId = :classId AND isPresent = 1")
+    @Query("SELECT COALESCE((SELECT presentCount FROM attendance_stats " +
+           "WHERE studentId = :studentId AND classId = :classId), 0)")
     int getPresentCount(int studentId, int classId);
     
     /**
-     * Count absent sessions for a student in a class
+     * Count absent sessions for a student in a class, covering packed sessions
      * @param studentId The student ID
      * @param classId The class ID
      * @return Number of absent sessions
      */
-    @Query("SELECT COUNT(*) FROM attendance WHERE studentId = :studentId AND classId = :classId AND isPresent = 0")
+    @Query("SELECT COALESCE((SELECT absentCount FROM attendance_stats " +
+           "WHERE studentId = :studentId AND classId = :classId), 0)")
     int getAbsentCount(int studentId, int classId);
     
     /**
-     * Delete all attendance records for a specific class
+     * Get present/absent counts of every enrolled student of a class, covering packed sessions
+     * One attendance_stats lookup per student; students without any record have zero counts
      * @param classId The class ID
+     * @return One row per student, ordered by name then ID
      */
-    @Query("DELETE FROM attendance WHERE classId = :classId")
-    void deleteAttendanceByClass(int classId);
+    @Query(AttendanceSql.STUDENT_ATTENDANCE_INFO)
+    List<StudentAttendanceInfo> getStudentAttendanceInfo(int classId);
     
     /**
-     * Delete all attendance records for a specific student
+     * Get the enrollments with the lowest attendance rate across all classes
+     * Reads the running counts in attendance_stats, one row per (student, class) pair, so the
+     * cost depends on the number of enrollments rather than on the attendance records.
+     * @param maxPercentage Only pairs attending less than this percentage of their sessions
+     * @param limit Maximum number of pairs returned
+     * @return Pairs ordered by rate, then student name and ID, then class ID
+     */
+    @Query("SELECT students.id AS studentId, students.name AS studentName, students.studentNumber, " +
+           "classes.id AS classId, classes.courseName, " +
+           "attendance_stats.presentCount, attendance_stats.absentCount " +
+           "FROM attendance_stats " +
+           "INNER JOIN enrollments ON enrollments.classId = attendance_stats.classId " +
+           "AND enrollments.studentId = attendance_stats.studentId " +
+           "INNER JOIN students ON students.id = attendance_stats.studentId " +
+           "INNER JOIN classes ON classes.id = attendance_stats.classId " +
+           "WHERE attendance_stats.presentCount * 100 < " +
+           ":maxPercentage * (attendance_stats.presentCount + attendance_stats.absentCount) " +
+           "AND students.deleted = 0 AND classes.deleted = 0 " +
+           "ORDER BY attendance_stats.presentCount * 1.0 / " +
+           "(attendance_stats.presentCount + attendance_stats.absentCount), " +
+           "students.name, students.id, classes.id " +
+           "LIMIT :limit")
+    List<AtRiskStudent> getAtRiskStudents(int maxPercentage, int limit);
+    
+    /**
+     * Get present/absent record totals of a class, covering packed sessions
+     * Sums the attendance_stats rows of the class
+     * @param classId The class ID
+     * @return A single row with the totals (zero when the class has no records)
+     */
+    @Query(AttendanceSql.CLASS_TOTALS)
+    ClassAttendanceTotals getClassTotals(int classId);
+    
+    /**
+     * Get present/absent record totals of a class within a range of days, covering packed sessions
+     * Rows are counted through the (classId, epochDay) index prefix; packed sessions
+     * contribute their stored popcount
+     * @param classId The class ID
+     * @param fromDay First day of the range (inclusive)
+     * @param toDay Last day of the range (inclusive)
+     * @return A single row with the totals (zero when the range has no records)
+     */
+    @Query(AttendanceSql.CLASS_TOTALS_BETWEEN)
+    ClassAttendanceTotals getClassTotalsBetween(int classId, long fromDay, long toDay);
+    
+    /**
+     * Get present/absent counts of every enrolled student of a class within a range of days,
+     * from row records (packed sessions excluded)
+     * @param classId The class ID
+     * @param fromDay First day of the range (inclusive)
+     * @param toDay Last day of the range (inclusive)
+     * @return One row per student, ordered by name then ID
+     */
+    @Query("SELECT students.*, " +
+           "COALESCE(SUM(attendance.isPresent), 0) AS presentCount, " +
+           "COUNT(attendance.id) - COALESCE(SUM(attendance.isPresent), 0) AS absentCount " +
+           "FROM enrollments " +
+           "INNER JOIN students ON students.id = enrollments.studentId " +
+           "LEFT JOIN attendance ON attendance.studentId = students.id AND attendance.classId = :classId " +
+           "AND attendance.epochDay BETWEEN :fromDay AND :toDay " +
+           "WHERE enrollments.classId = :classId AND students.deleted = 0 " +
+           "GROUP BY students.id " +
+           "ORDER BY students.name, students.id")
+    List<StudentAttendanceInfo> getRowStudentAttendanceInfoBetween(int classId, long fromDay, long toDay);
+    
+    /**
+     * Get present/absent counts of every enrolled student of a class within a range of days,
+     * covering packed sessions
+     * Row records are aggregated in SQL, packed sessions in the range are added from their bitmaps.
+     * Use {@link #getStudentAttendanceInfo(int)} for all-time counts, which need no aggregation.
+     * @param classId The class ID
+     * @param fromDay First day of the range (inclusive)
+     * @param toDay Last day of the range (inclusive)
+     * @return One row per student, ordered by name then ID
+     */
+    @Transaction
+    default List<StudentAttendanceInfo> getStudentAttendanceInfoBetween(int classId, long fromDay, long toDay) {
+        List<StudentAttendanceInfo> infos = getRowStudentAttendanceInfoBetween(classId, fromDay, toDay);
+        List<PackedSession> sessions = getPackedSessionsBetween(classId, fromDay, toDay);
+        if (sessions.isEmpty()) {
+            return infos;
+        }
+        Map<Integer, StudentAttendanceInfo> infoById = new HashMap<>(infos.size() * 2);
+        for (StudentAttendanceInfo info : infos) {
+            infoById.put(info.student.getId(), info);
+        }
+        for (PackedSession session : sessions) {
+            for (int position = 0; position < session.getRosterSize(); position++) {
+                StudentAttendanceInfo info = infoById.get(AttendanceBitmap.idAt(session.getRosterIds(), position));
+                if (info == null) {
+                    continue;
+                }
+                if (AttendanceBitmap.get(session.getPresence(), position)) {
+                    info.presentCount++;
+                } else {
+                    info.absentCount++;
+                }
+            }
+        }
+        return infos;
+    }
+    
+    /**
+     * Stream the row records of the enrolled students of a class within a range of days
+     * One row per (student, record), and a single row with null epochDay and isPresent for
+     * students without records. Rows of a student are adjacent, students ordered by name.
+     * Packed sessions are not included, see {@link #getPackedSessionsBetween(int, long, long)}.
+     * Columns: studentId, name, studentNumber, epochDay, isPresent
+     * The unary + keeps SQLite on the (studentId, classId) index for each student, rather
+     * than rescanning the class's range of the (classId, epochDay) index.
+     * @param classId The class ID
+     * @param fromDay First day of the range (inclusive)
+     * @param toDay Last day of the range (inclusive)
+     * @return Cursor over the rows, to be closed by the caller
+     */
+    @Query("SELECT students.id AS studentId, students.name, students.studentNumber, " +
+           "attendance.epochDay, attendance.isPresent " +
+           "FROM enrollments " +
+           "INNER JOIN students ON students.id = enrollments.studentId " +
+           "LEFT JOIN attendance ON attendance.studentId = students.id AND attendance.classId = :classId " +
+           "AND +attendance.epochDay BETWEEN :fromDay AND :toDay " +
+           "WHERE enrollments.classId = :classId AND students.deleted = 0 " +
+           "ORDER BY students.name, students.id")
+    Cursor getAttendanceMatrixCursor(int classId, long fromDay, long toDay);
+    
+    /**
+     * Delete up to limit attendance records of a class, so a purge can hold the writer briefly
+     * @param classId The class ID
+     * @param limit Maximum number of records to delete
+     * @return Number of records deleted, 0 once none are left
+     */
+    @Query("DELETE FROM attendance WHERE id IN " +
+           "(SELECT id FROM attendance WHERE classId = :classId LIMIT :limit)")
+    int deleteAttendanceChunkByClass(int classId, int limit);
+    
+    /**
+     * Delete up to limit attendance records of a student, so a purge can hold the writer briefly
+     * @param studentId The student ID
+     * @param limit Maximum number of records to delete
+     * @return Number of records deleted, 0 once none are left
+     */
+    @Query("DELETE FROM attendance WHERE id IN " +
+           "(SELECT id FROM attendance WHERE studentId = :studentId LIMIT :limit)")
+    int deleteAttendanceChunkByStudent(int studentId, int limit);
+    
+    /**
+     * Delete up to limit sessions of a class, with their packed sessions through the cascade
+     * @param classId The class ID
+     * @param limit Maximum number of sessions to delete
+     * @return Number of sessions deleted, 0 once none are left
+     */
+    @Query("DELETE FROM class_sessions WHERE rowid IN " +
+           "(SELECT rowid FROM class_sessions WHERE classId = :classId LIMIT :limit)")
+    int deleteClassSessionsChunk(int classId, int limit);
+    
+    /**
+     * Count the attendance records still to be purged for deleted classes and students
+     * @return Number of records, counted twice for a deleted student in a deleted class
+     */
+    @Query("SELECT (SELECT COUNT(*) FROM attendance " +
+           "WHERE classId IN (SELECT id FROM classes WHERE deleted = 1)) + " +
+           "(SELECT COUNT(*) FROM attendance " +
+           "WHERE studentId IN (SELECT id FROM students WHERE deleted = 1))")
+    int countDeletedAttendance();
+    
+    /**
+     * Drop the statistics of a class
+     * With them gone, the statistics triggers skip the records purged afterwards
+     * @param classId The class ID
+     */
+    @Query("DELETE FROM attendance_stats WHERE classId = :classId")
+    void deleteStatsByClass(int classId);
+    
+    /**
+     * Drop the statistics of a student
+     * With them gone, the statistics triggers skip the records purged afterwards
+     * @param studentId The student ID
+     */
+    @Query("DELETE FROM attendance_stats WHERE studentId = :studentId")
+    void deleteStatsByStudent(int studentId);
+    
+    /**
+     * Delete the row records of one session
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     */
+    @Query("DELETE FROM attendance WHERE classId = :classId AND epochDay = :epochDay")
+    void deleteSessionRows(int classId, long epochDay);
+    
+    /**
+     * Insert or replace a packed session
+     * @param session The packed session
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertPackedSession(PackedSession session);
+    
+    /**
+     * Get a packed session
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     * @return The packed session, or null if the session is not packed
+     */
+    @Query("SELECT * FROM packed_sessions WHERE classId = :classId AND epochDay = :epochDay")
+    PackedSession getPackedSession(int classId, long epochDay);
+    
+    /**
+     * Get all packed sessions of a class
+     * @param classId The class ID
+     * @return List of packed sessions
+     */
+    @Query("SELECT * FROM packed_sessions WHERE classId = :classId")
+    List<PackedSession> getPackedSessions(int classId);
+    
+    /**
+     * Get the packed sessions of a class within a range of days
+     * @param classId The class ID
+     * @param fromDay First day of the range (inclusive)
+     * @param toDay Last day of the range (inclusive)
+     * @return List of packed sessions
+     */
+    @Query("SELECT * FROM packed_sessions " +
+           "WHERE classId = :classId AND epochDay BETWEEN :fromDay AND :toDay")
+    List<PackedSession> getPackedSessionsBetween(int classId, long fromDay, long toDay);
+    
+    /**
+     * Get the IDs of classes that have packed sessions
+     * @return List of class IDs
+     */
+    @Query("SELECT DISTINCT classId FROM packed_sessions")
+    List<Integer> getClassIdsWithPackedSessions();
+    
+    /**
+     * Delete a packed session
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     */
+    @Query("DELETE FROM packed_sessions WHERE classId = :classId AND epochDay = :epochDay")
+    void deletePackedSession(int classId, long epochDay);
+    
+    /**
+     * Get sessions stored as rows that took place before a day
+     * @param cutoffDay Sessions on or after this epoch day are excluded
+     * @return Class and day of each session
+     */
+    @Query("SELECT DISTINCT classId, epochDay FROM attendance WHERE epochDay < :cutoffDay")
+    List<SessionKey> getRowSessionsBefore(long cutoffDay);
+    
+    /**
+     * Replace the row records of a session with a single packed row
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     * @return true if the session had rows to pack
+     */
+    @Transaction
+    default boolean packSession(int classId, long epochDay) {
+        List<Attendance> records = new ArrayList<>(getAttendanceByClassAndDay(classId, epochDay));
+        if (records.isEmpty()) {
+            return false;
+        }
+        // Comparator.comparingInt needs API 24
+        Collections.sort(records, (a, b) -> Integer.compare(a.getStudentId(), b.getStudentId()));
+        
+        int[] studentIds = new int[records.size()];
+        byte[] presence = AttendanceBitmap.newBitmap(records.size());
+        for (int position = 0; position < studentIds.length; position++) {
+            Attendance record = records.get(position);
+            studentIds[position] = record.getStudentId();
+            if (record.isPresent()) {
+                AttendanceBitmap.set(presence, position);
+            }
+        }
+        
+        PackedSession session = new PackedSession();
+        session.setClassId(classId);
+        session.setEpochDay(epochDay);
+        session.setRosterSize(studentIds.length);
+        session.setPresentCount(AttendanceBitmap.popcount(presence));
+        session.setRosterIds(AttendanceBitmap.encodeIds(studentIds));
+        session.setPresence(presence);
+        insertPackedSession(session);
+        deleteSessionRows(classId, epochDay);
+        return true;
+    }
+    
+    /**
+     * Pack every session that took place before a day
+     * @param cutoffDay Sessions on or after this epoch day stay as rows
+     * @return Number of packed sessions
+     */
+    @Transaction
+    default int packSessionsBefore(long cutoffDay) {
+        int packed = 0;
+        for (SessionKey key : getRowSessionsBefore(cutoffDay)) {
+            if (packSession(key.classId, key.epochDay)) {
+                packed++;
+            }
+        }
+        return packed;
+    }
+    
+    /**
+     * Expand a packed session back into row records
+     * Does nothing if the session is not packed
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     */
+    @Transaction
+    default void unpackSession(int classId, long epochDay) {
+        PackedSession session = getPackedSession(classId, epochDay);
+        if (session == null) {
+            return;
+        }
+        for (int position = 0; position < session.getRosterSize(); position++) {
+            insertSessionStatus(classId, epochDay, AttendanceBitmap.idAt(session.getRosterIds(), position),
+                    AttendanceBitmap.get(session.getPresence(), position));
+        }
+        deletePackedSession(classId, epochDay);
+    }
+    
+    /**
+     * Remove a student from the packed sessions of one class, as the foreign key cascade
+     * does for rows
+     * @param classId The class ID
      * @param studentId The student ID
      */
-    @Query("DELETE FROM attendance WHERE studentId = :studentId")
-    void deleteAttendanceByStudent(int studentId);
-}
\ No newline at end of file
+    @Transaction
+    default void deleteStudentFromPackedSessions(int classId, int studentId) {
+        for (PackedSession session : getPackedSessions(classId)) {
+            int removed = AttendanceBitmap.indexOf(session.getRosterIds(), studentId);
+            if (removed < 0) {
+                continue;
+            }
+            int size = session.getRosterSize() - 1;
+            int[] studentIds = new int[size];
+            byte[] presence = AttendanceBitmap.newBitmap(size);
+            for (int from = 0, to = 0; from <= size; from++) {
+                if (from == removed) {
+                    continue;
+                }
+                studentIds[to] = AttendanceBitmap.idAt(session.getRosterIds(), from);
+                if (AttendanceBitmap.get(session.getPresence(), from)) {
+                    AttendanceBitmap.set(presence, to);
+                }
+                to++;
+            }
+            if (size == 0) {
+                deletePackedSession(session.getClassId(), session.getEpochDay());
+                continue;
+            }
+            session.setRosterSize(size);
+            session.setPresentCount(AttendanceBitmap.popcount(presence));
+            session.setRosterIds(AttendanceBitmap.encodeIds(studentIds));
+            session.setPresence(presence);
+            insertPackedSession(session);
+        }
+    }
+}
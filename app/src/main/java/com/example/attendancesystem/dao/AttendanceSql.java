@@ -0,0 +1,71 @@
+package com.example.attendancesystem.dao;
+
+/**
+ * SQL of the attendance statements that also run outside Room
+ * 
+ * Kept free of Android types so the JVM benchmark module prepares exactly the
+ * statements the DAO and the repository run. Parameters keep Room's :name form, which
+ * SQLite binds natively: each name is numbered by its first appearance.
+ */
+public final class AttendanceSql {
+
+    private AttendanceSql() {
+    }
+
+    /** AttendanceRepository#writeSession */
+    public static final String UPDATE_SESSION_STATUS =
+            "UPDATE attendance SET isPresent = :isPresent "
+            + "WHERE classId = :classId AND epochDay = :epochDay AND studentId = :studentId";
+
+    /** AttendanceDao#insertSessionStatus, AttendanceRepository#writeSession */
+    public static final String INSERT_SESSION_STATUS =
+            "INSERT OR IGNORE INTO attendance (studentId, classId, epochDay, isPresent) "
+            + "VALUES (:studentId, :classId, :epochDay, :isPresent)";
+
+    /** AttendanceRepository#writeDrafts; toggles of deleted classes and students are skipped */
+    public static final String INSERT_ROLL_CALL_DRAFT =
+            "INSERT OR REPLACE INTO roll_call_drafts (classId, epochDay, studentId, isPresent) "
+            + "SELECT :classId, :epochDay, :studentId, :isPresent "
+            + "WHERE EXISTS (SELECT 1 FROM classes WHERE id = :classId AND deleted = 0) "
+            + "AND EXISTS (SELECT 1 FROM students WHERE id = :studentId AND deleted = 0)";
+
+    /** AttendanceDao#insertClassSession */
+    public static final String INSERT_CLASS_SESSION =
+            "INSERT OR IGNORE INTO class_sessions (classId, epochDay) VALUES (:classId, :epochDay)";
+
+    /** AttendanceDao#getAttendanceByClass */
+    public static final String ATTENDANCE_BY_CLASS =
+            "SELECT attendance.* FROM attendance "
+            + "INNER JOIN students ON students.id = attendance.studentId "
+            + "WHERE attendance.classId = :classId AND students.deleted = 0";
+
+    /** AttendanceDao#getStudentAttendanceInfo */
+    public static final String STUDENT_ATTENDANCE_INFO =
+            "SELECT students.*, "
+            + "COALESCE(attendance_stats.presentCount, 0) AS presentCount, "
+            + "COALESCE(attendance_stats.absentCount, 0) AS absentCount "
+            + "FROM enrollments "
+            + "INNER JOIN students ON students.id = enrollments.studentId "
+            + "LEFT JOIN attendance_stats ON attendance_stats.studentId = students.id "
+            + "AND attendance_stats.classId = :classId "
+            + "WHERE enrollments.classId = :classId AND students.deleted = 0 "
+            + "ORDER BY students.name, students.id";
+
+    /** AttendanceDao#getClassTotals */
+    public static final String CLASS_TOTALS =
+            "SELECT COALESCE(SUM(presentCount), 0) AS presentCount, "
+            + "COALESCE(SUM(absentCount), 0) AS absentCount "
+            + "FROM attendance_stats WHERE classId = :classId";
+
+    /** AttendanceDao#getClassTotalsBetween */
+    public static final String CLASS_TOTALS_BETWEEN =
+            "SELECT row_totals.present + packed_totals.present AS presentCount, "
+            + "row_totals.total - row_totals.present + packed_totals.total - packed_totals.present AS absentCount "
+            + "FROM (SELECT COALESCE(SUM(attendance.isPresent), 0) AS present, COUNT(*) AS total FROM attendance "
+            + "INNER JOIN students ON students.id = attendance.studentId "
+            + "WHERE attendance.classId = :classId AND attendance.epochDay BETWEEN :fromDay AND :toDay "
+            + "AND students.deleted = 0) AS row_totals, "
+            + "(SELECT COALESCE(SUM(presentCount), 0) AS present, COALESCE(SUM(rosterSize), 0) AS total "
+            + "FROM packed_sessions "
+            + "WHERE classId = :classId AND epochDay BETWEEN :fromDay AND :toDay) AS packed_totals";
+}
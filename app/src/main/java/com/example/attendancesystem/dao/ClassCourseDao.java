@@ -1,11 +1,11 @@
 package com.example.attendancesystem.dao;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
-import androidx.room.Update;
 
 import com.example.attendancesystem.entity.ClassCourse;
 
@@ -35,11 +35,14 @@ public interface ClassCourseDao {
     long[] insertAll(List<ClassCourse> classes);
     
     /**
-     * Update an existing class record
-     * @param classCourse The class object with updated values
+     * Update an existing class's details
+     * Only those columns are written, so an edit racing a delete leaves the tombstone alone.
+     * @param id The class ID
+     * @return 1 if the class was updated, 0 if the class is gone
      */
-    @Update
-    void update(ClassCourse classCourse);
+    @Query("UPDATE classes SET courseName = :courseName, instructorName = :instructorName, " +
+           "day = :day, time = :time WHERE id = :id AND deleted = 0")
+    int update(int id, String courseName, String instructorName, String day, String time);
     
     /**
      * Delete a class from the database
@@ -48,49 +51,97 @@ public interface ClassCourseDao {
     @Delete
     void delete(ClassCourse classCourse);
     
+    /**
+     * Set a class's tombstone, hiding it from every query
+     * @param id The class ID
+     */
+    @Query("UPDATE classes SET deleted = 1 WHERE id = :id")
+    void markDeleted(int id);
+    
+    /**
+     * Get a class whose tombstone is set and whose records still need purging
+     * @return A class ID, or null if there is none
+     */
+    @Query("SELECT id FROM classes WHERE deleted = 1 LIMIT 1")
+    Integer getDeletedClassId();
+    
+    /**
+     * Delete a class whose tombstone is set, once its records are purged
+     * @param id The class ID
+     */
+    @Query("DELETE FROM classes WHERE id = :id AND deleted = 1")
+    void purgeDeleted(int id);
+    
     /**
      * Get all classes from the database
      * @return List of all classes
      */
-    @Query("SELECT * FROM classes")
+    @Query("SELECT * FROM classes WHERE deleted = 0")
     List<ClassCourse> getAllClasses();
     
+    /**
+     * Observe all classes
+     * The query re-runs only when the classes table changes
+     * @return LiveData of all classes
+     */
+    @Query("SELECT * FROM classes WHERE deleted = 0")
+    LiveData<List<ClassCourse>> observeAllClasses();
+    
     /**
      * Get a class by its ID
      * @param id The class's unique identifier
      * @return The class object, or null if not found
      */
-    @Query("SELECT * FROM classes WHERE id = :id")
+    @Query("SELECT * FROM classes WHERE id = :id AND deleted = 0")
     ClassCourse getClassById(int id);
     
     /**
-     * Search for classes by course name (case-insensitive)
-     * @param courseName The course name or partial name to search for
-     * @return List of matching classes
+     * Search classes by course or instructor name through the full-text index
+     * Course names starting with the query come first
+     * @param match FTS MATCH expression over normalized text, see TextNormalizer.toPrefixMatchQuery
+     * @param normalizedQuery The normalized query text, used for relevance ordering
+     * @param limit Maximum number of results
+     * @return List of matching classes, most relevant first
      */
-    @Query("SELECT * FROM classes WHERE courseName LIKE '%' || :courseName || '%'")
-    List<ClassCourse> searchClassesByCourseName(String courseName);
+    @Query("SELECT classes.* FROM classes_fts " +
+           "JOIN classes ON classes.id = classes_fts.rowid " +
+           "WHERE classes_fts MATCH :match AND classes.deleted = 0 " +
+           "ORDER BY CASE WHEN classes_fts.courseName LIKE :normalizedQuery || '%' THEN 0 ELSE 1 END, " +
+           "classes.courseName, classes.id " +
+           "LIMIT :limit")
+    List<ClassCourse> searchClasses(String match, String normalizedQuery, int limit);
     
     /**
      * Get classes by instructor name
      * @param instructorName The name of the instructor
      * @return List of classes taught by the instructor
      */
-    @Query("SELECT * FROM classes WHERE instructorName = :instructorName")
+    @Query("SELECT * FROM classes WHERE instructorName = :instructorName AND deleted = 0")
     List<ClassCourse> getClassesByInstructor(String instructorName);
     
+    /**
+     * Get the classes a student is enrolled in
+     * @param studentId The student ID
+     * @return List of classes, ordered by course name
+     */
+    @Query("SELECT classes.* FROM classes " +
+           "INNER JOIN enrollments ON enrollments.classId = classes.id " +
+           "WHERE enrollments.studentId = :studentId AND classes.deleted = 0 " +
+           "ORDER BY classes.courseName")
+    List<ClassCourse> getClassesByStudent(int studentId);
+    
     /**
      * Get classes scheduled on a specific day
      * @param day The day of the week (e.g., "Saturday")
      * @return List of classes on that day
      */
-    @Query("SELECT * FROM classes WHERE day = :day")
+    @Query("SELECT * FROM classes WHERE day = :day AND deleted = 0")
     List<ClassCourse> getClassesByDay(String day);
     
     /**
      * Get the total count of classes
      * @return Number of classes in the database
      */
-    @Query("SELECT COUNT(*) FROM classes")
+    @Query("SELECT COUNT(*) FROM classes WHERE deleted = 0")
     int getClassCount();
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.example.attendancesystem.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+/**
+ * Data Access Object for Enrollment entity
+ * Provides methods for enrolling students in classes and removing them
+ * 
+ * Rosters themselves are read through {@link StudentDao} and a student's classes
+ * through {@link ClassCourseDao}.
+ */
+@Dao
+public interface EnrollmentDao {
+    
+    /**
+     * Enroll a student in a class
+     * Does nothing if the student is already enrolled
+     * @param classId The class ID
+     * @param studentId The student ID
+     */
+    @Query("INSERT OR IGNORE INTO enrollments (classId, studentId) VALUES (:classId, :studentId)")
+    void enroll(int classId, int studentId);
+    
+    /**
+     * Enroll the student with a student number in a class
+     * Does nothing if the student is already enrolled or no student has that number
+     * @param classId The class ID
+     * @param studentNumber The student's normalized identification number
+     */
+    @Query(EnrollmentSql.ENROLL_BY_NUMBER)
+    void enrollByNumber(int classId, String studentNumber);
+    
+    /**
+     * Enroll several students in a class in a single transaction
+     * One insert per student, with a single commit for all of them.
+     * @param classId The class ID
+     * @param studentIds The student IDs
+     */
+    @Transaction
+    default void enrollAll(int classId, int[] studentIds) {
+        for (int studentId : studentIds) {
+            enroll(classId, studentId);
+        }
+    }
+    
+    /**
+     * Remove a student from a class
+     * Their attendance records are kept
+     * @param classId The class ID
+     * @param studentId The student ID
+     */
+    @Query("DELETE FROM enrollments WHERE classId = :classId AND studentId = :studentId")
+    void unenroll(int classId, int studentId);
+    
+    /**
+     * Remove several students from a class in a single transaction
+     * @param classId The class ID
+     * @param studentIds The student IDs
+     */
+    @Transaction
+    default void unenrollAll(int classId, int[] studentIds) {
+        for (int studentId : studentIds) {
+            unenroll(classId, studentId);
+        }
+    }
+    
+    /**
+     * Remove every student from a class
+     * @param classId The class ID
+     */
+    @Query("DELETE FROM enrollments WHERE classId = :classId")
+    void deleteEnrollmentsByClass(int classId);
+    
+    /**
+     * Remove a student from every class
+     * @param studentId The student ID
+     */
+    @Query("DELETE FROM enrollments WHERE studentId = :studentId")
+    void deleteEnrollmentsByStudent(int studentId);
+    
+    /**
+     * Get the IDs of the students enrolled in a class, in no particular order
+     * @param classId The class ID
+     * @return List of student IDs
+     */
+    @Query("SELECT studentId FROM enrollments WHERE classId = :classId")
+    List<Integer> getEnrolledStudentIds(int classId);
+    
+    /**
+     * Count the students enrolled in a class
+     * @param classId The class ID
+     * @return Number of enrolled students
+     */
+    @Query("SELECT COUNT(*) FROM enrollments WHERE classId = :classId")
+    int getEnrollmentCount(int classId);
+}
@@ -0,0 +1,17 @@
+package com.example.attendancesystem.dao;
+
+/**
+ * SQL of the enrollment statements that also run outside Room
+ * 
+ * Kept free of Android types like the other statement holders, see AttendanceSql.
+ */
+public final class EnrollmentSql {
+
+    private EnrollmentSql() {
+    }
+
+    /** EnrollmentDao#enrollByNumber, RosterImporter */
+    public static final String ENROLL_BY_NUMBER =
+            "INSERT OR IGNORE INTO enrollments (classId, studentId) "
+            + "SELECT :classId, id FROM students WHERE studentNumber = :studentNumber";
+}
@@ -1,11 +1,12 @@
 package com.example.attendancesystem.dao;
 
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
-import androidx.room.Update;
+import androidx.room.Transaction;
 
 import com.example.attendancesystem.entity.Student;
 
@@ -18,28 +19,116 @@ import java.util.List;
 @Dao
 public interface StudentDao {
     
+    /**
+     * {@link #upsertByNumber} outcome: a new student was inserted
+     */
+    int UPSERT_INSERTED = 0;
+    
+    /**
+     * {@link #upsertByNumber} outcome: the student with that number was renamed
+     */
+    int UPSERT_RENAMED = 1;
+    
+    /**
+     * {@link #upsertByNumber} outcome: the student with that number already had that name
+     */
+    int UPSERT_UNCHANGED = 2;
+    
     /**
      * Insert a new student into the database
+     * Fails with SQLiteConstraintException if the student number is taken; replacing
+     * the existing student instead would cascade-delete their records
      * @param student The student object to insert
      * @return The row ID of the newly inserted student
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    @Insert(onConflict = OnConflictStrategy.ABORT)
     long insert(Student student);
     
     /**
      * Insert multiple students into the database
+     * Fails, inserting none, if any student number is taken
      * @param students List of students to insert
      * @return Array of row IDs for the inserted students
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    @Insert(onConflict = OnConflictStrategy.ABORT)
     long[] insertAll(List<Student> students);
     
     /**
-     * Update an existing student record
-     * @param student The student object with updated values
+     * Insert a student unless their student number is taken
+     * @param name Student's full name
+     * @param studentNumber Student's normalized identification number
+     */
+    @Query(StudentSql.INSERT_OR_IGNORE)
+    void insertOrIgnore(String name, String studentNumber);
+    
+    /**
+     * Rename the student with a student number, leaving the row (and its search index
+     * entry) untouched if the name is the same
+     * @param studentNumber Student's normalized identification number
+     * @param name New full name
+     * @return 1 if the name changed, 0 otherwise
+     */
+    @Query(StudentSql.RENAME_BY_NUMBER)
+    int renameByNumber(String studentNumber, String name);
+    
+    /**
+     * Rows changed by the last insert, update or delete on this connection
+     * Only meaningful inside the transaction that ran the statement
+     */
+    @Query("SELECT changes()")
+    int changes();
+    
+    /**
+     * Insert a student unless their student number is taken
+     * The unique index decides, so two concurrent inserts of one number can't both succeed
+     * @param name Student's full name
+     * @param studentNumber Student's normalized identification number
+     * @return true if the student was inserted
+     */
+    @Transaction
+    default boolean insertIfNumberIsNew(String name, String studentNumber) {
+        insertOrIgnore(name, studentNumber);
+        return changes() > 0;
+    }
+    
+    /**
+     * Insert a student, or rename the student who has their student number
+     * The insert comes first since imported rosters are mostly new students.
+     * @param name Student's full name
+     * @param studentNumber Student's normalized identification number
+     * @return {@link #UPSERT_INSERTED}, {@link #UPSERT_RENAMED} or {@link #UPSERT_UNCHANGED}
+     */
+    @Transaction
+    default int upsertByNumber(String name, String studentNumber) {
+        if (insertIfNumberIsNew(name, studentNumber)) {
+            return UPSERT_INSERTED;
+        }
+        return renameByNumber(studentNumber, name) > 0 ? UPSERT_RENAMED : UPSERT_UNCHANGED;
+    }
+    
+    /**
+     * Update a student's name and number unless the number belongs to another student
+     * @param id The student ID
+     * @param name New full name
+     * @param studentNumber New normalized identification number
+     * @return 1 if the student was updated, 0 if the number is taken or the student is gone
      */
-    @Update
-    void update(Student student);
+    @Query("UPDATE OR IGNORE students SET name = :name, studentNumber = :studentNumber " +
+           "WHERE id = :id AND deleted = 0")
+    int updateIfNumberIsFree(int id, String name, String studentNumber);
+    
+    /**
+     * Update an existing student's name and number
+     * Only those columns are written, so an edit racing a delete leaves the tombstone
+     * (and the released number) alone.
+     * @param id The student ID
+     * @param name New full name
+     * @param studentNumber New normalized identification number
+     * @return 1 if the student was updated, 0 if the student is gone
+     */
+    @Query("UPDATE students SET name = :name, studentNumber = :studentNumber " +
+           "WHERE id = :id AND deleted = 0")
+    int update(int id, String name, String studentNumber);
     
     /**
      * Delete a student from the database
@@ -48,41 +137,106 @@ public interface StudentDao {
     @Delete
     void delete(Student student);
     
+    /**
+     * Set a student's tombstone, hiding them from every query
+     * The student number is released so a new student can take it
+     * @param id The student ID
+     */
+    @Query("UPDATE students SET deleted = 1, studentNumber = NULL WHERE id = :id")
+    void markDeleted(int id);
+    
+    /**
+     * Get a student whose tombstone is set and whose records still need purging
+     * @return A student ID, or null if there is none
+     */
+    @Query("SELECT id FROM students WHERE deleted = 1 LIMIT 1")
+    Integer getDeletedStudentId();
+    
+    /**
+     * Delete a student whose tombstone is set, once their records are purged
+     * @param id The student ID
+     */
+    @Query("DELETE FROM students WHERE id = :id AND deleted = 1")
+    void purgeDeleted(int id);
+    
     /**
      * Get all students from the database
      * @return List of all students
      */
-    @Query("SELECT * FROM students")
+    @Query("SELECT * FROM students WHERE deleted = 0")
     List<Student> getAllStudents();
     
+    /**
+     * Get students one page at a time, in roster order (name, then id)
+     * The paging source is invalidated automatically when the students table changes
+     * @return Paging source over all students
+     */
+    @Query("SELECT * FROM students WHERE deleted = 0 ORDER BY name, id")
+    PagingSource<Integer, Student> getStudentsPaged();
+    
+    /**
+     * Get the IDs of all students in roster order (name, then id)
+     * Matches the order of {@link #getStudentsPaged()}
+     * @return List of student IDs
+     */
+    @Query("SELECT id FROM students WHERE deleted = 0 ORDER BY name, id")
+    List<Integer> getAllStudentIds();
+    
+    /**
+     * Get the students enrolled in a class one page at a time, in roster order (name, then id)
+     * The paging source is invalidated automatically when students or enrollments change
+     * @param classId The class ID
+     * @return Paging source over the class roster
+     */
+    @Query("SELECT students.* FROM students " +
+           "INNER JOIN enrollments ON enrollments.studentId = students.id " +
+           "WHERE enrollments.classId = :classId AND students.deleted = 0 " +
+           "ORDER BY students.name, students.id")
+    PagingSource<Integer, Student> getStudentsPagedByClass(int classId);
+    
+    /**
+     * Get the IDs of the students enrolled in a class in roster order (name, then id)
+     * Matches the order of {@link #getStudentsPagedByClass(int)}
+     * @param classId The class ID
+     * @return List of student IDs
+     */
+    @Query("SELECT students.id FROM students " +
+           "INNER JOIN enrollments ON enrollments.studentId = students.id " +
+           "WHERE enrollments.classId = :classId AND students.deleted = 0 " +
+           "ORDER BY students.name, students.id")
+    List<Integer> getStudentIdsByClass(int classId);
+    
     /**
      * Get a student by their ID
      * @param id The student's unique identifier
      * @return The student object, or null if not found
      */
-    @Query("SELECT * FROM students WHERE id = :id")
+    @Query("SELECT * FROM students WHERE id = :id AND deleted = 0")
     Student getStudentById(int id);
     
     /**
      * Get a student by their student number
-     * @param studentNumber The student's identification number
+     * @param studentNumber The student's normalized identification number
      * @return The student object, or null if not found
      */
-    @Query("SELECT * FROM students WHERE studentNumber = :studentNumber")
+    @Query("SELECT * FROM students WHERE studentNumber = :studentNumber AND deleted = 0")
     Student getStudentByNumber(String studentNumber);
     
     /**
-     * Search for students by name (case-insensitive)
-     * @param name The name or partial name to search for
-     * @return List of matching students
+     * Search students by name or student number through the full-text index
+     * Exact student number matches come first, then names starting with the query
+     * @param match FTS MATCH expression over normalized text, see TextNormalizer.toPrefixMatchQuery
+     * @param normalizedQuery The normalized query text, used for relevance ordering
+     * @param limit Maximum number of results
+     * @return List of matching students, most relevant first
      */
-    @Query("SELECT * FROM students WHERE name LIKE '%' || :name || '%'")
-    List<Student> searchStudentsByName(String name);
+    @Query(StudentSql.SEARCH_STUDENTS)
+    List<Student> searchStudents(String match, String normalizedQuery, int limit);
     
     /**
      * Get the total count of students
      * @return Number of students in the database
      */
-    @Query("SELECT COUNT(*) FROM students")
+    @Query("SELECT COUNT(*) FROM students WHERE deleted = 0")
     int getStudentCount();
 }
\ No newline at end of file
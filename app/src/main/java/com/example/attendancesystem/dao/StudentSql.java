@@ -0,0 +1,32 @@
+package com.example.attendancesystem.dao;
+
+/**
+ * SQL of the student statements that also run outside Room
+ * 
+ * Kept free of Android types so the JVM benchmark module prepares exactly the
+ * statements the DAO and the repositories run, see AttendanceSql.
+ */
+public final class StudentSql {
+
+    private StudentSql() {
+    }
+
+    /** StudentDao#insertOrIgnore, RosterImporter */
+    public static final String INSERT_OR_IGNORE =
+            "INSERT OR IGNORE INTO students (name, studentNumber) VALUES (:name, :studentNumber)";
+
+    /** StudentDao#renameByNumber, RosterImporter */
+    public static final String RENAME_BY_NUMBER =
+            "UPDATE students SET name = :name WHERE studentNumber = :studentNumber AND name IS NOT :name";
+
+    /** StudentDao#searchStudents */
+    public static final String SEARCH_STUDENTS =
+            "SELECT students.* FROM students_fts "
+            + "JOIN students ON students.id = students_fts.rowid "
+            + "WHERE students_fts MATCH :match AND students.deleted = 0 "
+            + "ORDER BY CASE "
+            + "WHEN students_fts.studentNumber = :normalizedQuery THEN 0 "
+            + "WHEN students_fts.name LIKE :normalizedQuery || '%' THEN 1 "
+            + "ELSE 2 END, students.name, students.id "
+            + "LIMIT :limit";
+}
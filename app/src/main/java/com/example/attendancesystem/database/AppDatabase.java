@@ -2,16 +2,28 @@ package com.example.attendancesystem.database;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.example.attendancesystem.dao.AttendanceDao;
 import com.example.attendancesystem.dao.ClassCourseDao;
+import com.example.attendancesystem.dao.EnrollmentDao;
 import com.example.attendancesystem.dao.StudentDao;
 import com.example.attendancesystem.entity.Attendance;
+import com.example.attendancesystem.entity.AttendanceStats;
 import com.example.attendancesystem.entity.ClassCourse;
+import com.example.attendancesystem.entity.ClassCourseFts;
+import com.example.attendancesystem.entity.ClassSession;
+import com.example.attendancesystem.entity.Enrollment;
+import com.example.attendancesystem.entity.PackedSession;
+import com.example.attendancesystem.entity.RollCallDraft;
 import com.example.attendancesystem.entity.Student;
+import com.example.attendancesystem.entity.StudentFts;
+import com.example.attendancesystem.metrics.QueryMetrics;
+import com.example.attendancesystem.repository.AppExecutors;
 
 /**
  * Main database class for the Attendance System application
@@ -19,11 +31,19 @@ import com.example.attendancesystem.entity.Student;
  * 
  * This is a singleton database instance that provides access to all DAOs
  * for performing database operations on Student, ClassCourse, and Attendance entities
+ * 
+ * Schemas are exported to app/schemas; every version bump needs a matching
+ * migration in {@link Migrations}
  */
 @Database(
-    entities = {Student.class, ClassCourse.class, Attendance.class},
-    version = 1,
-    exportSchema = false
+    entities = {
+        Student.class, ClassCourse.class, Attendance.class,
+        StudentFts.class, ClassCourseFts.class, PackedSession.class,
+        Enrollment.class, AttendanceStats.class, ClassSession.class,
+        RollCallDraft.class
+    },
+    version = 12,
+    exportSchema = true
 )
 public abstract class AppDatabase extends RoomDatabase {
     
@@ -38,6 +58,18 @@ public abstract class AppDatabase extends RoomDatabase {
      */
     private static final String DATABASE_NAME = "attendance_system_db";
     
+    /**
+     * Creates what Room cannot declare (triggers) when the database file is first created
+     * Upgraded databases get the same objects from their migrations
+     */
+    private static final Callback CREATE_CALLBACK = new Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            SearchIndex.createTriggers(db);
+            AttendanceStatsIndex.createTriggers(db);
+        }
+    };
+    
     /**
      * Provides access to Student DAO for student-related operations
      * @return StudentDao interface instance
@@ -56,23 +88,40 @@ public abstract class AppDatabase extends RoomDatabase {
      */
     public abstract AttendanceDao attendanceDao();
     
+    /**
+     * Provides access to Enrollment DAO for enrolling students in classes
+     * @return EnrollmentDao interface instance
+     */
+    public abstract EnrollmentDao enrollmentDao();
+    
     /**
      * Gets the singleton instance of the database
      * Creates the database if it doesn't exist, otherwise returns existing instance
      * 
+     * The database runs in WAL mode so readers never block the single writer.
+     * Main thread queries are not allowed; use the repositories instead.
+     * DatabaseInitializer builds and opens the instance in the background at startup.
+     * Every executed SQL statement is recorded in QueryMetrics, in release builds too.
+     * 
      * @param context Application context
      * @return Singleton instance of AppDatabase
      */
     public static synchronized AppDatabase getInstance(Context context) {
         if (instance == null) {
-            instance = Room.databaseBuilder(
+            Builder<AppDatabase> builder = Room.databaseBuilder(
                     context.getApplicationContext(),
                     AppDatabase.class,
                     DATABASE_NAME
                 )
-                .fallbackToDestructiveMigration()
-                .allowMainThreadQueries()
-                .build();
+                .addMigrations(Migrations.ALL)
+                .addCallback(CREATE_CALLBACK)
+                .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                .setQueryExecutor(AppExecutors.getInstance().diskRead())
+                .setTransactionExecutor(AppExecutors.getInstance().diskWrite());
+            // Runs inline on the querying thread, which QueryMetrics relies on for timing
+            builder.setQueryCallback(
+                    (sql, bindArgs) -> QueryMetrics.getInstance().onStatement(sql), Runnable::run);
+            instance = builder.build();
         }
         return instance;
     }
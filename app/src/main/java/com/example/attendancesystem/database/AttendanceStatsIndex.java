@@ -0,0 +1,72 @@
+package com.example.attendancesystem.database;
+
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.example.attendancesystem.util.AttendanceBitmap;
+
+/**
+ * Maintains the attendance_stats table
+ * 
+ * Triggers apply every insert, update and delete of attendance to the counts of the
+ * affected student and class. Packing a session inserts its packed row before deleting
+ * the attendance rows (and unpacking inserts rows before deleting the packed row), so
+ * row changes of a session that is packed are skipped: each session counts once.
+ */
+public final class AttendanceStatsIndex {
+
+    private AttendanceStatsIndex() {
+    }
+
+    /**
+     * Create the triggers keeping attendance_stats in sync
+     * @param db Database with the attendance, packed_sessions and attendance_stats tables
+     */
+    public static void createTriggers(SupportSQLiteDatabase db) {
+        for (String sql : TriggerSql.ATTENDANCE_STATS_TRIGGERS) {
+            db.execSQL(sql);
+        }
+    }
+
+    /**
+     * Rebuild attendance_stats from attendance rows and packed sessions
+     * @param db Database with the attendance, packed_sessions and attendance_stats tables
+     */
+    public static void rebuild(SupportSQLiteDatabase db) {
+        for (String sql : TriggerSql.ATTENDANCE_STATS_REBUILD) {
+            db.execSQL(sql);
+        }
+
+        // Packed sessions need their bitmaps decoded, which SQL can't do
+        SupportSQLiteStatement insert = db.compileStatement(
+                "INSERT OR IGNORE INTO attendance_stats (studentId, classId, presentCount, absentCount, lastEpochDay) "
+                + "VALUES (?, ?, 0, 0, 0)");
+        SupportSQLiteStatement update = db.compileStatement(
+                "UPDATE attendance_stats SET presentCount = presentCount + ?, absentCount = absentCount + ?, "
+                + "lastEpochDay = MAX(lastEpochDay, ?) WHERE studentId = ? AND classId = ?");
+        try (Cursor cursor = db.query("SELECT classId, epochDay, rosterSize, rosterIds, presence FROM packed_sessions")) {
+            while (cursor.moveToNext()) {
+                long classId = cursor.getLong(0);
+                long epochDay = cursor.getLong(1);
+                int rosterSize = cursor.getInt(2);
+                byte[] rosterIds = cursor.getBlob(3);
+                byte[] presence = cursor.getBlob(4);
+                for (int position = 0; position < rosterSize; position++) {
+                    long studentId = AttendanceBitmap.idAt(rosterIds, position);
+                    boolean isPresent = AttendanceBitmap.get(presence, position);
+                    insert.bindLong(1, studentId);
+                    insert.bindLong(2, classId);
+                    insert.executeInsert();
+                    update.bindLong(1, isPresent ? 1 : 0);
+                    update.bindLong(2, isPresent ? 0 : 1);
+                    update.bindLong(3, epochDay);
+                    update.bindLong(4, studentId);
+                    update.bindLong(5, classId);
+                    update.executeUpdateDelete();
+                }
+            }
+        }
+    }
+}
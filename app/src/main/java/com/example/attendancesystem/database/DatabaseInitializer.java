@@ -0,0 +1,92 @@
+package com.example.attendancesystem.database;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import androidx.startup.Initializer;
+
+import com.example.attendancesystem.metrics.MetricsInitializer;
+import com.example.attendancesystem.repository.AppExecutors;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Opens the database in the background as soon as the process starts
+ *
+ * Declared in the manifest for androidx.startup, so it runs before the first activity.
+ * Building AppDatabase, opening the file (running migrations and validating the schema)
+ * and the first queries of the opening screens then happen on the writer thread rather
+ * than when the user first taps into a list. Each step is a trace section, visible in
+ * a system trace next to the activity launch, and the total is logged.
+ */
+public class DatabaseInitializer implements Initializer<Future<AppDatabase>> {
+
+    private static final String TAG = "DatabaseInitializer";
+
+    /**
+     * Statements run on every roll call save, compiled once so SQLite parses their schema
+     * objects (and the statistics triggers) before the first save
+     */
+    private static final String[] HOT_STATEMENTS = {
+        "INSERT OR IGNORE INTO class_sessions (classId, epochDay) VALUES (?, ?)",
+        "UPDATE attendance SET isPresent = ? WHERE classId = ? AND epochDay = ? AND studentId = ?",
+        "INSERT OR IGNORE INTO attendance (studentId, classId, epochDay, isPresent) VALUES (?, ?, ?, ?)"
+    };
+
+    /**
+     * Start opening the database
+     * @return Future of the open database; writes queued meanwhile simply wait behind it
+     */
+    @NonNull
+    @Override
+    public Future<AppDatabase> create(@NonNull Context context) {
+        Context appContext = context.getApplicationContext();
+        long startedAt = SystemClock.elapsedRealtime();
+        return AppExecutors.getInstance().diskWrite().submit(() -> {
+            Trace.beginSection("AppDatabase.build");
+            AppDatabase database;
+            try {
+                database = AppDatabase.getInstance(appContext);
+            } finally {
+                Trace.endSection();
+            }
+
+            Trace.beginSection("AppDatabase.open");
+            SupportSQLiteDatabase db;
+            try {
+                db = database.getOpenHelper().getWritableDatabase();
+            } finally {
+                Trace.endSection();
+            }
+
+            Trace.beginSection("AppDatabase.warmUp");
+            try {
+                for (String sql : HOT_STATEMENTS) {
+                    try (SupportSQLiteStatement statement = db.compileStatement(sql)) {
+                        // Compiled only
+                    }
+                }
+                // First queries of the class and student lists, loading their pages into the cache
+                database.classCourseDao().getClassCount();
+                database.studentDao().getStudentCount();
+            } finally {
+                Trace.endSection();
+            }
+            Log.i(TAG, "Database ready " + (SystemClock.elapsedRealtime() - startedAt) + " ms after launch");
+            return database;
+        });
+    }
+
+    @NonNull
+    @Override
+    public List<Class<? extends Initializer<?>>> dependencies() {
+        return Collections.singletonList(MetricsInitializer.class);
+    }
+}
@@ -0,0 +1,401 @@
+package com.example.attendancesystem.database;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.example.attendancesystem.util.AttendanceBitmap;
+import com.example.attendancesystem.util.TextNormalizer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Schema migrations for AppDatabase
+ * Every schema change must add a migration here so existing data is preserved on upgrade
+ */
+public final class Migrations {
+
+    private Migrations() {
+    }
+
+    /**
+     * Version 1 -> 2
+     * Replaces the single-column attendance indices with a unique (classId, date, studentId)
+     * index and a (studentId, classId) index. Duplicate session rows are removed first,
+     * keeping the most recently written record.
+     */
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DELETE FROM `attendance` WHERE `id` NOT IN ("
+                    + "SELECT MAX(`id`) FROM `attendance` GROUP BY `classId`, `date`, `studentId`)");
+            db.execSQL("DROP INDEX IF EXISTS `index_attendance_studentId`");
+            db.execSQL("DROP INDEX IF EXISTS `index_attendance_classId`");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_attendance_classId_date_studentId` "
+                    + "ON `attendance` (`classId`, `date`, `studentId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_attendance_studentId_classId` "
+                    + "ON `attendance` (`studentId`, `classId`)");
+        }
+    };
+
+    /**
+     * Version 2 -> 3
+     * Indexes student names so paged rosters are read in index order
+     */
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_students_name` ON `students` (`name`)");
+        }
+    };
+
+    /**
+     * Version 3 -> 4
+     * Adds the students_fts and classes_fts full-text indices, their sync triggers,
+     * and fills them from existing rows
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `students_fts` "
+                    + "USING FTS4(`name` TEXT, `studentNumber` TEXT, tokenize=unicode61)");
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `classes_fts` "
+                    + "USING FTS4(`courseName` TEXT, `instructorName` TEXT, tokenize=unicode61)");
+            SearchIndex.createTriggers(db);
+            SearchIndex.rebuild(db);
+        }
+    };
+
+    /**
+     * Version 4 -> 5
+     * Adds packed_sessions, which holds finalized sessions as one bitmap row each
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `packed_sessions` ("
+                    + "`classId` INTEGER NOT NULL, `date` INTEGER NOT NULL, "
+                    + "`rosterSize` INTEGER NOT NULL, `presentCount` INTEGER NOT NULL, "
+                    + "`rosterIds` BLOB NOT NULL, `presence` BLOB NOT NULL, "
+                    + "PRIMARY KEY(`classId`, `date`), "
+                    + "FOREIGN KEY(`classId`) REFERENCES `classes`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+        }
+    };
+
+    /**
+     * Version 5 -> 6
+     * Adds enrollments. Every existing student is enrolled in every existing class,
+     * since until now each class covered the whole roster.
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `enrollments` ("
+                    + "`classId` INTEGER NOT NULL, `studentId` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`classId`, `studentId`), "
+                    + "FOREIGN KEY(`classId`) REFERENCES `classes`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , "
+                    + "FOREIGN KEY(`studentId`) REFERENCES `students`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_enrollments_studentId` ON `enrollments` (`studentId`)");
+            db.execSQL("INSERT OR IGNORE INTO enrollments (classId, studentId) "
+                    + "SELECT classes.id, students.id FROM classes, students");
+        }
+    };
+
+    /**
+     * Version 6 -> 7
+     * Adds attendance_stats. Its sync triggers and contents are created by
+     * MIGRATION_7_8, which rebuilds the attendance table they refer to.
+     */
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `attendance_stats` ("
+                    + "`studentId` INTEGER NOT NULL, `classId` INTEGER NOT NULL, "
+                    + "`presentCount` INTEGER NOT NULL, `absentCount` INTEGER NOT NULL, `lastDate` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`studentId`, `classId`), "
+                    + "FOREIGN KEY(`studentId`) REFERENCES `students`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , "
+                    + "FOREIGN KEY(`classId`) REFERENCES `classes`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_attendance_stats_classId` ON `attendance_stats` (`classId`)");
+        }
+    };
+
+    /**
+     * Local calendar day of a version 7 timestamp column, as SessionDays#toEpochDay computes it
+     */
+    private static String epochDayOf(String millisColumn) {
+        return "CAST(julianday(date(" + millisColumn + " / 1000, 'unixepoch', 'localtime')) - 2440587.5 AS INTEGER)";
+    }
+
+    /**
+     * Version 7 -> 8
+     * Keys sessions by epoch day instead of the timestamp they were saved with, and adds
+     * class_sessions, which attendance and packed_sessions now reference.
+     * 
+     * Records of one class, student and day are merged: the most recently written row wins,
+     * and rows win over packed sessions. Packed sessions are expanded back to rows, since
+     * two of them may now fall on the same day; the next compaction packs them again.
+     * attendance, packed_sessions and attendance_stats are recreated, as renaming columns
+     * needs a newer SQLite than minSdk ships.
+     */
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `class_sessions` ("
+                    + "`classId` INTEGER NOT NULL, `epochDay` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`classId`, `epochDay`), "
+                    + "FOREIGN KEY(`classId`) REFERENCES `classes`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `attendance_new` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `studentId` INTEGER NOT NULL, "
+                    + "`classId` INTEGER NOT NULL, `epochDay` INTEGER NOT NULL, `isPresent` INTEGER NOT NULL, "
+                    + "FOREIGN KEY(`studentId`) REFERENCES `students`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , "
+                    + "FOREIGN KEY(`classId`) REFERENCES `classes`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , "
+                    + "FOREIGN KEY(`classId`, `epochDay`) REFERENCES `class_sessions`(`classId`, `epochDay`) "
+                    + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("INSERT INTO `attendance_new` (`id`, `studentId`, `classId`, `epochDay`, `isPresent`) "
+                    + "SELECT `id`, `studentId`, `classId`, " + epochDayOf("`date`") + ", `isPresent` "
+                    + "FROM `attendance` WHERE `id` IN (SELECT MAX(`id`) FROM `attendance` "
+                    + "GROUP BY `classId`, " + epochDayOf("`date`") + ", `studentId`)");
+            db.execSQL("DROP TABLE `attendance`");
+            db.execSQL("ALTER TABLE `attendance_new` RENAME TO `attendance`");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_attendance_classId_epochDay_studentId` "
+                    + "ON `attendance` (`classId`, `epochDay`, `studentId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_attendance_studentId_classId` "
+                    + "ON `attendance` (`studentId`, `classId`)");
+
+            // Latest packed session of a day first, so it wins over earlier ones
+            SupportSQLiteStatement insert = db.compileStatement(
+                    "INSERT OR IGNORE INTO `attendance` (`studentId`, `classId`, `epochDay`, `isPresent`) "
+                    + "VALUES (?, ?, ?, ?)");
+            try (Cursor cursor = db.query("SELECT `classId`, " + epochDayOf("`date`")
+                    + ", `rosterSize`, `rosterIds`, `presence` FROM `packed_sessions` ORDER BY `date` DESC")) {
+                while (cursor.moveToNext()) {
+                    long classId = cursor.getLong(0);
+                    long epochDay = cursor.getLong(1);
+                    int rosterSize = cursor.getInt(2);
+                    byte[] rosterIds = cursor.getBlob(3);
+                    byte[] presence = cursor.getBlob(4);
+                    for (int position = 0; position < rosterSize; position++) {
+                        insert.bindLong(1, AttendanceBitmap.idAt(rosterIds, position));
+                        insert.bindLong(2, classId);
+                        insert.bindLong(3, epochDay);
+                        insert.bindLong(4, AttendanceBitmap.get(presence, position) ? 1 : 0);
+                        insert.executeInsert();
+                    }
+                }
+            }
+            db.execSQL("INSERT OR IGNORE INTO `class_sessions` (`classId`, `epochDay`) "
+                    + "SELECT DISTINCT `classId`, `epochDay` FROM `attendance`");
+
+            db.execSQL("DROP TABLE `packed_sessions`");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `packed_sessions` ("
+                    + "`classId` INTEGER NOT NULL, `epochDay` INTEGER NOT NULL, "
+                    + "`rosterSize` INTEGER NOT NULL, `presentCount` INTEGER NOT NULL, "
+                    + "`rosterIds` BLOB NOT NULL, `presence` BLOB NOT NULL, "
+                    + "PRIMARY KEY(`classId`, `epochDay`), "
+                    + "FOREIGN KEY(`classId`) REFERENCES `classes`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , "
+                    + "FOREIGN KEY(`classId`, `epochDay`) REFERENCES `class_sessions`(`classId`, `epochDay`) "
+                    + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+
+            db.execSQL("DROP TABLE `attendance_stats`");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `attendance_stats` ("
+                    + "`studentId` INTEGER NOT NULL, `classId` INTEGER NOT NULL, "
+                    + "`presentCount` INTEGER NOT NULL, `absentCount` INTEGER NOT NULL, "
+                    + "`lastEpochDay` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`studentId`, `classId`), "
+                    + "FOREIGN KEY(`studentId`) REFERENCES `students`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , "
+                    + "FOREIGN KEY(`classId`) REFERENCES `classes`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_attendance_stats_classId` ON `attendance_stats` (`classId`)");
+            AttendanceStatsIndex.createTriggers(db);
+            AttendanceStatsIndex.rebuild(db);
+        }
+    };
+
+    /**
+     * Version 8 -> 9
+     * Makes student numbers unique. Numbers are first stored normalized, as the roster
+     * import writes them, so Persian and Latin digits of one number collide; blank numbers
+     * become NULL. Students sharing a number are then merged into the oldest of them: its
+     * enrollments are extended, and its own records win over the duplicates' in every
+     * session, whether rows or packed.
+     */
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            SupportSQLiteStatement setNumber = db.compileStatement(
+                    "UPDATE `students` SET `studentNumber` = ? WHERE `id` = ?");
+            try (Cursor cursor = db.query("SELECT `id`, `studentNumber` FROM `students`")) {
+                while (cursor.moveToNext()) {
+                    String number = cursor.isNull(1) ? null : TextNormalizer.normalize(cursor.getString(1).trim());
+                    if (number != null && number.isEmpty()) {
+                        number = null;
+                    }
+                    if (number == null ? cursor.isNull(1) : number.equals(cursor.getString(1))) {
+                        continue;
+                    }
+                    if (number == null) {
+                        setNumber.bindNull(1);
+                    } else {
+                        setNumber.bindString(1, number);
+                    }
+                    setNumber.bindLong(2, cursor.getLong(0));
+                    setNumber.executeUpdateDelete();
+                }
+            }
+
+            db.execSQL("CREATE TEMP TABLE `student_merge` AS "
+                    + "SELECT `students`.`id` AS `oldId`, `kept`.`id` AS `newId` FROM `students` "
+                    + "INNER JOIN (SELECT `studentNumber`, MIN(`id`) AS `id` FROM `students` "
+                    + "WHERE `studentNumber` IS NOT NULL GROUP BY `studentNumber` HAVING COUNT(*) > 1) AS `kept` "
+                    + "ON `kept`.`studentNumber` = `students`.`studentNumber` AND `kept`.`id` <> `students`.`id`");
+            Map<Integer, Integer> merged = new HashMap<>();
+            try (Cursor cursor = db.query("SELECT `oldId`, `newId` FROM `student_merge`")) {
+                while (cursor.moveToNext()) {
+                    merged.put(cursor.getInt(0), cursor.getInt(1));
+                }
+            }
+
+            if (!merged.isEmpty()) {
+                db.execSQL("INSERT OR IGNORE INTO `enrollments` (`classId`, `studentId`) "
+                        + "SELECT `enrollments`.`classId`, `student_merge`.`newId` FROM `enrollments` "
+                        + "INNER JOIN `student_merge` ON `student_merge`.`oldId` = `enrollments`.`studentId`");
+                // Rows the kept student already has in a session stay, the duplicate's are dropped below
+                db.execSQL("UPDATE OR IGNORE `attendance` SET `studentId` = (SELECT `newId` FROM `student_merge` "
+                        + "WHERE `oldId` = `attendance`.`studentId`) "
+                        + "WHERE `studentId` IN (SELECT `oldId` FROM `student_merge`)");
+                mergePackedRosters(db, merged);
+
+                // Foreign keys aren't enforced during migrations, so nothing cascades
+                db.execSQL("DELETE FROM `attendance` WHERE `studentId` IN (SELECT `oldId` FROM `student_merge`)");
+                db.execSQL("DELETE FROM `enrollments` WHERE `studentId` IN (SELECT `oldId` FROM `student_merge`)");
+                db.execSQL("DELETE FROM `students` WHERE `id` IN (SELECT `oldId` FROM `student_merge`)");
+                AttendanceStatsIndex.rebuild(db);
+            }
+            db.execSQL("DROP TABLE `student_merge`");
+
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_students_studentNumber` "
+                    + "ON `students` (`studentNumber`)");
+        }
+    };
+
+    /**
+     * Replace merged students in every packed roster they appear in
+     * A student already in the roster keeps their own presence.
+     * @param merged Kept student ID by merged student ID
+     */
+    private static void mergePackedRosters(SupportSQLiteDatabase db, Map<Integer, Integer> merged) {
+        SupportSQLiteStatement update = db.compileStatement(
+                "UPDATE `packed_sessions` SET `rosterSize` = ?, `presentCount` = ?, `rosterIds` = ?, `presence` = ? "
+                + "WHERE `classId` = ? AND `epochDay` = ?");
+        try (Cursor cursor = db.query("SELECT `classId`, `epochDay`, `rosterSize`, `rosterIds`, `presence` "
+                + "FROM `packed_sessions`")) {
+            while (cursor.moveToNext()) {
+                int rosterSize = cursor.getInt(2);
+                byte[] rosterIds = cursor.getBlob(3);
+                byte[] presence = cursor.getBlob(4);
+                TreeMap<Integer, Boolean> roster = new TreeMap<>();
+                boolean changed = false;
+                for (int position = 0; position < rosterSize; position++) {
+                    if (merged.containsKey(AttendanceBitmap.idAt(rosterIds, position))) {
+                        changed = true;
+                    } else {
+                        roster.put(AttendanceBitmap.idAt(rosterIds, position), AttendanceBitmap.get(presence, position));
+                    }
+                }
+                if (!changed) {
+                    continue;
+                }
+                for (int position = 0; position < rosterSize; position++) {
+                    Integer keptId = merged.get(AttendanceBitmap.idAt(rosterIds, position));
+                    if (keptId != null && !roster.containsKey(keptId)) {
+                        roster.put(keptId, AttendanceBitmap.get(presence, position));
+                    }
+                }
+
+                int[] studentIds = new int[roster.size()];
+                byte[] newPresence = AttendanceBitmap.newBitmap(roster.size());
+                int position = 0;
+                for (Map.Entry<Integer, Boolean> entry : roster.entrySet()) {
+                    studentIds[position] = entry.getKey();
+                    if (entry.getValue()) {
+                        AttendanceBitmap.set(newPresence, position);
+                    }
+                    position++;
+                }
+                update.bindLong(1, studentIds.length);
+                update.bindLong(2, AttendanceBitmap.popcount(newPresence));
+                update.bindBlob(3, AttendanceBitmap.encodeIds(studentIds));
+                update.bindBlob(4, newPresence);
+                update.bindLong(5, cursor.getLong(0));
+                update.bindLong(6, cursor.getLong(1));
+                update.executeUpdateDelete();
+            }
+        }
+    }
+
+    /**
+     * Version 9 -> 10
+     * Adds the deleted tombstone to students and classes
+     */
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `students` ADD COLUMN `deleted` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `classes` ADD COLUMN `deleted` INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    /**
+     * Version 10 -> 11
+     * Recreates the attendance_stats update and delete triggers, which moved lastEpochDay
+     * back without looking at packed sessions, and rebuilds the counts they left behind
+     */
+    public static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP TRIGGER IF EXISTS attendance_stats_after_update");
+            db.execSQL("DROP TRIGGER IF EXISTS attendance_stats_after_delete");
+            AttendanceStatsIndex.createTriggers(db);
+            AttendanceStatsIndex.rebuild(db);
+        }
+    };
+
+    /**
+     * Version 11 to 12: roll_call_drafts, where unsaved roll call toggles are written behind
+     */
+    public static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `roll_call_drafts` ("
+                    + "`classId` INTEGER NOT NULL, `epochDay` INTEGER NOT NULL, "
+                    + "`studentId` INTEGER NOT NULL, `isPresent` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`classId`, `epochDay`, `studentId`), "
+                    + "FOREIGN KEY(`classId`) REFERENCES `classes`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , "
+                    + "FOREIGN KEY(`studentId`) REFERENCES `students`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_roll_call_drafts_studentId` "
+                    + "ON `roll_call_drafts` (`studentId`)");
+        }
+    };
+
+    /**
+     * All migrations, in version order
+     */
+    public static final Migration[] ALL = {
+        MIGRATION_1_2,
+        MIGRATION_2_3,
+        MIGRATION_3_4,
+        MIGRATION_4_5,
+        MIGRATION_5_6,
+        MIGRATION_6_7,
+        MIGRATION_7_8,
+        MIGRATION_8_9,
+        MIGRATION_9_10,
+        MIGRATION_10_11,
+        MIGRATION_11_12
+    };
+}
@@ -0,0 +1,35 @@
+package com.example.attendancesystem.database;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Maintains the full-text search tables students_fts and classes_fts
+ * 
+ * Triggers copy normalized text into the FTS tables on every insert, update and delete,
+ * so the index stays in sync whatever code path writes to students or classes.
+ */
+public final class SearchIndex {
+
+    private SearchIndex() {
+    }
+
+    /**
+     * Create the triggers keeping the FTS tables in sync
+     * @param db Database with the students, classes and FTS tables
+     */
+    public static void createTriggers(SupportSQLiteDatabase db) {
+        for (String sql : TriggerSql.SEARCH_INDEX_TRIGGERS) {
+            db.execSQL(sql);
+        }
+    }
+
+    /**
+     * Rebuild both FTS tables from the students and classes tables
+     * @param db Database with the students, classes and FTS tables
+     */
+    public static void rebuild(SupportSQLiteDatabase db) {
+        for (String sql : TriggerSql.SEARCH_INDEX_REBUILD) {
+            db.execSQL(sql);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.attendancesystem.database;
+
+import com.example.attendancesystem.util.TextNormalizer;
+
+/**
+ * SQL of the triggers and rebuild statements Room cannot declare
+ * 
+ * Kept free of Android types so the JVM benchmark module can run exactly the
+ * same statements against its own SQLite connection.
+ */
+public final class TriggerSql {
+
+    private TriggerSql() {
+    }
+
+    /**
+     * Triggers copying normalized text into students_fts and classes_fts
+     * @see SearchIndex
+     */
+    public static final String[] SEARCH_INDEX_TRIGGERS;
+
+    /**
+     * Statements refilling students_fts and classes_fts from their tables
+     */
+    public static final String[] SEARCH_INDEX_REBUILD = {
+        "DELETE FROM students_fts",
+        "INSERT INTO students_fts (rowid, name, studentNumber) SELECT id, "
+                + TextNormalizer.toSqlExpression("name") + ", "
+                + TextNormalizer.toSqlExpression("studentNumber") + " FROM students",
+        "DELETE FROM classes_fts",
+        "INSERT INTO classes_fts (rowid, courseName, instructorName) SELECT id, "
+                + TextNormalizer.toSqlExpression("courseName") + ", "
+                + TextNormalizer.toSqlExpression("instructorName") + " FROM classes"
+    };
+
+    /**
+     * Triggers applying attendance changes to attendance_stats
+     * @see AttendanceStatsIndex
+     */
+    public static final String[] ATTENDANCE_STATS_TRIGGERS;
+
+    /**
+     * Statements refilling attendance_stats from attendance rows (packed sessions excluded)
+     */
+    public static final String[] ATTENDANCE_STATS_REBUILD = {
+        "DELETE FROM attendance_stats",
+        "INSERT INTO attendance_stats (studentId, classId, presentCount, absentCount, lastEpochDay) "
+                + "SELECT studentId, classId, SUM(isPresent), COUNT(*) - SUM(isPresent), MAX(epochDay) "
+                + "FROM attendance GROUP BY studentId, classId"
+    };
+
+    static {
+        String insertStudent = "INSERT OR REPLACE INTO students_fts (rowid, name, studentNumber) VALUES (new.id, "
+                + TextNormalizer.toSqlExpression("new.name") + ", "
+                + TextNormalizer.toSqlExpression("new.studentNumber") + ");";
+        String insertClass = "INSERT OR REPLACE INTO classes_fts (rowid, courseName, instructorName) VALUES (new.id, "
+                + TextNormalizer.toSqlExpression("new.courseName") + ", "
+                + TextNormalizer.toSqlExpression("new.instructorName") + ");";
+        SEARCH_INDEX_TRIGGERS = new String[] {
+            "CREATE TRIGGER IF NOT EXISTS students_fts_after_insert AFTER INSERT ON students BEGIN "
+                    + insertStudent + " END",
+            "CREATE TRIGGER IF NOT EXISTS students_fts_after_update AFTER UPDATE ON students BEGIN "
+                    + "DELETE FROM students_fts WHERE rowid = old.id; " + insertStudent + " END",
+            "CREATE TRIGGER IF NOT EXISTS students_fts_after_delete AFTER DELETE ON students BEGIN "
+                    + "DELETE FROM students_fts WHERE rowid = old.id; END",
+            "CREATE TRIGGER IF NOT EXISTS classes_fts_after_insert AFTER INSERT ON classes BEGIN "
+                    + insertClass + " END",
+            "CREATE TRIGGER IF NOT EXISTS classes_fts_after_update AFTER UPDATE ON classes BEGIN "
+                    + "DELETE FROM classes_fts WHERE rowid = old.id; " + insertClass + " END",
+            "CREATE TRIGGER IF NOT EXISTS classes_fts_after_delete AFTER DELETE ON classes BEGIN "
+                    + "DELETE FROM classes_fts WHERE rowid = old.id; END"
+        };
+
+        String notPacked = "NOT EXISTS (SELECT 1 FROM packed_sessions "
+                + "WHERE packed_sessions.classId = %1$s.classId AND packed_sessions.epochDay = %1$s.epochDay)";
+        // No OR IGNORE here: the conflict clause of the statement firing a trigger (e.g. Room's
+        // INSERT OR ABORT) overrides the clauses inside it, so the insert must not conflict
+        String add = "INSERT INTO attendance_stats (studentId, classId, presentCount, absentCount, lastEpochDay) "
+                + "SELECT new.studentId, new.classId, 0, 0, 0 WHERE NOT EXISTS (SELECT 1 FROM attendance_stats "
+                + "WHERE studentId = new.studentId AND classId = new.classId); "
+                + "UPDATE attendance_stats SET presentCount = presentCount + new.isPresent, "
+                + "absentCount = absentCount + 1 - new.isPresent, lastEpochDay = MAX(lastEpochDay, new.epochDay) "
+                + "WHERE studentId = new.studentId AND classId = new.classId;";
+        // Only a record of the last day moves lastEpochDay back, to the latest day the student
+        // still has a record of, whether a row or a packed session
+        String subtract = "UPDATE attendance_stats SET presentCount = presentCount - old.isPresent, "
+                + "absentCount = absentCount - 1 + old.isPresent, "
+                + "lastEpochDay = CASE WHEN old.epochDay < lastEpochDay THEN lastEpochDay ELSE MAX("
+                + "COALESCE((SELECT MAX(epochDay) FROM attendance "
+                + "WHERE studentId = old.studentId AND classId = old.classId), 0), "
+                + "COALESCE((SELECT MAX(packed_sessions.epochDay) FROM packed_sessions, "
+                + "(SELECT printf('%02X%02X%02X%02X', old.studentId & 255, (old.studentId >> 8) & 255, "
+                + "(old.studentId >> 16) & 255, (old.studentId >> 24) & 255) AS hex) AS entry "
+                + "WHERE packed_sessions.classId = old.classId AND " + rosterContains("entry.hex") + "), 0)) END "
+                + "WHERE studentId = old.studentId AND classId = old.classId;";
+        ATTENDANCE_STATS_TRIGGERS = new String[] {
+            "CREATE TRIGGER IF NOT EXISTS attendance_stats_after_insert AFTER INSERT ON attendance "
+                    + "WHEN " + String.format(notPacked, "new") + " BEGIN " + add + " END",
+            "CREATE TRIGGER IF NOT EXISTS attendance_stats_after_update AFTER UPDATE ON attendance BEGIN "
+                    + subtract + " " + add + " END",
+            "CREATE TRIGGER IF NOT EXISTS attendance_stats_after_delete AFTER DELETE ON attendance "
+                    + "WHEN " + String.format(notPacked, "old") + " BEGIN " + subtract + " END"
+        };
+    }
+
+    /**
+     * Matches in a packed session checked by {@link #rosterContains(String)}
+     */
+    private static final int ROSTER_MATCHES_CHECKED = 3;
+
+    /**
+     * Build a condition on a packed_sessions row: its roster holds a student
+     * Entries are 8 hex digits of hex(rosterIds); a match off that grid is the bytes of two
+     * neighbouring IDs (e.g. 00 05 00 00, student 1280, across the entries of 3 and 5), so
+     * the first few matches are tried until one starts an entry.
+     * @param entryHex Expression of the student ID as a roster entry, in upper-case hex
+     */
+    private static String rosterContains(String entryHex) {
+        String offset = "instr(hex(packed_sessions.rosterIds), " + entryHex + ")";
+        StringBuilder condition = new StringBuilder("(" + offset + " % 8 = 1");
+        for (int match = 2; match <= ROSTER_MATCHES_CHECKED; match++) {
+            offset = "(" + offset + " + instr(substr(hex(packed_sessions.rosterIds), " + offset + " + 1), "
+                    + entryHex + "))";
+            condition.append(" OR ").append(offset).append(" % 8 = 1");
+        }
+        return condition.append(")").toString();
+    }
+}
@@ -8,6 +8,14 @@ import androidx.room.Index;
 /**
  * Entity representing an attendance record for a specific student in a specific class session
  * Links students to their attendance status in each class session
+ *
+ * Every record belongs to a class session (see ClassSession), referenced by
+ * (classId, epochDay); deleting the session deletes its records.
+ *
+ * The unique (classId, epochDay, studentId) index makes session lookups an index seek,
+ * date-range queries a scan of one class prefix, and guarantees a student has at most
+ * one record per session. The (studentId, classId) index serves per-student queries
+ * within a class.
  */
 @Entity(
     tableName = "attendance",
@@ -23,11 +31,17 @@ import androidx.room.Index;
             parentColumns = "id",
             childColumns = "classId",
             onDelete = ForeignKey.CASCADE
+        ),
+        @ForeignKey(
+            entity = ClassSession.class,
+            parentColumns = {"classId", "epochDay"},
+            childColumns = {"classId", "epochDay"},
+            onDelete = ForeignKey.CASCADE
         )
     },
     indices = {
-        @Index("studentId"),
-        @Index("classId")
+        @Index(value = {"classId", "epochDay", "studentId"}, unique = true),
+        @Index({"studentId", "classId"})
     }
 )
 public class Attendance {
@@ -50,10 +64,10 @@ public class Attendance {
     private int classId;
     
     /**
-     * Date when the attendance was taken (stored as timestamp)
-     * Used to group attendance records by session
+     * Day of the session the attendance was taken in (days since 1970-01-01, local time)
+     * Used to group attendance records by session, see SessionDays
      */
-    private long date;
+    private long epochDay;
     
     /**
      * Attendance status: true = present, false = absent
@@ -70,13 +84,13 @@ public class Attendance {
      * Constructor for creating a new attendance record
      * @param studentId ID of the student
      * @param classId ID of the class
-     * @param date Date of the session (timestamp)
+     * @param epochDay Day of the session, see SessionDays
      * @param isPresent Attendance status
      */
-    public Attendance(int studentId, int classId, long date, boolean isPresent) {
+    public Attendance(int studentId, int classId, long epochDay, boolean isPresent) {
         this.studentId = studentId;
         this.classId = classId;
-        this.date = date;
+        this.epochDay = epochDay;
         this.isPresent = isPresent;
     }
     
@@ -106,12 +120,12 @@ public class Attendance {
         this.classId = classId;
     }
     
-    public long getDate() {
-        return date;
+    public long getEpochDay() {
+        return epochDay;
     }
     
-    public void setDate(long date) {
-        this.date = date;
+    public void setEpochDay(long epochDay) {
+        this.epochDay = epochDay;
     }
     
     public boolean isPresent() {
@@ -0,0 +1,103 @@
+package com.example.attendancesystem.entity;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+/**
+ * Entity holding the running attendance counts of a student in a class
+ * Kept exact by triggers on the attendance table (see AttendanceStatsIndex), so
+ * per-student counts are a primary key lookup instead of a scan of attendance.
+ * Sessions count once whether they are stored as rows or packed.
+ */
+@Entity(
+    tableName = "attendance_stats",
+    primaryKeys = {"studentId", "classId"},
+    foreignKeys = {
+        @ForeignKey(
+            entity = Student.class,
+            parentColumns = "id",
+            childColumns = "studentId",
+            onDelete = ForeignKey.CASCADE
+        ),
+        @ForeignKey(
+            entity = ClassCourse.class,
+            parentColumns = "id",
+            childColumns = "classId",
+            onDelete = ForeignKey.CASCADE
+        )
+    },
+    indices = {
+        @Index("classId")
+    }
+)
+public class AttendanceStats {
+    
+    /**
+     * Foreign key referencing the student
+     */
+    private int studentId;
+    
+    /**
+     * Foreign key referencing the class
+     */
+    private int classId;
+    
+    /**
+     * Number of sessions the student was present in
+     */
+    private int presentCount;
+    
+    /**
+     * Number of sessions the student was absent from
+     */
+    private int absentCount;
+    
+    /**
+     * Day of the latest session with a record for the student, see SessionDays
+     * Recomputed from the remaining attendance rows when a row is deleted
+     */
+    private long lastEpochDay;
+    
+    // Getter and Setter methods
+    
+    public int getStudentId() {
+        return studentId;
+    }
+    
+    public void setStudentId(int studentId) {
+        this.studentId = studentId;
+    }
+    
+    public int getClassId() {
+        return classId;
+    }
+    
+    public void setClassId(int classId) {
+        this.classId = classId;
+    }
+    
+    public int getPresentCount() {
+        return presentCount;
+    }
+    
+    public void setPresentCount(int presentCount) {
+        this.presentCount = presentCount;
+    }
+    
+    public int getAbsentCount() {
+        return absentCount;
+    }
+    
+    public void setAbsentCount(int absentCount) {
+        this.absentCount = absentCount;
+    }
+    
+    public long getLastEpochDay() {
+        return lastEpochDay;
+    }
+    
+    public void setLastEpochDay(long lastEpochDay) {
+        this.lastEpochDay = lastEpochDay;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.attendancesystem.entity;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 
@@ -37,6 +38,14 @@ public class ClassCourse {
      */
     private String time;
     
+    /**
+     * Tombstone set when the class is deleted
+     * Its records are purged in the background, then the row itself; until then
+     * queries skip it
+     */
+    @ColumnInfo(defaultValue = "0")
+    private boolean deleted;
+    
     /**
      * Default constructor required by Room
      */
@@ -98,4 +107,12 @@ public class ClassCourse {
     public void setTime(String time) {
         this.time = time;
     }
+    
+    public boolean isDeleted() {
+        return deleted;
+    }
+    
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
 }
\ No newline at end of file
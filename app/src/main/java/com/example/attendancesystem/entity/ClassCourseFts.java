@@ -0,0 +1,58 @@
+package com.example.attendancesystem.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * Full-text search index over classes
+ * Each row shares its rowid with the class it indexes and holds normalized text.
+ * The table is maintained by triggers on the classes table, see SearchIndex.
+ */
+@Fts4(tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "classes_fts")
+public class ClassCourseFts {
+    
+    /**
+     * ID of the indexed class
+     */
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private int rowid;
+    
+    /**
+     * Normalized course name
+     */
+    private String courseName;
+    
+    /**
+     * Normalized instructor name
+     */
+    private String instructorName;
+    
+    public int getRowid() {
+        return rowid;
+    }
+    
+    public void setRowid(int rowid) {
+        this.rowid = rowid;
+    }
+    
+    public String getCourseName() {
+        return courseName;
+    }
+    
+    public void setCourseName(String courseName) {
+        this.courseName = courseName;
+    }
+    
+    public String getInstructorName() {
+        return instructorName;
+    }
+    
+    public void setInstructorName(String instructorName) {
+        this.instructorName = instructorName;
+    }
+}
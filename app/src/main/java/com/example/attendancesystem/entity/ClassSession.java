@@ -0,0 +1,65 @@
+package com.example.attendancesystem.entity;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+/**
+ * Entity representing a class session, i.e. a class meeting on a given day
+ * Attendance records and packed sessions reference it by (classId, epochDay), so a class
+ * has at most one session per calendar day whatever time the roll call was taken.
+ *
+ * The (classId, epochDay) primary key lists a class's sessions in day order, which
+ * serves session lists and date-range queries.
+ */
+@Entity(
+    tableName = "class_sessions",
+    primaryKeys = {"classId", "epochDay"},
+    foreignKeys = {
+        @ForeignKey(
+            entity = ClassCourse.class,
+            parentColumns = "id",
+            childColumns = "classId",
+            onDelete = ForeignKey.CASCADE
+        )
+    }
+)
+public class ClassSession {
+    
+    /**
+     * Foreign key referencing the class
+     */
+    private int classId;
+    
+    /**
+     * Day of the session (days since 1970-01-01, local time), see SessionDays
+     */
+    private long epochDay;
+    
+    /**
+     * Constructor
+     * @param classId The class ID
+     * @param epochDay The session day
+     */
+    public ClassSession(int classId, long epochDay) {
+        this.classId = classId;
+        this.epochDay = epochDay;
+    }
+    
+    // Getter and Setter methods
+    
+    public int getClassId() {
+        return classId;
+    }
+    
+    public void setClassId(int classId) {
+        this.classId = classId;
+    }
+    
+    public long getEpochDay() {
+        return epochDay;
+    }
+    
+    public void setEpochDay(long epochDay) {
+        this.epochDay = epochDay;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.attendancesystem.entity;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+/**
+ * Entity linking a student to a class they are enrolled in
+ * Roll calls and reports of a class only cover its enrolled students
+ *
+ * The (classId, studentId) primary key serves roster lookups by class;
+ * the studentId index serves lookups of a student's classes.
+ */
+@Entity(
+    tableName = "enrollments",
+    primaryKeys = {"classId", "studentId"},
+    foreignKeys = {
+        @ForeignKey(
+            entity = ClassCourse.class,
+            parentColumns = "id",
+            childColumns = "classId",
+            onDelete = ForeignKey.CASCADE
+        ),
+        @ForeignKey(
+            entity = Student.class,
+            parentColumns = "id",
+            childColumns = "studentId",
+            onDelete = ForeignKey.CASCADE
+        )
+    },
+    indices = {
+        @Index("studentId")
+    }
+)
+public class Enrollment {
+    
+    /**
+     * Foreign key referencing the class
+     */
+    private int classId;
+    
+    /**
+     * Foreign key referencing the student
+     */
+    private int studentId;
+    
+    /**
+     * Constructor
+     * @param classId The class ID
+     * @param studentId The student ID
+     */
+    public Enrollment(int classId, int studentId) {
+        this.classId = classId;
+        this.studentId = studentId;
+    }
+    
+    public int getClassId() {
+        return classId;
+    }
+    
+    public void setClassId(int classId) {
+        this.classId = classId;
+    }
+    
+    public int getStudentId() {
+        return studentId;
+    }
+    
+    public void setStudentId(int studentId) {
+        this.studentId = studentId;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.attendancesystem.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+/**
+ * Entity representing a finalized class session stored in compact form
+ * One row replaces the row-per-student attendance records of the session:
+ * the roster is kept as sorted student IDs and presence as a bitmap keyed
+ * by roster position (see AttendanceBitmap)
+ */
+@Entity(
+    tableName = "packed_sessions",
+    primaryKeys = {"classId", "epochDay"},
+    foreignKeys = {
+        @ForeignKey(
+            entity = ClassCourse.class,
+            parentColumns = "id",
+            childColumns = "classId",
+            onDelete = ForeignKey.CASCADE
+        ),
+        @ForeignKey(
+            entity = ClassSession.class,
+            parentColumns = {"classId", "epochDay"},
+            childColumns = {"classId", "epochDay"},
+            onDelete = ForeignKey.CASCADE
+        )
+    }
+)
+public class PackedSession {
+    
+    /**
+     * Foreign key referencing the class
+     */
+    private int classId;
+    
+    /**
+     * Day of the session, see SessionDays
+     */
+    private long epochDay;
+    
+    /**
+     * Number of students in the roster
+     */
+    private int rosterSize;
+    
+    /**
+     * Number of present students, i.e. the popcount of the presence bitmap
+     */
+    private int presentCount;
+    
+    /**
+     * Student IDs of the roster, sorted ascending
+     */
+    @NonNull
+    private byte[] rosterIds = new byte[0];
+    
+    /**
+     * Presence bitmap, bit i set when the student at roster position i was present
+     */
+    @NonNull
+    private byte[] presence = new byte[0];
+    
+    // Getter and Setter methods
+    
+    public int getClassId() {
+        return classId;
+    }
+    
+    public void setClassId(int classId) {
+        this.classId = classId;
+    }
+    
+    public long getEpochDay() {
+        return epochDay;
+    }
+    
+    public void setEpochDay(long epochDay) {
+        this.epochDay = epochDay;
+    }
+    
+    public int getRosterSize() {
+        return rosterSize;
+    }
+    
+    public void setRosterSize(int rosterSize) {
+        this.rosterSize = rosterSize;
+    }
+    
+    public int getPresentCount() {
+        return presentCount;
+    }
+    
+    public void setPresentCount(int presentCount) {
+        this.presentCount = presentCount;
+    }
+    
+    @NonNull
+    public byte[] getRosterIds() {
+        return rosterIds;
+    }
+    
+    public void setRosterIds(@NonNull byte[] rosterIds) {
+        this.rosterIds = rosterIds;
+    }
+    
+    @NonNull
+    public byte[] getPresence() {
+        return presence;
+    }
+    
+    public void setPresence(@NonNull byte[] presence) {
+        this.presence = presence;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.attendancesystem.entity;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+/**
+ * Entity holding a status toggled in a roll call that has not been saved yet
+ * Toggles are written here behind the roll call screen and only become attendance records
+ * when the roll call is saved. No trigger, statistic or report reads this table, so a
+ * half-taken roll call never counts as a session.
+ */
+@Entity(
+    tableName = "roll_call_drafts",
+    primaryKeys = {"classId", "epochDay", "studentId"},
+    foreignKeys = {
+        @ForeignKey(
+            entity = ClassCourse.class,
+            parentColumns = "id",
+            childColumns = "classId",
+            onDelete = ForeignKey.CASCADE
+        ),
+        @ForeignKey(
+            entity = Student.class,
+            parentColumns = "id",
+            childColumns = "studentId",
+            onDelete = ForeignKey.CASCADE
+        )
+    },
+    indices = {
+        @Index("studentId")
+    }
+)
+public class RollCallDraft {
+
+    /**
+     * Foreign key referencing the class
+     */
+    private int classId;
+
+    /**
+     * Day of the roll call, see SessionDays
+     */
+    private long epochDay;
+
+    /**
+     * Foreign key referencing the student
+     */
+    private int studentId;
+
+    /**
+     * Status toggled for the student
+     */
+    private boolean isPresent;
+
+    // Getter and Setter methods
+
+    public int getClassId() {
+        return classId;
+    }
+
+    public void setClassId(int classId) {
+        this.classId = classId;
+    }
+
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    public void setEpochDay(long epochDay) {
+        this.epochDay = epochDay;
+    }
+
+    public int getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(int studentId) {
+        this.studentId = studentId;
+    }
+
+    public boolean isPresent() {
+        return isPresent;
+    }
+
+    public void setPresent(boolean present) {
+        isPresent = present;
+    }
+}
@@ -1,14 +1,26 @@
 package com.example.attendancesystem.entity;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.ForeignKey;
 
 /**
  * Entity representing a student in the system
  * Each student can be enrolled in multiple classes
+ *
+ * The name index (which implicitly ends with the id) serves the roster ordering
+ * used by paged student lists. Student numbers are unique and stored normalized
+ * (see TextNormalizer); students without a number may share a NULL.
  */
-@Entity(tableName = "students")
+@Entity(
+    tableName = "students",
+    indices = {
+        @Index("name"),
+        @Index(value = "studentNumber", unique = true)
+    }
+)
 public class Student {
     
     /**
@@ -24,11 +36,19 @@ public class Student {
     private String name;
     
     /**
-     * Student's unique identification number
+     * Student's unique identification number, normalized
      * Used for official university records
      */
     private String studentNumber;
     
+    /**
+     * Tombstone set when the student is deleted
+     * Their records are purged in the background, then the row itself; until then
+     * queries skip it. The student number is cleared right away so it can be reused
+     */
+    @ColumnInfo(defaultValue = "0")
+    private boolean deleted;
+    
     /**
      * Default constructor required by Room
      */
@@ -70,4 +90,12 @@ public class Student {
     public void setStudentNumber(String studentNumber) {
         this.studentNumber = studentNumber;
     }
+    
+    public boolean isDeleted() {
+        return deleted;
+    }
+    
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.example.attendancesystem.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * Full-text search index over students
+ * Each row shares its rowid with the student it indexes and holds normalized text.
+ * The table is maintained by triggers on the students table, see SearchIndex.
+ */
+@Fts4(tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "students_fts")
+public class StudentFts {
+    
+    /**
+     * ID of the indexed student
+     */
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private int rowid;
+    
+    /**
+     * Normalized student name
+     */
+    private String name;
+    
+    /**
+     * Normalized student number
+     */
+    private String studentNumber;
+    
+    public int getRowid() {
+        return rowid;
+    }
+    
+    public void setRowid(int rowid) {
+        this.rowid = rowid;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getStudentNumber() {
+        return studentNumber;
+    }
+    
+    public void setStudentNumber(String studentNumber) {
+        this.studentNumber = studentNumber;
+    }
+}
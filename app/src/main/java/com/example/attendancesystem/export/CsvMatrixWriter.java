@@ -0,0 +1,79 @@
+package com.example.attendancesystem.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RFC 4180 CSV in UTF-8
+ * A byte order mark is written first so spreadsheet apps detect the encoding of Persian text.
+ */
+class CsvMatrixWriter implements MatrixWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer writer;
+    private boolean firstCell;
+
+    CsvMatrixWriter(OutputStream out) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write('\uFEFF');
+    }
+
+    @Override
+    public void startRow() {
+        firstCell = true;
+    }
+
+    @Override
+    public void textCell(String value) throws IOException {
+        separate();
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    @Override
+    public void numberCell(long value) throws IOException {
+        separate();
+        writer.write(Long.toString(value));
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    private void separate() throws IOException {
+        if (!firstCell) {
+            writer.write(',');
+        }
+        firstCell = false;
+    }
+}
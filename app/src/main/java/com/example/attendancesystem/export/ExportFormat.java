@@ -0,0 +1,17 @@
+package com.example.attendancesystem.export;
+
+/**
+ * File formats a report can be exported to
+ */
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+    public final String mimeType;
+    public final String extension;
+
+    ExportFormat(String mimeType, String extension) {
+        this.mimeType = mimeType;
+        this.extension = extension;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.attendancesystem.export;
+
+import java.io.IOException;
+
+/**
+ * Writes a table row by row, cell by cell, without holding previous rows
+ */
+interface MatrixWriter {
+
+    void startRow() throws IOException;
+
+    void textCell(String value) throws IOException;
+
+    void numberCell(long value) throws IOException;
+
+    void endRow() throws IOException;
+
+    /**
+     * Complete the file and flush it; the underlying stream is left open
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,240 @@
+package com.example.attendancesystem.export;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.DocumentsContract;
+
+import androidx.annotation.NonNull;
+
+import com.example.attendancesystem.R;
+import com.example.attendancesystem.dao.AttendanceDao;
+import com.example.attendancesystem.database.AppDatabase;
+import com.example.attendancesystem.entity.PackedSession;
+import com.example.attendancesystem.model.DayRange;
+import com.example.attendancesystem.repository.AppExecutors;
+import com.example.attendancesystem.util.AttendanceBitmap;
+import com.example.attendancesystem.util.SessionDays;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Future;
+
+/**
+ * Exports the attendance matrix of a class, one row per enrolled student and one column
+ * per session, to a document chosen by the user
+ * 
+ * Row records are streamed from a Cursor straight into a buffered writer, one student at a
+ * time. Only the session days and the packed sessions of the class are held in memory, so
+ * memory use does not grow with the number of students or records.
+ * 
+ * The export runs on the reader pool without a transaction, so it never blocks writes;
+ * a session saved while exporting may be missing from the file.
+ */
+public class ReportExporter {
+
+    /**
+     * Receives the progress and outcome of an export on the main thread
+     * A cancelled export never calls back.
+     */
+    public interface Listener {
+        void onProgress(int exportedStudents, int totalStudents);
+
+        void onComplete(int exportedStudents);
+
+        void onError(@NonNull Exception error);
+    }
+
+    private static final byte NO_RECORD = 0;
+    private static final byte PRESENT = 1;
+    private static final byte ABSENT = 2;
+
+    private final Context context;
+    private final AppDatabase database;
+    private final AppExecutors executors;
+
+    public ReportExporter(Context context) {
+        this.context = context.getApplicationContext();
+        database = AppDatabase.getInstance(context);
+        executors = AppExecutors.getInstance();
+    }
+
+    /**
+     * Export the attendance matrix of a class in the background
+     * A failed or cancelled export deletes the partly written document.
+     * @param classId The class ID
+     * @param range Sessions to include
+     * @param format File format
+     * @param uri Document to write, e.g. from ActivityResultContracts.CreateDocument
+     * @param listener Receives progress and the outcome on the main thread
+     * @return Future that can be used to cancel the export
+     */
+    public Future<?> export(int classId, DayRange range, ExportFormat format, Uri uri, Listener listener) {
+        return executors.diskRead().submit(() -> {
+            try {
+                int exported;
+                try (OutputStream out = context.getContentResolver().openOutputStream(uri, "wt")) {
+                    if (out == null) {
+                        throw new FileNotFoundException(uri.toString());
+                    }
+                    MatrixWriter writer = format == ExportFormat.XLSX
+                            ? new XlsxMatrixWriter(out, context.getString(R.string.attendance_report))
+                            : new CsvMatrixWriter(out);
+                    exported = writeMatrix(writer, classId, range, listener);
+                }
+                post(() -> listener.onComplete(exported));
+            } catch (InterruptedIOException e) {
+                deleteDocument(uri);
+            } catch (IOException | RuntimeException e) {
+                deleteDocument(uri);
+                post(() -> listener.onError(e));
+            }
+        });
+    }
+
+    private int writeMatrix(MatrixWriter writer, int classId, DayRange range, Listener listener)
+            throws IOException {
+        AttendanceDao attendanceDao = database.attendanceDao();
+
+        // Columns in ascending day order
+        List<Long> sessionDays = attendanceDao.getClassSessionDaysBetween(classId, range.fromDay, range.toDay);
+        int sessionCount = sessionDays.size();
+        long[] days = new long[sessionCount];
+        for (int i = 0; i < sessionCount; i++) {
+            days[i] = sessionDays.get(sessionCount - 1 - i);
+        }
+        PackedSession[] packedByColumn = new PackedSession[sessionCount];
+        for (PackedSession session : attendanceDao.getPackedSessionsBetween(classId, range.fromDay, range.toDay)) {
+            int column = Arrays.binarySearch(days, session.getEpochDay());
+            if (column >= 0) {
+                packedByColumn[column] = session;
+            }
+        }
+        int totalStudents = database.enrollmentDao().getEnrollmentCount(classId);
+
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd", Locale.getDefault());
+        writer.startRow();
+        writer.textCell(context.getString(R.string.student_name));
+        writer.textCell(context.getString(R.string.student_number));
+        for (long day : days) {
+            writer.textCell(dateFormat.format(new Date(SessionDays.toMillis(day))));
+        }
+        writer.textCell(context.getString(R.string.present_sessions));
+        writer.textCell(context.getString(R.string.absent_sessions));
+        writer.endRow();
+
+        String present = context.getString(R.string.present);
+        String absent = context.getString(R.string.absent);
+        byte[] statuses = new byte[sessionCount];
+        int exported = 0;
+        int reportedPercent = -1;
+        try (Cursor cursor = attendanceDao.getAttendanceMatrixCursor(classId, range.fromDay, range.toDay)) {
+            boolean hasStudent = false;
+            int studentId = 0;
+            String name = null;
+            String studentNumber = null;
+            while (cursor.moveToNext()) {
+                int rowStudentId = cursor.getInt(0);
+                if (!hasStudent || rowStudentId != studentId) {
+                    if (hasStudent) {
+                        writeStudentRow(writer, name, studentNumber, statuses, present, absent);
+                        exported++;
+                        reportedPercent = reportProgress(listener, exported, totalStudents, reportedPercent);
+                    }
+                    hasStudent = true;
+                    studentId = rowStudentId;
+                    name = cursor.getString(1);
+                    studentNumber = cursor.getString(2);
+                    fillPackedStatuses(statuses, packedByColumn, studentId);
+                }
+                if (!cursor.isNull(3)) {
+                    int column = Arrays.binarySearch(days, cursor.getLong(3));
+                    if (column >= 0) {
+                        statuses[column] = cursor.getInt(4) != 0 ? PRESENT : ABSENT;
+                    }
+                }
+            }
+            if (hasStudent) {
+                writeStudentRow(writer, name, studentNumber, statuses, present, absent);
+                exported++;
+                reportProgress(listener, exported, totalStudents, reportedPercent);
+            }
+        }
+        writer.finish();
+        return exported;
+    }
+
+    /**
+     * Reset statuses to the student's records in packed sessions, NO_RECORD elsewhere
+     */
+    private static void fillPackedStatuses(byte[] statuses, PackedSession[] packedByColumn, int studentId) {
+        for (int column = 0; column < statuses.length; column++) {
+            PackedSession session = packedByColumn[column];
+            int position = session == null ? -1 : AttendanceBitmap.indexOf(session.getRosterIds(), studentId);
+            if (position < 0) {
+                statuses[column] = NO_RECORD;
+            } else {
+                statuses[column] = AttendanceBitmap.get(session.getPresence(), position) ? PRESENT : ABSENT;
+            }
+        }
+    }
+
+    private static void writeStudentRow(MatrixWriter writer, String name, String studentNumber, byte[] statuses,
+                                        String present, String absent) throws IOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Export cancelled");
+        }
+        int presentCount = 0;
+        int absentCount = 0;
+        writer.startRow();
+        writer.textCell(name);
+        writer.textCell(studentNumber);
+        for (byte status : statuses) {
+            if (status == PRESENT) {
+                presentCount++;
+                writer.textCell(present);
+            } else if (status == ABSENT) {
+                absentCount++;
+                writer.textCell(absent);
+            } else {
+                writer.textCell(null);
+            }
+        }
+        writer.numberCell(presentCount);
+        writer.numberCell(absentCount);
+        writer.endRow();
+    }
+
+    /**
+     * Post progress when the completed percentage changes
+     * @return The percentage last reported
+     */
+    private int reportProgress(Listener listener, int exported, int total, int reportedPercent) {
+        int percent = total > 0 ? Math.min(100, exported * 100 / total) : 100;
+        if (percent != reportedPercent) {
+            post(() -> listener.onProgress(exported, Math.max(exported, total)));
+        }
+        return percent;
+    }
+
+    private void post(Runnable callback) {
+        if (!Thread.currentThread().isInterrupted()) {
+            executors.mainThread().execute(callback);
+        }
+    }
+
+    private void deleteDocument(Uri uri) {
+        try {
+            DocumentsContract.deleteDocument(context.getContentResolver(), uri);
+        } catch (Exception e) {
+            // Not a deletable document; leave the partial file
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.attendancesystem.export;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Minimal Office Open XML workbook with a single right-to-left sheet
+ * 
+ * The package parts are fixed and written up front; the sheet is the last zip entry and is
+ * streamed as rows arrive. Text uses inline strings instead of a shared string table, so
+ * nothing has to be kept until the end.
+ */
+class XlsxMatrixWriter implements MatrixWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String CONTENT_TYPES = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+            + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+            + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+            + "<Override PartName=\"/xl/workbook.xml\" "
+            + "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+            + "<Override PartName=\"/xl/worksheets/sheet1.xml\" "
+            + "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+            + "</Types>";
+
+    private static final String ROOT_RELS = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+            + "<Relationship Id=\"rId1\" "
+            + "Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" "
+            + "Target=\"xl/workbook.xml\"/>"
+            + "</Relationships>";
+
+    private static final String WORKBOOK_RELS = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+            + "<Relationship Id=\"rId1\" "
+            + "Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" "
+            + "Target=\"worksheets/sheet1.xml\"/>"
+            + "</Relationships>";
+
+    private final ZipOutputStream zip;
+    private final Writer writer;
+    private int rowNumber;
+    private int columnIndex;
+
+    /**
+     * @param out Destination stream
+     * @param sheetName Name of the sheet, at most 31 characters
+     */
+    XlsxMatrixWriter(OutputStream out, String sheetName) throws IOException {
+        zip = new ZipOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        writeEntry("[Content_Types].xml", CONTENT_TYPES);
+        writeEntry("_rels/.rels", ROOT_RELS);
+        writeEntry("xl/_rels/workbook.xml.rels", WORKBOOK_RELS);
+        StringBuilder workbook = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>")
+                .append("<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" ")
+                .append("xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">")
+                .append("<sheets><sheet name=\"");
+        appendEscaped(workbook, sheetName);
+        workbook.append("\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>");
+        writeEntry("xl/workbook.xml", workbook.toString());
+
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                + "<sheetViews><sheetView rightToLeft=\"1\" workbookViewId=\"0\"/></sheetViews>"
+                + "<sheetData>");
+    }
+
+    @Override
+    public void startRow() throws IOException {
+        rowNumber++;
+        columnIndex = 0;
+        writer.write("<row r=\"");
+        writer.write(Integer.toString(rowNumber));
+        writer.write("\">");
+    }
+
+    @Override
+    public void textCell(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            columnIndex++;
+            return;
+        }
+        startCell();
+        writer.write(" t=\"inlineStr\"><is><t>");
+        writeEscaped(value);
+        writer.write("</t></is></c>");
+    }
+
+    @Override
+    public void numberCell(long value) throws IOException {
+        startCell();
+        writer.write("><v>");
+        writer.write(Long.toString(value));
+        writer.write("</v></c>");
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        writer.write("</row>");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.write("</sheetData></worksheet>");
+        writer.flush();
+        zip.closeEntry();
+        zip.finish();
+        zip.flush();
+    }
+
+    private void startCell() throws IOException {
+        writer.write("<c r=\"");
+        writeColumnName(columnIndex++);
+        writer.write(Integer.toString(rowNumber));
+        writer.write('"');
+    }
+
+    /**
+     * Write a 0-based column index as a spreadsheet column name (A, B, ..., Z, AA, ...)
+     */
+    private void writeColumnName(int index) throws IOException {
+        if (index >= 26) {
+            writeColumnName(index / 26 - 1);
+        }
+        writer.write('A' + index % 26);
+    }
+
+    private void writeEscaped(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&': writer.write("&amp;"); break;
+                case '<': writer.write("&lt;"); break;
+                case '>': writer.write("&gt;"); break;
+                case '"': writer.write("&quot;"); break;
+                default:
+                    // Control characters other than tab and newline are not allowed in XML
+                    if (c >= 0x20 || c == '\t' || c == '\n') {
+                        writer.write(c);
+                    }
+            }
+        }
+    }
+
+    private static void appendEscaped(StringBuilder builder, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&': builder.append("&amp;"); break;
+                case '<': builder.append("&lt;"); break;
+                case '>': builder.append("&gt;"); break;
+                case '"': builder.append("&quot;"); break;
+                default: builder.append(c);
+            }
+        }
+    }
+
+    private void writeEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(content);
+        writer.flush();
+        zip.closeEntry();
+    }
+}
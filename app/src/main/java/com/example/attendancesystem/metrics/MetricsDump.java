@@ -0,0 +1,97 @@
+package com.example.attendancesystem.metrics;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.Build;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Formats {@link QueryMetrics} as tab separated text
+ *
+ * A header names the device, Android and app version, followed by one row per SQL
+ * statement and screen, so dumps of different devices and releases can be compared in a
+ * spreadsheet. Statements are written on one line, whatever their formatting.
+ */
+public final class MetricsDump {
+
+    private static final String COLUMNS =
+            "screen\tstatement\tcalls\ttask_calls\tp50_us\tp95_us\tp99_us\tmean_us\trows\terrors";
+
+    private MetricsDump() {
+    }
+
+    /**
+     * Write the current metrics
+     * @param context Any context, used for the app version
+     * @param out Receives the dump; not closed
+     */
+    public static void write(Context context, Appendable out) throws IOException {
+        QueryMetrics metrics = QueryMetrics.getInstance();
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
+        out.append("# device\t").append(Build.MANUFACTURER).append(' ').append(Build.MODEL).append('\n');
+        out.append("# android\t").append(Build.VERSION.RELEASE)
+                .append(" (API ").append(String.valueOf(Build.VERSION.SDK_INT)).append(")\n");
+        out.append("# app\t").append(appVersion(context)).append('\n');
+        out.append("# since\t").append(dateFormat.format(new Date(metrics.getSince()))).append('\n');
+        out.append("# sampled\t1/").append(String.valueOf(StatementStats.SAMPLE_INTERVAL)).append(" task calls\n");
+        out.append(COLUMNS).append('\n');
+        for (QueryMetrics.Entry entry : metrics.getEntries()) {
+            StatementStats stats = entry.stats;
+            out.append(entry.screen).append('\t')
+                    .append(entry.statement.replaceAll("\\s+", " ").trim()).append('\t')
+                    .append(String.valueOf(stats.getCalls())).append('\t')
+                    .append(String.valueOf(stats.getTimedCalls())).append('\t')
+                    .append(micros(stats.getPercentileMicros(50))).append('\t')
+                    .append(micros(stats.getPercentileMicros(95))).append('\t')
+                    .append(micros(stats.getPercentileMicros(99))).append('\t')
+                    .append(String.valueOf(stats.getMeanMicros())).append('\t')
+                    .append(String.valueOf(stats.getRows())).append('\t')
+                    .append(String.valueOf(stats.getErrors())).append('\n');
+        }
+    }
+
+    /**
+     * Write the current metrics to a new file in the app's external files
+     * @return The file, under metrics/ and named after the current time
+     */
+    public static File writeToFile(Context context) throws IOException {
+        File dir = context.getExternalFilesDir("metrics");
+        if (dir == null) {
+            throw new IOException("External storage unavailable");
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date());
+        File file = new File(dir, "query-metrics-" + stamp + ".tsv");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            write(context, writer);
+        }
+        return file;
+    }
+
+    /**
+     * Bucket bounds are powers of two; the open last bucket is written as "inf"
+     */
+    private static String micros(long bound) {
+        return bound == Long.MAX_VALUE ? "inf" : String.valueOf(bound);
+    }
+
+    private static String appVersion(Context context) {
+        try {
+            return context.getPackageManager()
+                    .getPackageInfo(context.getPackageName(), 0).versionName;
+        } catch (PackageManager.NameNotFoundException e) {
+            return "?";
+        }
+    }
+}
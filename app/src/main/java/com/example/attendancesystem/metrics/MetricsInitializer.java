@@ -0,0 +1,32 @@
+package com.example.attendancesystem.metrics;
+
+import android.app.Application;
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.startup.Initializer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Starts attributing database metrics to screens at process start
+ * Runs before DatabaseInitializer, which depends on it, so its queries are attributed too.
+ */
+public class MetricsInitializer implements Initializer<QueryMetrics> {
+
+    @NonNull
+    @Override
+    public QueryMetrics create(@NonNull Context context) {
+        QueryMetrics metrics = QueryMetrics.getInstance();
+        ((Application) context.getApplicationContext())
+                .registerActivityLifecycleCallbacks(new ScreenTracker(metrics));
+        return metrics;
+    }
+
+    @NonNull
+    @Override
+    public List<Class<? extends Initializer<?>>> dependencies() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.attendancesystem.metrics;
+
+import android.os.SystemClock;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process-wide registry of database metrics
+ *
+ * Holds the {@link StatementStats} of every SQL statement per calling screen. Statements are
+ * reported by Room's query callback as they start, on the thread running them. The database
+ * executors mark where each of their tasks begins and ends (see AppExecutors), so a statement
+ * run by a task is timed until the next statement of that task or the task's end, which is
+ * when the query actually runs, however the result is consumed. The task's result gives the
+ * row count: the size of a list or array, the value of an int (rows affected by an update or
+ * delete, or a count), and 1 for another object, including a long row ID. It is credited to
+ * the last statement of the task other than transaction control, like a failure is.
+ * Statements run outside a task are counted as untimed.
+ *
+ * Lookups go through concurrent maps keyed by the SQL strings Room already holds, so recording
+ * allocates only on a statement's first run from a screen.
+ */
+public final class QueryMetrics {
+
+    /**
+     * Screen reported for statements run while no activity is resumed
+     */
+    public static final String NO_SCREEN = "-";
+
+    /**
+     * Statistics of one SQL statement run from one screen
+     */
+    public static final class Entry {
+        public final String screen;
+        public final String statement;
+        public final StatementStats stats;
+
+        Entry(String screen, String statement, StatementStats stats) {
+            this.screen = screen;
+            this.statement = statement;
+            this.stats = stats;
+        }
+    }
+
+    /**
+     * Statement being run by the task on a thread
+     */
+    private static final class TaskTrace {
+        boolean active;
+        StatementStats running;
+        // 0 if the running statement is not timed
+        long runningSince;
+        StatementStats lastData;
+
+        void finishRunning() {
+            if (running != null && runningSince != 0) {
+                running.recordLatency(SystemClock.elapsedRealtimeNanos() - runningSince);
+            }
+            running = null;
+        }
+    }
+
+    private static final QueryMetrics INSTANCE = new QueryMetrics();
+
+    // ConcurrentMap#putIfAbsent rather than computeIfAbsent, which needs API 24
+    private final ConcurrentMap<String, ConcurrentMap<String, StatementStats>> statsByStatement = new ConcurrentHashMap<>();
+    private final ThreadLocal<TaskTrace> traces = new ThreadLocal<TaskTrace>() {
+        @Override
+        protected TaskTrace initialValue() {
+            return new TaskTrace();
+        }
+    };
+    private volatile String currentScreen = NO_SCREEN;
+    private volatile long since = System.currentTimeMillis();
+
+    private QueryMetrics() {
+    }
+
+    public static QueryMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Set the screen statements are attributed to, see ScreenTracker
+     */
+    void setCurrentScreen(String screen) {
+        currentScreen = screen;
+    }
+
+    public String getCurrentScreen() {
+        return currentScreen;
+    }
+
+    /**
+     * Statistics of a statement run from the current screen
+     * @param statement The SQL, as given to Room's query callback
+     */
+    StatementStats statsFor(String statement) {
+        String screen = currentScreen;
+        ConcurrentMap<String, StatementStats> byScreen = statsByStatement.get(statement);
+        if (byScreen == null) {
+            ConcurrentMap<String, StatementStats> created = new ConcurrentHashMap<>();
+            byScreen = statsByStatement.putIfAbsent(statement, created);
+            if (byScreen == null) {
+                byScreen = created;
+            }
+        }
+        StatementStats stats = byScreen.get(screen);
+        if (stats == null) {
+            StatementStats created = new StatementStats();
+            stats = byScreen.putIfAbsent(screen, created);
+            if (stats == null) {
+                stats = created;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Record the start of a statement, from Room's query callback on the running thread
+     */
+    public void onStatement(String sql) {
+        StatementStats stats = statsFor(sql);
+        TaskTrace trace = traces.get();
+        if (!trace.active) {
+            stats.recordUntimedCall();
+            return;
+        }
+        trace.finishRunning();
+        trace.running = stats;
+        trace.runningSince = stats.startCall() ? SystemClock.elapsedRealtimeNanos() : 0;
+        if (!isTransactionControl(sql)) {
+            trace.lastData = stats;
+        }
+    }
+
+    /**
+     * Mark the start of a database task on the current thread
+     */
+    public void beginTask() {
+        TaskTrace trace = traces.get();
+        trace.active = true;
+        trace.running = null;
+        trace.lastData = null;
+    }
+
+    /**
+     * Mark the end of the task started with {@link #beginTask()} on the current thread
+     * @param result What the task returned, null if nothing
+     * @param error What the task threw, null if it completed
+     */
+    public void endTask(@Nullable Object result, @Nullable Throwable error) {
+        TaskTrace trace = traces.get();
+        if (!trace.active) {
+            return;
+        }
+        trace.finishRunning();
+        if (trace.lastData != null) {
+            if (error != null) {
+                trace.lastData.recordError();
+            } else if (result != null) {
+                trace.lastData.recordRows(rowsOf(result));
+            }
+        }
+        trace.active = false;
+        trace.lastData = null;
+    }
+
+    private static boolean isTransactionControl(String sql) {
+        // As reported by Room: BEGIN ... TRANSACTION, TRANSACTION SUCCESSFUL, END TRANSACTION
+        return sql.startsWith("BEGIN") || sql.startsWith("END") || sql.startsWith("TRANSACTION")
+                || sql.startsWith("COMMIT") || sql.startsWith("ROLLBACK");
+    }
+
+    private static long rowsOf(Object result) {
+        if (result instanceof Integer) {
+            return (Integer) result;
+        } else if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        } else if (result instanceof long[]) {
+            return ((long[]) result).length;
+        } else if (result instanceof int[]) {
+            return ((int[]) result).length;
+        }
+        return 1;
+    }
+
+    /**
+     * @return Every recorded statement and screen, most time spent first (estimated from the samples)
+     */
+    public List<Entry> getEntries() {
+        List<Entry> entries = new ArrayList<>();
+        for (Map.Entry<String, ConcurrentMap<String, StatementStats>> statement : statsByStatement.entrySet()) {
+            for (Map.Entry<String, StatementStats> screen : statement.getValue().entrySet()) {
+                entries.add(new Entry(screen.getKey(), statement.getKey(), screen.getValue()));
+            }
+        }
+        Collections.sort(entries, (a, b) -> Long.compare(
+                b.stats.getMeanMicros() * b.stats.getTimedCalls(), a.stats.getMeanMicros() * a.stats.getTimedCalls()));
+        return entries;
+    }
+
+    /**
+     * @return When recording started or was last reset (epoch milliseconds)
+     */
+    public long getSince() {
+        return since;
+    }
+
+    /**
+     * Forget everything recorded so far
+     */
+    public void reset() {
+        statsByStatement.clear();
+        since = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.attendancesystem.metrics;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Attributes SQL statements to the screen the user is on
+ * The resumed activity stays the current screen until it stops, so queries it starts
+ * while another activity opens are still counted for it.
+ */
+final class ScreenTracker implements Application.ActivityLifecycleCallbacks {
+
+    private final QueryMetrics metrics;
+
+    ScreenTracker(QueryMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void onActivityResumed(@NonNull Activity activity) {
+        metrics.setCurrentScreen(activity.getClass().getSimpleName());
+    }
+
+    @Override
+    public void onActivityStopped(@NonNull Activity activity) {
+        if (activity.getClass().getSimpleName().equals(metrics.getCurrentScreen())) {
+            metrics.setCurrentScreen(QueryMetrics.NO_SCREEN);
+        }
+    }
+
+    @Override
+    public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+    }
+
+    @Override
+    public void onActivityStarted(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivityPaused(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+    }
+
+    @Override
+    public void onActivityDestroyed(@NonNull Activity activity) {
+    }
+}
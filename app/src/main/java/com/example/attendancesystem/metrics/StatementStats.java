@@ -0,0 +1,145 @@
+package com.example.attendancesystem.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters of one SQL statement run from one screen
+ *
+ * Every run is counted. Of the runs inside a database task, one in {@link #SAMPLE_INTERVAL}
+ * (starting with the first) is timed into a latency histogram whose bucket i holds latencies
+ * below 2^i microseconds; runs outside a task are only counted, see QueryMetrics.
+ * All counters are atomics, so recording never takes a lock.
+ */
+public final class StatementStats {
+
+    /**
+     * Calls per timed call
+     */
+    public static final int SAMPLE_INTERVAL = 4;
+
+    /**
+     * Histogram buckets; the last one also holds everything slower (about 4 s and up)
+     */
+    public static final int BUCKETS = 23;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong taskCalls = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong sampledNanos = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Count a run inside a database task
+     * @return true if this run should be timed
+     */
+    boolean startCall() {
+        calls.incrementAndGet();
+        return taskCalls.incrementAndGet() % SAMPLE_INTERVAL == 1;
+    }
+
+    /**
+     * Count a run outside any database task, which can't be timed
+     */
+    void recordUntimedCall() {
+        calls.incrementAndGet();
+    }
+
+    void recordLatency(long nanos) {
+        sampledNanos.addAndGet(nanos);
+        histogram.incrementAndGet(bucketOf(TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    void recordRows(long count) {
+        rows.addAndGet(count);
+    }
+
+    void recordError() {
+        errors.incrementAndGet();
+    }
+
+    static int bucketOf(long micros) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    /**
+     * Upper bound of a histogram bucket
+     * @return Microseconds, Long.MAX_VALUE for the last bucket
+     */
+    public static long bucketLimitMicros(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * Runs inside a database task, the ones the latencies are sampled from
+     */
+    public long getTimedCalls() {
+        return taskCalls.get();
+    }
+
+    /**
+     * Rows returned, counted or affected; see QueryMetrics for how results are counted
+     */
+    public long getRows() {
+        return rows.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * Copy of the latency histogram
+     * Buckets are read one by one, so a copy taken during calls may be off by those calls.
+     */
+    public long[] getHistogram() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = histogram.get(i);
+        }
+        return copy;
+    }
+
+    /**
+     * Mean latency of the timed calls
+     * @return Microseconds, 0 if no call was timed
+     */
+    public long getMeanMicros() {
+        long sampled = 0;
+        for (long count : getHistogram()) {
+            sampled += count;
+        }
+        return sampled == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(sampledNanos.get() / sampled);
+    }
+
+    /**
+     * Latency percentile of the timed calls, from the histogram
+     * @param percentile Between 0 and 100
+     * @return Upper bound in microseconds of the bucket holding the percentile, 0 if no call was timed
+     */
+    public long getPercentileMicros(double percentile) {
+        long[] counts = getHistogram();
+        long sampled = 0;
+        for (long count : counts) {
+            sampled += count;
+        }
+        if (sampled == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(sampled * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return bucketLimitMicros(i);
+            }
+        }
+        return bucketLimitMicros(BUCKETS - 1);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.attendancesystem.model;
+
+/**
+ * A student attending too few sessions of one of their classes
+ * Row of AttendanceDao#getAtRiskStudents
+ */
+public class AtRiskStudent {
+    public int studentId;
+    public String studentName;
+    public String studentNumber;
+    public int classId;
+    public String courseName;
+    public int presentCount;
+    public int absentCount;
+
+    public int getTotalCount() {
+        return presentCount + absentCount;
+    }
+
+    /**
+     * @return Percentage of the sessions attended, between 0 and 100
+     */
+    public double getPercentage() {
+        int total = getTotalCount();
+        return total > 0 ? presentCount * 100.0 / total : 0.0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.attendancesystem.model;
+
+/**
+ * Present and absent record totals of a class, summed over all of its sessions
+ */
+public class ClassAttendanceTotals {
+    public int presentCount;
+    public int absentCount;
+
+    public ClassAttendanceTotals(int presentCount, int absentCount) {
+        this.presentCount = presentCount;
+        this.absentCount = absentCount;
+    }
+
+    public int getTotalCount() {
+        return presentCount + absentCount;
+    }
+}
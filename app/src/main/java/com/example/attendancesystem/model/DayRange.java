@@ -0,0 +1,60 @@
+package com.example.attendancesystem.model;
+
+import com.example.attendancesystem.util.SessionDays;
+
+import java.util.Calendar;
+
+/**
+ * An inclusive range of session days (epoch days, see SessionDays)
+ */
+public class DayRange {
+    public final long fromDay;
+    public final long toDay;
+
+    public DayRange(long fromDay, long toDay) {
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+    }
+
+    /**
+     * @return A range covering every session
+     */
+    public static DayRange all() {
+        return new DayRange(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param weeks Number of weeks
+     * @return The last weeks up to and including today
+     */
+    public static DayRange lastWeeks(int weeks) {
+        long today = SessionDays.today();
+        return new DayRange(today - weeks * 7L + 1, today);
+    }
+
+    /**
+     * The current academic term, up to and including today
+     * The first term starts on 1 Mehr (23 September) and the second on 15 Bahman (4 February).
+     * @return Range from the first day of the current term to today
+     */
+    public static DayRange currentTerm() {
+        Calendar now = Calendar.getInstance();
+        int year = now.get(Calendar.YEAR);
+        long today = SessionDays.today();
+        long firstTermStart = SessionDays.fromDate(year, Calendar.SEPTEMBER, 23);
+        long secondTermStart = SessionDays.fromDate(year, Calendar.FEBRUARY, 4);
+        long start;
+        if (today >= firstTermStart) {
+            start = firstTermStart;
+        } else if (today >= secondTermStart) {
+            start = secondTermStart;
+        } else {
+            start = SessionDays.fromDate(year - 1, Calendar.SEPTEMBER, 23);
+        }
+        return new DayRange(start, today);
+    }
+
+    public boolean isAll() {
+        return fromDay == Long.MIN_VALUE && toDay == Long.MAX_VALUE;
+    }
+}
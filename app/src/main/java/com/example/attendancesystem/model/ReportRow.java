@@ -0,0 +1,136 @@
+package com.example.attendancesystem.model;
+
+import android.content.Context;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+
+import com.example.attendancesystem.R;
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * One row of the attendance report, ready to display
+ * Every text is formatted and the percentage color resolved when the row is built
+ * (on a background thread), so binding a row only assigns fields to views.
+ */
+public final class ReportRow {
+
+    public final int studentId;
+    public final String name;
+    public final String studentNumberText;
+    public final String presentText;
+    public final String absentText;
+    public final String totalText;
+    public final String percentageText;
+    @ColorInt
+    public final int percentageColor;
+
+    private ReportRow(int studentId, String name, String studentNumberText, String presentText,
+                      String absentText, String totalText, String percentageText, int percentageColor) {
+        this.studentId = studentId;
+        this.name = name;
+        this.studentNumberText = studentNumberText;
+        this.presentText = presentText;
+        this.absentText = absentText;
+        this.totalText = totalText;
+        this.percentageText = percentageText;
+        this.percentageColor = percentageColor;
+    }
+
+    /**
+     * Compares the displayed values, for diffing
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReportRow)) {
+            return false;
+        }
+        ReportRow other = (ReportRow) o;
+        return studentId == other.studentId
+                && percentageColor == other.percentageColor
+                && Objects.equals(name, other.name)
+                && studentNumberText.equals(other.studentNumberText)
+                && presentText.equals(other.presentText)
+                && absentText.equals(other.absentText)
+                && percentageText.equals(other.percentageText);
+    }
+
+    @Override
+    public int hashCode() {
+        return studentId * 31 + percentageText.hashCode();
+    }
+
+    /**
+     * Builds report rows; holds the resources it needs, resolved once on the main thread
+     */
+    public static final class Formatter {
+
+        /** Percentages at or above this are shown in green */
+        private static final double GOOD_PERCENTAGE = 75;
+        /** Percentages at or above this (and below GOOD_PERCENTAGE) are shown in orange */
+        private static final double WARNING_PERCENTAGE = 50;
+
+        private final String studentNumberLabel;
+        private final int goodColor;
+        private final int warningColor;
+        private final int badColor;
+        private final Locale locale;
+
+        public Formatter(@NonNull Context context) {
+            studentNumberLabel = context.getString(R.string.report_student_number);
+            goodColor = ContextCompat.getColor(context, R.color.present_green);
+            warningColor = ContextCompat.getColor(context, android.R.color.holo_orange_dark);
+            badColor = ContextCompat.getColor(context, R.color.absent_red);
+            locale = Locale.getDefault();
+        }
+
+        /**
+         * Build the rows of a report, in the order of the given counts
+         * @param infos Counts of each student, as returned by the DAO
+         */
+        @NonNull
+        public List<ReportRow> format(@NonNull List<StudentAttendanceInfo> infos) {
+            // NumberFormat is not thread safe, one per report
+            NumberFormat percentageFormat = NumberFormat.getNumberInstance(locale);
+            percentageFormat.setMinimumFractionDigits(1);
+            percentageFormat.setMaximumFractionDigits(1);
+            List<ReportRow> rows = new ArrayList<>(infos.size());
+            for (StudentAttendanceInfo info : infos) {
+                rows.add(format(info, percentageFormat));
+            }
+            return rows;
+        }
+
+        private ReportRow format(StudentAttendanceInfo info, NumberFormat percentageFormat) {
+            int totalSessions = info.presentCount + info.absentCount;
+            double percentage = totalSessions > 0 ? (info.presentCount * 100.0 / totalSessions) : 0.0;
+            int color;
+            if (percentage >= GOOD_PERCENTAGE) {
+                color = goodColor;
+            } else if (percentage >= WARNING_PERCENTAGE) {
+                color = warningColor;
+            } else {
+                color = badColor;
+            }
+            String number = info.student.getStudentNumber();
+            return new ReportRow(
+                    info.student.getId(),
+                    info.student.getName(),
+                    studentNumberLabel + (number == null ? "-" : number),
+                    String.valueOf(info.presentCount),
+                    String.valueOf(info.absentCount),
+                    String.valueOf(totalSessions),
+                    percentageFormat.format(percentage) + "%",
+                    color);
+        }
+    }
+}
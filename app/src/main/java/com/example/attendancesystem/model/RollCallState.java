@@ -0,0 +1,166 @@
+package com.example.attendancesystem.model;
+
+import com.example.attendancesystem.entity.Attendance;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Attendance status of a whole roster during a roll call
+ *
+ * Positions follow the roster order (the order students are paged in), so the
+ * adapter can read and toggle a status by adapter position without boxing.
+ * Students are present unless their bit is set in the absent set.
+ */
+public class RollCallState {
+
+    private final int[] rosterIds;
+    private final BitSet absent;
+
+    // (studentId << 32 | position), sorted, for looking up positions by student ID
+    private final long[] positionsById;
+
+    /**
+     * Create a roll call where every student is present
+     * @param rosterIds Student IDs in roster order
+     */
+    public RollCallState(int[] rosterIds) {
+        this.rosterIds = rosterIds;
+        this.absent = new BitSet(rosterIds.length);
+        this.positionsById = new long[rosterIds.length];
+        for (int position = 0; position < rosterIds.length; position++) {
+            positionsById[position] = ((long) rosterIds[position] << 32) | position;
+        }
+        Arrays.sort(positionsById);
+    }
+
+    /**
+     * Create an empty roll call, used until the roster is loaded
+     */
+    public static RollCallState empty() {
+        return new RollCallState(new int[0]);
+    }
+
+    /**
+     * Create a roll call from the records of a session
+     * Students without a record are present
+     * @param rosterIds Student IDs in roster order
+     * @param records Attendance records of the session
+     */
+    public static RollCallState fromRecords(int[] rosterIds, List<Attendance> records) {
+        RollCallState state = new RollCallState(rosterIds);
+        for (Attendance record : records) {
+            if (!record.isPresent()) {
+                int position = state.positionOf(record.getStudentId());
+                if (position >= 0) {
+                    state.absent.set(position);
+                }
+            }
+        }
+        return state;
+    }
+
+    /**
+     * @return Number of students in the roster
+     */
+    public int size() {
+        return rosterIds.length;
+    }
+
+    /**
+     * @param position Roster position
+     * @return Student ID at that position
+     */
+    public int getStudentId(int position) {
+        return rosterIds[position];
+    }
+
+    /**
+     * Find the roster position of a student
+     * @param studentId Student ID
+     * @return Position, or -1 if the student is not in the roster
+     */
+    public int positionOf(int studentId) {
+        int low = 0;
+        int high = positionsById.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = (int) (positionsById[mid] >> 32);
+            if (midId < studentId) {
+                low = mid + 1;
+            } else if (midId > studentId) {
+                high = mid - 1;
+            } else {
+                return (int) positionsById[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check if the student at a position is present
+     * Positions outside the roster are present
+     * @param position Roster position
+     */
+    public boolean isPresent(int position) {
+        return !absent.get(position);
+    }
+
+    /**
+     * Set the status of the student at a position
+     * @param position Roster position
+     * @param isPresent The status to set
+     */
+    public void setPresent(int position, boolean isPresent) {
+        absent.set(position, !isPresent);
+    }
+
+    /**
+     * Toggle the status of the student at a position
+     * @param position Roster position
+     * @return The new status (true if present)
+     */
+    public boolean toggle(int position) {
+        absent.flip(position);
+        return !absent.get(position);
+    }
+
+    /**
+     * Mark every student as present or absent
+     * @param isPresent The status to set
+     */
+    public void markAll(boolean isPresent) {
+        if (isPresent) {
+            absent.clear();
+        } else {
+            absent.set(0, rosterIds.length);
+        }
+    }
+
+    /**
+     * Swap present and absent for every student
+     */
+    public void invert() {
+        absent.flip(0, rosterIds.length);
+    }
+
+    /**
+     * @return A copy of the roster, in roster order
+     */
+    public int[] copyStudentIds() {
+        return rosterIds.clone();
+    }
+
+    /**
+     * @return Status of every student, in roster order (true if present)
+     */
+    public boolean[] copyPresentStatuses() {
+        boolean[] presentStatuses = new boolean[rosterIds.length];
+        Arrays.fill(presentStatuses, true);
+        for (int position = absent.nextSetBit(0); position >= 0; position = absent.nextSetBit(position + 1)) {
+            presentStatuses[position] = false;
+        }
+        return presentStatuses;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.attendancesystem.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a roster import
+ * Only the first {@link #MAX_LISTED_ERRORS} rejected rows are listed; all are counted.
+ */
+public class RosterImportReport {
+
+    public static final int MAX_LISTED_ERRORS = 200;
+
+    /**
+     * A row that was not imported
+     */
+    public static class RowError {
+        public final int lineNumber;
+        public final String message;
+
+        public RowError(int lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+    }
+
+    public int insertedCount;
+    public int updatedCount;
+    public int unchangedCount;
+    public int rejectedCount;
+    public final List<RowError> errors = new ArrayList<>();
+
+    public void reject(int lineNumber, String message) {
+        rejectedCount++;
+        if (errors.size() < MAX_LISTED_ERRORS) {
+            errors.add(new RowError(lineNumber, message));
+        }
+    }
+
+    public int getImportedCount() {
+        return insertedCount + updatedCount + unchangedCount;
+    }
+}
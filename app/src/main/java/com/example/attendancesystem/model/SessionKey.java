@@ -0,0 +1,31 @@
+package com.example.attendancesystem.model;
+
+/**
+ * Identifies a class session by class and day
+ */
+public class SessionKey {
+    public int classId;
+    public long epochDay;
+
+    public SessionKey(int classId, long epochDay) {
+        this.classId = classId;
+        this.epochDay = epochDay;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SessionKey)) {
+            return false;
+        }
+        SessionKey other = (SessionKey) o;
+        return classId == other.classId && epochDay == other.epochDay;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * classId + (int) (epochDay ^ (epochDay >>> 32));
+    }
+}
@@ -1,13 +1,18 @@
 package com.example.attendancesystem.model;
 
+import androidx.room.Embedded;
+import androidx.room.Ignore;
+
 import com.example.attendancesystem.entity.Student;
 
 public class StudentAttendanceInfo {
+    @Embedded
     public Student student;
     public int presentCount;
     public int absentCount;
 
     // سازنده با آرگومان‌ها
+    @Ignore
     public StudentAttendanceInfo(Student student, int presentCount, int absentCount) {
         this.student = student;
         this.presentCount = presentCount;
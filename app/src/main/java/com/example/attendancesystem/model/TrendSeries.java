@@ -0,0 +1,107 @@
+package com.example.attendancesystem.model;
+
+import java.util.Arrays;
+
+/**
+ * Attendance of each session of a class, in ascending day order
+ * Stored in parallel primitive arrays so a series of hundreds of sessions is three arrays
+ * rather than an object per session. A series is mutable only through {@link #put}, used
+ * by the repository's cache; the copies handed out by {@link #copy()} are never changed.
+ */
+public final class TrendSeries {
+
+    private long[] days;
+    private int[] presentCounts;
+    private int[] totalCounts;
+    private int size;
+
+    public TrendSeries(int capacity) {
+        days = new long[Math.max(capacity, 1)];
+        presentCounts = new int[days.length];
+        totalCounts = new int[days.length];
+    }
+
+    private TrendSeries(long[] days, int[] presentCounts, int[] totalCounts, int size) {
+        this.days = days;
+        this.presentCounts = presentCounts;
+        this.totalCounts = totalCounts;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Session day at an index, see SessionDays
+     */
+    public long dayAt(int index) {
+        return days[index];
+    }
+
+    public int presentCountAt(int index) {
+        return presentCounts[index];
+    }
+
+    public int totalCountAt(int index) {
+        return totalCounts[index];
+    }
+
+    /**
+     * @return Fraction of the session's records that are present, between 0 and 1
+     */
+    public float rateAt(int index) {
+        return totalCounts[index] == 0 ? 0f : (float) presentCounts[index] / totalCounts[index];
+    }
+
+    /**
+     * Index of the first session on or after a day
+     * @return Between 0 and size()
+     */
+    public int lowerBound(long day) {
+        int index = Arrays.binarySearch(days, 0, size, day);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Add a session or replace the counts of an existing one, keeping the day order
+     * Sessions are usually saved for the latest day, so appending is the common case.
+     * A session without records is removed.
+     */
+    public void put(long day, int presentCount, int totalCount) {
+        int index = lowerBound(day);
+        boolean exists = index < size && days[index] == day;
+        if (totalCount == 0) {
+            if (exists) {
+                System.arraycopy(days, index + 1, days, index, size - index - 1);
+                System.arraycopy(presentCounts, index + 1, presentCounts, index, size - index - 1);
+                System.arraycopy(totalCounts, index + 1, totalCounts, index, size - index - 1);
+                size--;
+            }
+            return;
+        }
+        if (!exists) {
+            if (size == days.length) {
+                int capacity = Math.max(size * 2, 8);
+                days = Arrays.copyOf(days, capacity);
+                presentCounts = Arrays.copyOf(presentCounts, capacity);
+                totalCounts = Arrays.copyOf(totalCounts, capacity);
+            }
+            System.arraycopy(days, index, days, index + 1, size - index);
+            System.arraycopy(presentCounts, index, presentCounts, index + 1, size - index);
+            System.arraycopy(totalCounts, index, totalCounts, index + 1, size - index);
+            days[index] = day;
+            size++;
+        }
+        presentCounts[index] = presentCount;
+        totalCounts[index] = totalCount;
+    }
+
+    /**
+     * @return A series with the same sessions, trimmed to size
+     */
+    public TrendSeries copy() {
+        return new TrendSeries(Arrays.copyOf(days, size), Arrays.copyOf(presentCounts, size),
+                Arrays.copyOf(totalCounts, size), size);
+    }
+}
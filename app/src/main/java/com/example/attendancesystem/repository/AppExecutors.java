@@ -0,0 +1,238 @@
+package com.example.attendancesystem.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.attendancesystem.metrics.QueryMetrics;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors shared by the whole application
+ * 
+ * All database writes go through a single writer thread so they are serialized,
+ * while reads run on a small pool matching the reader connections SQLite keeps in WAL mode.
+ * Results are delivered back on the main thread. A failed operation is logged and
+ * reported through {@link DataCallback#onError}; it doesn't crash the app.
+ * Both database executors, which Room also uses for its own queries, tell QueryMetrics
+ * where each task begins and ends, so statements are timed while they actually run.
+ */
+public final class AppExecutors {
+
+    private static final String TAG = "AppExecutors";
+
+    /**
+     * Number of concurrent readers, matching the default WAL connection pool size
+     */
+    private static final int READER_THREADS = 4;
+
+    private static volatile AppExecutors instance;
+
+    private final ExecutorService diskWrite;
+    private final ExecutorService diskRead;
+    private final ExecutorService fileIo;
+    private final Executor mainThread;
+
+    private AppExecutors() {
+        diskWrite = new MeasuredExecutor(1, new NamedThreadFactory("db-writer"));
+        diskRead = new MeasuredExecutor(READER_THREADS, new NamedThreadFactory("db-reader"));
+        fileIo = Executors.newSingleThreadExecutor(new NamedThreadFactory("file-io"));
+        mainThread = new MainThreadExecutor();
+    }
+
+    /**
+     * Gets the singleton instance
+     * @return Shared executors
+     */
+    public static AppExecutors getInstance() {
+        if (instance == null) {
+            synchronized (AppExecutors.class) {
+                if (instance == null) {
+                    instance = new AppExecutors();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Single thread executor used for every database write
+     */
+    public ExecutorService diskWrite() {
+        return diskWrite;
+    }
+
+    /**
+     * Thread pool used for database reads
+     */
+    public ExecutorService diskRead() {
+        return diskRead;
+    }
+
+    /**
+     * Single thread for long file jobs that write through {@link #diskWrite()}, e.g. imports
+     * Such a job waits on the writer for most of its run; doing that on the reader pool, which
+     * is also Room's query executor, would take a reader away from paging and search meanwhile.
+     */
+    public ExecutorService fileIo() {
+        return fileIo;
+    }
+
+    /**
+     * Executor posting to the main (UI) thread
+     */
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    /**
+     * Run a query on the reader pool
+     * @param query The query to run
+     * @param callback Receives the result on the main thread, may be null
+     * @return Future that can be used to cancel the query; a cancelled query never calls back
+     */
+    public <T> Future<T> read(@NonNull Callable<T> query, @Nullable DataCallback<T> callback) {
+        return submit(diskRead, query, callback);
+    }
+
+    /**
+     * Run a write operation on the writer thread
+     * @param operation The operation to run
+     * @param callback Receives the result on the main thread, may be null
+     * @return Future of the operation
+     */
+    public <T> Future<T> writeForResult(@NonNull Callable<T> operation,
+                                        @Nullable DataCallback<T> callback) {
+        return submit(diskWrite, operation, callback);
+    }
+
+    /**
+     * Run a write operation without result on the writer thread
+     * @param operation The operation to run
+     * @param onComplete Run on the main thread once the operation is done, may be null;
+     *                   not run if the operation failed
+     * @return Future of the operation
+     */
+    public Future<Void> write(@NonNull Runnable operation, @Nullable Runnable onComplete) {
+        return submit(diskWrite, () -> {
+            operation.run();
+            return null;
+        }, onComplete == null ? null : result -> onComplete.run());
+    }
+
+    private <T> Future<T> submit(ExecutorService executor, Callable<T> task,
+                                 @Nullable DataCallback<T> callback) {
+        FutureTask<T> future = new FutureTask<T>(task) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    T result = get();
+                    if (callback != null) {
+                        mainThread.execute(() -> {
+                            if (!isCancelled()) {
+                                callback.onResult(result);
+                            }
+                        });
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    // A transient SQLite error (disk full, a constraint) reaches the caller
+                    // instead of taking the app down
+                    Throwable cause = e.getCause();
+                    Log.e(TAG, "Database task failed", cause);
+                    if (callback != null) {
+                        mainThread.execute(() -> {
+                            if (!isCancelled()) {
+                                callback.onError(cause);
+                            }
+                        });
+                    }
+                }
+            }
+        };
+        executor.execute(future);
+        return future;
+    }
+
+    /**
+     * Fixed thread pool reporting the start and end of each task to QueryMetrics
+     */
+    private static class MeasuredExecutor extends ThreadPoolExecutor {
+        private final QueryMetrics metrics = QueryMetrics.getInstance();
+
+        MeasuredExecutor(int threads, ThreadFactory threadFactory) {
+            super(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+        }
+
+        @Override
+        protected void beforeExecute(Thread thread, Runnable task) {
+            super.beforeExecute(thread, task);
+            metrics.beginTask();
+        }
+
+        @Override
+        protected void afterExecute(Runnable task, Throwable error) {
+            super.afterExecute(task, error);
+            Object result = null;
+            // Submitted tasks keep their outcome in the future, which is done by now
+            if (error == null && task instanceof Future && !((Future<?>) task).isCancelled()) {
+                try {
+                    result = ((Future<?>) task).get();
+                } catch (ExecutionException e) {
+                    error = e.getCause();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            metrics.endTask(result, error);
+        }
+    }
+
+    /**
+     * Executor posting tasks to the main looper
+     */
+    private static class MainThreadExecutor implements Executor {
+        private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            mainHandler.post(command);
+        }
+    }
+
+    /**
+     * Thread factory giving database threads recognizable names
+     */
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            return new Thread(runnable, prefix + "-" + count.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package com.example.attendancesystem.repository;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.InvalidationTracker;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.example.attendancesystem.dao.AttendanceDao;
+import com.example.attendancesystem.dao.AttendanceSql;
+import com.example.attendancesystem.dao.StudentDao;
+import com.example.attendancesystem.database.AppDatabase;
+import com.example.attendancesystem.database.AttendanceStatsIndex;
+import com.example.attendancesystem.entity.Attendance;
+import com.example.attendancesystem.entity.RollCallDraft;
+import com.example.attendancesystem.model.AtRiskStudent;
+import com.example.attendancesystem.model.AttendanceSummary;
+import com.example.attendancesystem.model.ClassAttendanceTotals;
+import com.example.attendancesystem.model.DayRange;
+import com.example.attendancesystem.model.ReportRow;
+import com.example.attendancesystem.model.RollCallState;
+import com.example.attendancesystem.model.SessionKey;
+import com.example.attendancesystem.model.StudentAttendanceInfo;
+import com.example.attendancesystem.model.TrendSeries;
+import com.example.attendancesystem.util.SessionDays;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous access to attendance records
+ * Reads run on the reader pool, writes on the single writer thread,
+ * and callbacks are delivered on the main thread
+ */
+public class AttendanceRepository {
+
+    /** Sessions older than this many days are considered finalized and may be packed */
+    public static final int FINALIZED_SESSION_AGE_DAYS = 30;
+
+    private static volatile AttendanceRepository instance;
+
+    private final AppDatabase database;
+    private final AttendanceDao attendanceDao;
+    private final StudentDao studentDao;
+    private final AppExecutors executors;
+
+    /**
+     * Last at-risk result with its parameters, dropped whenever a table it reads changes
+     */
+    private static final class AtRiskResult {
+        final int maxPercentage;
+        final int limit;
+        final List<AtRiskStudent> students;
+
+        AtRiskResult(int maxPercentage, int limit, List<AtRiskStudent> students) {
+            this.maxPercentage = maxPercentage;
+            this.limit = limit;
+            this.students = students;
+        }
+    }
+
+    private volatile AtRiskResult atRiskCache;
+    /** Bumped on every invalidation, so a query overtaken by a change isn't cached */
+    private final AtomicInteger atRiskGeneration = new AtomicInteger();
+    private final InvalidationTracker.Observer atRiskInvalidation =
+            new InvalidationTracker.Observer("attendance_stats", "enrollments", "students", "classes") {
+        @Override
+        public void onInvalidated(@NonNull Set<String> tables) {
+            atRiskGeneration.incrementAndGet();
+            atRiskCache = null;
+        }
+    };
+    private boolean atRiskObserved;
+
+    /** Session trend per class, extended in place when a session is saved (guarded by itself) */
+    private final Map<Integer, TrendSeries> trendByClass = new HashMap<>();
+    /** Bumped when a saved session can't extend a cached series, so a load overtaken by it isn't cached */
+    private int trendGeneration;
+    /** Deleting a student or class changes past sessions; dropping every series is simplest */
+    private final InvalidationTracker.Observer trendInvalidation =
+            new InvalidationTracker.Observer("students", "classes") {
+        @Override
+        public void onInvalidated(@NonNull Set<String> tables) {
+            synchronized (trendByClass) {
+                trendByClass.clear();
+                trendGeneration++;
+            }
+        }
+    };
+    private boolean trendObserved;
+
+    private final RollCallJournal rollCallJournal;
+
+    private AttendanceRepository(Context context) {
+        database = AppDatabase.getInstance(context);
+        attendanceDao = database.attendanceDao();
+        studentDao = database.studentDao();
+        executors = AppExecutors.getInstance();
+        rollCallJournal = new RollCallJournal(context, executors, this::writeDrafts);
+    }
+
+    /**
+     * Gets the singleton instance of the repository
+     * @param context Any context, the application context is retained
+     * @return Shared AttendanceRepository
+     */
+    public static AttendanceRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (AttendanceRepository.class) {
+                if (instance == null) {
+                    instance = new AttendanceRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    public Future<List<Attendance>> getAttendanceByClass(int classId,
+                                                         DataCallback<List<Attendance>> callback) {
+        return executors.read(() -> attendanceDao.getAttendanceByClass(classId), callback);
+    }
+
+    public Future<List<Attendance>> getAttendanceByStudent(int studentId,
+                                                           DataCallback<List<Attendance>> callback) {
+        return executors.read(() -> attendanceDao.getAttendanceByStudent(studentId), callback);
+    }
+
+    public Future<List<Attendance>> getAttendanceByClassAndDay(int classId, long epochDay,
+                                                               DataCallback<List<Attendance>> callback) {
+        return executors.read(() -> attendanceDao.getSessionAttendance(classId, epochDay), callback);
+    }
+
+    public Future<List<Long>> getClassSessionDays(int classId, DataCallback<List<Long>> callback) {
+        return executors.read(() -> attendanceDao.getClassSessionDays(classId), callback);
+    }
+
+    public Future<List<Long>> getClassSessionDays(int classId, DayRange range,
+                                                  DataCallback<List<Long>> callback) {
+        return executors.read(() -> attendanceDao.getClassSessionDaysBetween(classId, range.fromDay, range.toDay),
+                callback);
+    }
+
+    public Future<List<Attendance>> getAttendanceByClass(int classId, DayRange range,
+                                                         DataCallback<List<Attendance>> callback) {
+        return executors.read(() -> attendanceDao.getAttendanceByClassBetween(classId, range.fromDay, range.toDay),
+                callback);
+    }
+
+    public Future<List<Attendance>> getAttendanceByStudentAndClass(int studentId, int classId,
+                                                                   DataCallback<List<Attendance>> callback) {
+        return executors.read(() -> attendanceDao.getAttendanceByStudentAndClass(studentId, classId), callback);
+    }
+
+    public Future<List<AttendanceSummary>> getAttendanceSummary(int studentId, int classId,
+                                                                DataCallback<List<AttendanceSummary>> callback) {
+        return executors.read(() -> attendanceDao.getAttendanceSummary(studentId, classId), callback);
+    }
+
+    public Future<List<StudentAttendanceInfo>> getStudentAttendanceInfo(int classId,
+                                                                        DataCallback<List<StudentAttendanceInfo>> callback) {
+        return executors.read(() -> attendanceDao.getStudentAttendanceInfo(classId), callback);
+    }
+
+    /**
+     * Present/absent counts of the enrolled students of a class within a range of days
+     * The all-time range is served from attendance_stats without aggregation.
+     */
+    public Future<List<StudentAttendanceInfo>> getStudentAttendanceInfo(int classId, DayRange range,
+                                                                        DataCallback<List<StudentAttendanceInfo>> callback) {
+        if (range.isAll()) {
+            return getStudentAttendanceInfo(classId, callback);
+        }
+        return executors.read(() -> attendanceDao.getStudentAttendanceInfoBetween(classId, range.fromDay, range.toDay),
+                callback);
+    }
+
+    /**
+     * Report rows of the enrolled students of a class within a range of days
+     * The rows are formatted on the reader thread too, ordered by name then ID.
+     * @param formatter Builds the rows
+     */
+    public Future<List<ReportRow>> getReportRows(int classId, DayRange range, ReportRow.Formatter formatter,
+                                                 DataCallback<List<ReportRow>> callback) {
+        return executors.read(() -> formatter.format(range.isAll()
+                ? attendanceDao.getStudentAttendanceInfo(classId)
+                : attendanceDao.getStudentAttendanceInfoBetween(classId, range.fromDay, range.toDay)),
+                callback);
+    }
+
+    /**
+     * Students attending too few sessions of a class, across all classes
+     * The result is cached until attendance (through attendance_stats), enrollments, students
+     * or classes change, so reopening the dashboard doesn't query again.
+     * @param maxPercentage Only (student, class) pairs attending less than this percentage
+     * @param limit Maximum number of pairs
+     * @param callback Receives the pairs, lowest rate first; the list must not be modified
+     * @see AttendanceDao#getAtRiskStudents(int, int)
+     */
+    public Future<List<AtRiskStudent>> getAtRiskStudents(int maxPercentage, int limit,
+                                                         DataCallback<List<AtRiskStudent>> callback) {
+        return executors.read(() -> {
+            AtRiskResult cached = atRiskCache;
+            if (cached != null && cached.maxPercentage == maxPercentage && cached.limit == limit) {
+                return cached.students;
+            }
+            synchronized (atRiskInvalidation) {
+                if (!atRiskObserved) {
+                    database.getInvalidationTracker().addObserver(atRiskInvalidation);
+                    atRiskObserved = true;
+                }
+            }
+            int generation = atRiskGeneration.get();
+            List<AtRiskStudent> students =
+                    Collections.unmodifiableList(attendanceDao.getAtRiskStudents(maxPercentage, limit));
+            if (atRiskGeneration.get() == generation) {
+                atRiskCache = new AtRiskResult(maxPercentage, limit, students);
+            }
+            return students;
+        }, callback);
+    }
+
+    /**
+     * Attendance of every session of a class, for the trend chart
+     * The series is loaded once per class with a grouped query and then kept up to date by
+     * {@link #upsertSession}, which adds or updates only the saved session.
+     * @param callback Receives a copy of the series, ascending day order
+     * @see AttendanceDao#getSessionTrendCursor(int)
+     */
+    public Future<TrendSeries> getSessionTrend(int classId, DataCallback<TrendSeries> callback) {
+        return executors.read(() -> {
+            int generation;
+            synchronized (trendByClass) {
+                if (!trendObserved) {
+                    database.getInvalidationTracker().addObserver(trendInvalidation);
+                    trendObserved = true;
+                }
+                TrendSeries cached = trendByClass.get(classId);
+                if (cached != null) {
+                    return cached.copy();
+                }
+                generation = trendGeneration;
+            }
+            TrendSeries series;
+            try (Cursor cursor = attendanceDao.getSessionTrendCursor(classId)) {
+                series = new TrendSeries(cursor.getCount());
+                while (cursor.moveToNext()) {
+                    series.put(cursor.getLong(0), cursor.getInt(1), cursor.getInt(2));
+                }
+            }
+            synchronized (trendByClass) {
+                if (generation == trendGeneration) {
+                    trendByClass.put(classId, series);
+                }
+                return series.copy();
+            }
+        }, callback);
+    }
+
+    /**
+     * Bring the cached trend of a class up to date after a session was saved (writer thread)
+     */
+    private void updateSessionTrend(int classId, long epochDay) {
+        TrendSeries series;
+        synchronized (trendByClass) {
+            series = trendByClass.get(classId);
+            if (series == null) {
+                trendGeneration++;
+                return;
+            }
+        }
+        ClassAttendanceTotals totals = attendanceDao.getSessionTotals(classId, epochDay);
+        synchronized (trendByClass) {
+            // Unless the series was dropped meanwhile
+            if (trendByClass.get(classId) == series) {
+                series.put(epochDay, totals.presentCount, totals.getTotalCount());
+            }
+        }
+    }
+
+    public Future<ClassAttendanceTotals> getClassTotals(int classId,
+                                                        DataCallback<ClassAttendanceTotals> callback) {
+        return executors.read(() -> attendanceDao.getClassTotals(classId), callback);
+    }
+
+    public Future<ClassAttendanceTotals> getClassTotals(int classId, DayRange range,
+                                                        DataCallback<ClassAttendanceTotals> callback) {
+        if (range.isAll()) {
+            return getClassTotals(classId, callback);
+        }
+        return executors.read(() -> attendanceDao.getClassTotalsBetween(classId, range.fromDay, range.toDay),
+                callback);
+    }
+
+    /**
+     * Write a whole roll call in a single transaction
+     * The cached trend of the class is then updated with the session's new counts.
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     * @param studentIds Students of the roll call
+     * @param presentStatuses Attendance status for each entry of studentIds
+     * @param onComplete Run on the main thread when done, may be null
+     */
+    public Future<Void> upsertSession(int classId, long epochDay, int[] studentIds, boolean[] presentStatuses,
+                                      @Nullable Runnable onComplete) {
+        return executors.write(() -> {
+            database.runInTransaction(() -> writeSession(classId, epochDay, studentIds, presentStatuses));
+            updateSessionTrend(classId, epochDay);
+        }, onComplete);
+    }
+
+    /**
+     * Write statuses of a session, within the caller's transaction (writer thread)
+     * The session is created if needed, and unpacked if packed. Existing records are updated
+     * in place and missing ones inserted, by an UPDATE and an INSERT OR IGNORE compiled once
+     * and rebound per student. INSERT ... ON CONFLICT DO UPDATE would take one statement, but
+     * it needs SQLite 3.24 (API 30) and minSdk is 23; INSERT OR REPLACE would delete and
+     * re-insert rows, firing the stats triggers twice.
+     * @param studentIds Students whose status is written
+     * @param presentStatuses Attendance status for each entry of studentIds
+     */
+    private void writeSession(int classId, long epochDay, int[] studentIds, boolean[] presentStatuses) {
+        attendanceDao.insertClassSession(classId, epochDay);
+        // A packed session is expanded back to rows before it is edited
+        attendanceDao.unpackSession(classId, epochDay);
+        if (studentIds.length == 0) {
+            return;
+        }
+
+        // Parameters are numbered by their first appearance, see AttendanceSql
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        SupportSQLiteStatement update = db.compileStatement(AttendanceSql.UPDATE_SESSION_STATUS);
+        SupportSQLiteStatement insert = db.compileStatement(AttendanceSql.INSERT_SESSION_STATUS);
+        update.bindLong(2, classId);
+        update.bindLong(3, epochDay);
+        insert.bindLong(2, classId);
+        insert.bindLong(3, epochDay);
+        for (int i = 0; i < studentIds.length; i++) {
+            long isPresent = presentStatuses[i] ? 1 : 0;
+            update.bindLong(1, isPresent);
+            update.bindLong(4, studentIds[i]);
+            if (update.executeUpdateDelete() == 0) {
+                insert.bindLong(1, studentIds[i]);
+                insert.bindLong(4, isPresent);
+                insert.executeInsert();
+            }
+        }
+    }
+
+    /**
+     * Load the roll call of a session for the students enrolled in the class
+     * Roster and records are read in one transaction, so positions match the paged class roster.
+     * Students without a record are present. Statuses recorded but not saved yet are applied
+     * on top: the drafts written behind, then the toggles still in the journal, including
+     * those restored after the process was killed.
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     * @param callback Receives the roll call on the main thread
+     */
+    public Future<RollCallState> loadRollCall(int classId, long epochDay, DataCallback<RollCallState> callback) {
+        return executors.read(() -> {
+            // Taken first: toggles written or saved meanwhile are then in the database, the overlay, or both
+            Map<Integer, Boolean> unwritten = rollCallJournal.getPending(classId, epochDay);
+            RollCallState rollCall = database.runInTransaction(() -> {
+                List<Integer> roster = studentDao.getStudentIdsByClass(classId);
+                int[] rosterIds = new int[roster.size()];
+                for (int i = 0; i < rosterIds.length; i++) {
+                    rosterIds[i] = roster.get(i);
+                }
+                RollCallState records = RollCallState.fromRecords(rosterIds,
+                        attendanceDao.getSessionAttendance(classId, epochDay));
+                for (RollCallDraft draft : attendanceDao.getRollCallDrafts(classId, epochDay)) {
+                    int position = records.positionOf(draft.getStudentId());
+                    if (position >= 0) {
+                        records.setPresent(position, draft.isPresent());
+                    }
+                }
+                return records;
+            });
+            for (Map.Entry<Integer, Boolean> status : unwritten.entrySet()) {
+                int position = rollCall.positionOf(status.getKey());
+                if (position >= 0) {
+                    rollCall.setPresent(position, status.getValue());
+                }
+            }
+            return rollCall;
+        }, callback);
+    }
+
+    /**
+     * Record roll call toggles as they happen
+     * They are journaled to a file at once, so neither a rotation nor a killed process loses
+     * them, and written behind in batches to roll_call_drafts. They only reach the attendance
+     * table when the roll call is saved.
+     * @param studentIds Students whose status changed
+     * @param presentStatuses New status of each entry of studentIds
+     */
+    public void recordRollCall(int classId, long epochDay, int[] studentIds, boolean[] presentStatuses) {
+        rollCallJournal.record(classId, epochDay, studentIds, presentStatuses);
+    }
+
+    /**
+     * Save the roll call of a session
+     * Its toggles were recorded with {@link #recordRollCall} and are mostly written behind
+     * already. The few still in the journal are written, then the drafts are promoted to
+     * records, in one transaction; then those toggles are dropped from the journal.
+     * @param classId The class ID
+     * @param epochDay The session day, see SessionDays
+     * @param callback Notified on the main thread when done or failed, may be null
+     * @see AttendanceDao#promoteRollCall(int, long)
+     */
+    public Future<Void> saveRollCall(int classId, long epochDay, @Nullable DataCallback<Void> callback) {
+        return executors.writeForResult(() -> {
+            Map<SessionKey, Map<Integer, Boolean>> unwritten = Collections.singletonMap(
+                    new SessionKey(classId, epochDay), rollCallJournal.getPending(classId, epochDay));
+            database.runInTransaction(() -> {
+                writeDrafts(unwritten);
+                attendanceDao.promoteRollCall(classId, epochDay);
+            });
+            rollCallJournal.onWritten(unwritten);
+            updateSessionTrend(classId, epochDay);
+            return null;
+        }, callback);
+    }
+
+    /**
+     * Write roll call toggles to roll_call_drafts in one transaction (writer thread)
+     * The insert is compiled once per batch and rebound per toggle.
+     * @param toggles Present status by session and student ID
+     */
+    private void writeDrafts(Map<SessionKey, Map<Integer, Boolean>> toggles) {
+        database.runInTransaction(() -> {
+            // Parameters are numbered by their first appearance, see AttendanceSql
+            SupportSQLiteStatement insert = database.getOpenHelper().getWritableDatabase()
+                    .compileStatement(AttendanceSql.INSERT_ROLL_CALL_DRAFT);
+            for (Map.Entry<SessionKey, Map<Integer, Boolean>> session : toggles.entrySet()) {
+                insert.bindLong(1, session.getKey().classId);
+                insert.bindLong(2, session.getKey().epochDay);
+                for (Map.Entry<Integer, Boolean> status : session.getValue().entrySet()) {
+                    insert.bindLong(3, status.getKey());
+                    insert.bindLong(4, status.getValue() ? 1 : 0);
+                    insert.executeInsert();
+                }
+            }
+        });
+    }
+
+    /**
+     * Recompute attendance_stats from attendance rows and packed sessions
+     * The triggers keep the table exact; this is a repair routine
+     * @param onComplete Run on the main thread when done, may be null
+     */
+    public Future<Void> rebuildAttendanceStats(@Nullable Runnable onComplete) {
+        return executors.write(() -> database.runInTransaction(() ->
+                AttendanceStatsIndex.rebuild(database.getOpenHelper().getWritableDatabase())), onComplete);
+    }
+
+    /**
+     * Pack finalized sessions into one bitmap row each
+     * @param onComplete Receives the number of packed sessions on the main thread, may be null
+     * @see AttendanceDao#packSessionsBefore(long)
+     */
+    public Future<Integer> compactFinalizedSessions(@Nullable DataCallback<Integer> onComplete) {
+        final long cutoffDay = SessionDays.today() - FINALIZED_SESSION_AGE_DAYS;
+        return executors.writeForResult(() -> attendanceDao.packSessionsBefore(cutoffDay), onComplete);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.attendancesystem.repository;
+
+import android.content.Context;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+
+import com.example.attendancesystem.dao.ClassCourseDao;
+import com.example.attendancesystem.dao.EnrollmentDao;
+import com.example.attendancesystem.database.AppDatabase;
+import com.example.attendancesystem.entity.ClassCourse;
+import com.example.attendancesystem.util.TextNormalizer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Asynchronous access to classes
+ * Reads run on the reader pool, writes on the single writer thread,
+ * and callbacks are delivered on the main thread
+ */
+public class ClassRepository {
+
+    /**
+     * Maximum number of search results
+     */
+    public static final int SEARCH_LIMIT = 200;
+
+    private static volatile ClassRepository instance;
+
+    private final AppDatabase database;
+    private final ClassCourseDao classCourseDao;
+    private final EnrollmentDao enrollmentDao;
+    private final AppExecutors executors;
+    private final DeletionService deletionService;
+
+    private ClassRepository(Context context) {
+        database = AppDatabase.getInstance(context);
+        classCourseDao = database.classCourseDao();
+        enrollmentDao = database.enrollmentDao();
+        executors = AppExecutors.getInstance();
+        deletionService = DeletionService.getInstance(context);
+    }
+
+    /**
+     * Gets the singleton instance of the repository
+     * @param context Any context, the application context is retained
+     * @return Shared ClassRepository
+     */
+    public static ClassRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (ClassRepository.class) {
+                if (instance == null) {
+                    instance = new ClassRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Observe all classes
+     * Observers are notified on the main thread, and only after the classes table changes
+     * @return LiveData of all classes
+     */
+    public LiveData<List<ClassCourse>> observeAllClasses() {
+        return classCourseDao.observeAllClasses();
+    }
+
+    public Future<List<ClassCourse>> getAllClasses(DataCallback<List<ClassCourse>> callback) {
+        return executors.read(classCourseDao::getAllClasses, callback);
+    }
+
+    public Future<ClassCourse> getClassById(int id, DataCallback<ClassCourse> callback) {
+        return executors.read(() -> classCourseDao.getClassById(id), callback);
+    }
+
+    /**
+     * Search classes by course or instructor name
+     * Every word of the query must prefix a word of the names;
+     * Persian/Arabic letter and digit variants match each other
+     * @param query Text typed by the user
+     * @param callback Receives at most {@link #SEARCH_LIMIT} classes, most relevant first
+     */
+    public Future<List<ClassCourse>> searchClasses(String query, DataCallback<List<ClassCourse>> callback) {
+        return executors.read(() -> {
+            String match = TextNormalizer.toPrefixMatchQuery(query);
+            if (match.isEmpty()) {
+                return Collections.<ClassCourse>emptyList();
+            }
+            return classCourseDao.searchClasses(match, TextNormalizer.normalize(query.trim()), SEARCH_LIMIT);
+        }, callback);
+    }
+
+    public Future<List<ClassCourse>> getClassesByInstructor(String instructorName,
+                                                            DataCallback<List<ClassCourse>> callback) {
+        return executors.read(() -> classCourseDao.getClassesByInstructor(instructorName), callback);
+    }
+
+    public Future<List<ClassCourse>> getClassesByDay(String day, DataCallback<List<ClassCourse>> callback) {
+        return executors.read(() -> classCourseDao.getClassesByDay(day), callback);
+    }
+
+    public Future<List<ClassCourse>> getClassesByStudent(int studentId, DataCallback<List<ClassCourse>> callback) {
+        return executors.read(() -> classCourseDao.getClassesByStudent(studentId), callback);
+    }
+
+    public Future<List<Integer>> getEnrolledStudentIds(int classId, DataCallback<List<Integer>> callback) {
+        return executors.read(() -> enrollmentDao.getEnrolledStudentIds(classId), callback);
+    }
+
+    /**
+     * Enroll and remove students of a class in a single transaction
+     * @param classId The class ID
+     * @param enrollIds Students to enroll
+     * @param unenrollIds Students to remove; their attendance records are kept
+     * @param onComplete Run on the main thread when done, may be null
+     */
+    public Future<Void> updateEnrollments(int classId, int[] enrollIds, int[] unenrollIds,
+                                          @Nullable Runnable onComplete) {
+        return executors.write(() -> database.runInTransaction(() -> {
+            enrollmentDao.enrollAll(classId, enrollIds);
+            enrollmentDao.unenrollAll(classId, unenrollIds);
+        }), onComplete);
+    }
+
+    public Future<Integer> getClassCount(DataCallback<Integer> callback) {
+        return executors.read(classCourseDao::getClassCount, callback);
+    }
+
+    public Future<Long> insert(ClassCourse classCourse, @Nullable DataCallback<Long> callback) {
+        return executors.writeForResult(() -> classCourseDao.insert(classCourse), callback);
+    }
+
+    public Future<Void> update(ClassCourse classCourse, @Nullable Runnable onComplete) {
+        return executors.write(() -> classCourseDao.update(classCourse.getId(), classCourse.getCourseName(),
+                classCourse.getInstructorName(), classCourse.getDay(), classCourse.getTime()), onComplete);
+    }
+
+    /**
+     * Delete a class together with its sessions and attendance records
+     * The class disappears at once; its records are purged in the background, see DeletionService
+     * @param classCourse The class to delete
+     * @param onComplete Run on the main thread once the class is hidden, may be null
+     */
+    public Future<Void> delete(ClassCourse classCourse, @Nullable Runnable onComplete) {
+        return deletionService.deleteClass(classCourse.getId(), onComplete);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.attendancesystem.repository;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Callback receiving the result of an asynchronous database operation on the main thread
+ * @param <T> Type of the result
+ */
+public interface DataCallback<T> {
+    void onResult(T result);
+
+    /**
+     * Called instead of {@link #onResult} when the operation failed, e.g. the disk is full
+     * The error is already logged; by default nothing else happens and the screen keeps what it shows.
+     * @param error The exception thrown by the operation
+     */
+    default void onError(@NonNull Throwable error) {
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.attendancesystem.repository;
+
+import android.content.Context;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.attendancesystem.dao.AttendanceDao;
+import com.example.attendancesystem.dao.ClassCourseDao;
+import com.example.attendancesystem.dao.EnrollmentDao;
+import com.example.attendancesystem.dao.StudentDao;
+import com.example.attendancesystem.database.AppDatabase;
+
+import java.util.concurrent.Future;
+
+/**
+ * Deletes classes and students without holding the writer thread for long
+ *
+ * Deleting sets a tombstone on the class or student in one short transaction, which also
+ * drops its enrollments and statistics, so every query stops returning it at once. A
+ * student's packed roster entries go in that transaction too, since packed totals can't
+ * filter them out. The attendance records and sessions are then purged a chunk per
+ * transaction, each chunk queued behind the writes already waiting, and the row itself goes
+ * last. Tombstones left behind by a killed process are purged by {@link #resumePurge()}.
+ */
+public class DeletionService {
+
+    /**
+     * Attendance records or sessions deleted per transaction
+     */
+    private static final int CHUNK_SIZE = 2000;
+
+    /**
+     * Progress of the running purge, across every pending tombstone
+     */
+    public static final class Progress {
+        /** Attendance records purged so far */
+        public final int purgedRecords;
+        /** Attendance records purged so far plus those still pending */
+        public final int totalRecords;
+
+        Progress(int purgedRecords, int totalRecords) {
+            this.purgedRecords = purgedRecords;
+            this.totalRecords = Math.max(purgedRecords, totalRecords);
+        }
+    }
+
+    private static volatile DeletionService instance;
+
+    private final AppDatabase database;
+    private final ClassCourseDao classCourseDao;
+    private final StudentDao studentDao;
+    private final AttendanceDao attendanceDao;
+    private final EnrollmentDao enrollmentDao;
+    private final AppExecutors executors;
+    private final MutableLiveData<Progress> progress = new MutableLiveData<>(null);
+
+    // Purge state, only touched on the writer thread
+    private boolean purging;
+    private int purgedRecords;
+    private int totalRecords;
+
+    private DeletionService(Context context) {
+        database = AppDatabase.getInstance(context);
+        classCourseDao = database.classCourseDao();
+        studentDao = database.studentDao();
+        attendanceDao = database.attendanceDao();
+        enrollmentDao = database.enrollmentDao();
+        executors = AppExecutors.getInstance();
+    }
+
+    /**
+     * Gets the singleton instance of the service
+     * @param context Any context, the application context is retained
+     * @return Shared DeletionService
+     */
+    public static DeletionService getInstance(Context context) {
+        if (instance == null) {
+            synchronized (DeletionService.class) {
+                if (instance == null) {
+                    instance = new DeletionService(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Observe the background purge
+     * @return LiveData of the purge progress, null while no purge runs
+     */
+    public LiveData<Progress> getProgress() {
+        return progress;
+    }
+
+    /**
+     * Delete a class together with its sessions and attendance records
+     * @param classId The class ID
+     * @param onComplete Run on the main thread once the class is hidden, may be null;
+     *                   its records are purged afterwards
+     */
+    public Future<Void> deleteClass(int classId, @Nullable Runnable onComplete) {
+        return executors.write(() -> {
+            database.runInTransaction(() -> {
+                classCourseDao.markDeleted(classId);
+                enrollmentDao.deleteEnrollmentsByClass(classId);
+                attendanceDao.deleteStatsByClass(classId);
+            });
+            startPurge();
+        }, onComplete);
+    }
+
+    /**
+     * Delete a student together with their attendance records
+     * @param studentId The student ID
+     * @param onComplete Run on the main thread once the student is hidden, may be null;
+     *                   their records are purged afterwards
+     */
+    public Future<Void> deleteStudent(int studentId, @Nullable Runnable onComplete) {
+        return executors.write(() -> {
+            database.runInTransaction(() -> {
+                studentDao.markDeleted(studentId);
+                enrollmentDao.deleteEnrollmentsByStudent(studentId);
+                attendanceDao.deleteStatsByStudent(studentId);
+                for (int classId : attendanceDao.getClassIdsWithPackedSessions()) {
+                    attendanceDao.deleteStudentFromPackedSessions(classId, studentId);
+                }
+            });
+            startPurge();
+        }, onComplete);
+    }
+
+    /**
+     * Purge the tombstones a previous process didn't get to
+     * Call once at startup; does nothing if there are none or a purge is running.
+     */
+    public void resumePurge() {
+        executors.diskWrite().execute(this::startPurge);
+    }
+
+    /**
+     * Count what is left to purge and start purging unless already running (writer thread)
+     */
+    private void startPurge() {
+        totalRecords = purgedRecords + attendanceDao.countDeletedAttendance();
+        if (purging) {
+            progress.postValue(new Progress(purgedRecords, totalRecords));
+            return;
+        }
+        purging = true;
+        executors.diskWrite().execute(this::purgeNextChunk);
+    }
+
+    /**
+     * Purge one chunk, then queue the next one behind the writes submitted meanwhile (writer thread)
+     */
+    private void purgeNextChunk() {
+        int purged = database.runInTransaction(this::purgeChunk);
+        if (purged < 0) {
+            purging = false;
+            purgedRecords = 0;
+            totalRecords = 0;
+            progress.postValue(null);
+            return;
+        }
+        purgedRecords += purged;
+        progress.postValue(new Progress(purgedRecords, totalRecords));
+        executors.diskWrite().execute(this::purgeNextChunk);
+    }
+
+    /**
+     * Delete the next chunk of one tombstone: attendance records first, then a class's
+     * sessions, and finally the row itself
+     * @return Number of attendance records deleted, or -1 if no tombstone is left
+     */
+    private int purgeChunk() {
+        Integer classId = classCourseDao.getDeletedClassId();
+        if (classId != null) {
+            int purged = attendanceDao.deleteAttendanceChunkByClass(classId, CHUNK_SIZE);
+            if (purged == 0 && attendanceDao.deleteClassSessionsChunk(classId, CHUNK_SIZE) == 0) {
+                classCourseDao.purgeDeleted(classId);
+            }
+            return purged;
+        }
+
+        Integer studentId = studentDao.getDeletedStudentId();
+        if (studentId == null) {
+            return -1;
+        }
+        int purged = attendanceDao.deleteAttendanceChunkByStudent(studentId, CHUNK_SIZE);
+        if (purged == 0) {
+            studentDao.purgeDeleted(studentId);
+        }
+        return purged;
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.attendancesystem.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.attendancesystem.model.SessionKey;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Crash-safe write-behind journal of roll calls that are being taken
+ *
+ * Each toggle is kept in memory, coalesced per student, and appended as a fixed-size record
+ * to a small file on the journal's own thread, so it never waits behind a long database
+ * write. Records are synced in groups: a burst of toggles shares one fsync, issued
+ * {@link #SYNC_DELAY_MS} after the first of them. Pending toggles are written behind in
+ * one batch {@link #FLUSH_DELAY_MS} after the first one, to roll_call_drafts, which no
+ * trigger or report reads; saving the roll call then only promotes the drafts to
+ * attendance records. Once written, toggles are dropped and the file is rewritten with the
+ * rest. Toggles left in the file by a killed process are read back when the journal is
+ * created, and written behind like new ones.
+ *
+ * The file is only touched on the journal thread. Records are buffered, and the rewrite
+ * takes its snapshot, under the lock that guards the in-memory toggles, so the file always
+ * ends with the latest status. Replaying a record that is already superseded in the file
+ * is harmless: later records win.
+ */
+class RollCallJournal {
+
+    private static final String TAG = "RollCallJournal";
+    private static final String FILE_NAME = "roll_call.journal";
+
+    /** classId (int), epochDay (long), studentId (int), present (byte) */
+    private static final int RECORD_SIZE = 4 + 8 + 4 + 1;
+
+    /** Appended records are forced to disk this long after the first unsynced one */
+    private static final long SYNC_DELAY_MS = 100;
+
+    /** Pending toggles are written behind this long after the first one */
+    private static final long FLUSH_DELAY_MS = 2000;
+
+    /**
+     * Writes toggles to roll_call_drafts in one transaction (writer thread)
+     */
+    interface DraftWriter {
+        void writeDrafts(Map<SessionKey, Map<Integer, Boolean>> toggles);
+    }
+
+    private final File file;
+    private final AppExecutors executors;
+    private final DraftWriter draftWriter;
+    private final ScheduledExecutorService journalThread = Executors.newSingleThreadScheduledExecutor(
+            runnable -> new Thread(runnable, "roll-call-journal"));
+    private final CountDownLatch restored = new CountDownLatch(1);
+
+    // Guarded by pending: toggles not written to roll_call_drafts yet, by session and student ID,
+    // and the records appended since the last sync
+    private final Map<SessionKey, Map<Integer, Boolean>> pending = new HashMap<>();
+    private final ByteArrayOutputStream unsynced = new ByteArrayOutputStream();
+    private boolean syncScheduled;
+    private boolean flushScheduled;
+
+    // Journal thread only
+    private FileOutputStream journal;
+
+    RollCallJournal(Context context, AppExecutors executors, DraftWriter draftWriter) {
+        file = new File(context.getFilesDir(), FILE_NAME);
+        this.executors = executors;
+        this.draftWriter = draftWriter;
+        journalThread.execute(this::restore);
+    }
+
+    /**
+     * Record the status of some students in a session
+     * The records are on disk within {@link #SYNC_DELAY_MS}, without waiting for the writer thread.
+     * @param studentIds Students whose status changed
+     * @param presentStatuses New status of each entry of studentIds
+     */
+    void record(int classId, long epochDay, int[] studentIds, boolean[] presentStatuses) {
+        ByteBuffer records = ByteBuffer.allocate(studentIds.length * RECORD_SIZE);
+        for (int i = 0; i < studentIds.length; i++) {
+            records.putInt(classId).putLong(epochDay).putInt(studentIds[i]).put((byte) (presentStatuses[i] ? 1 : 0));
+        }
+        SessionKey key = new SessionKey(classId, epochDay);
+        synchronized (pending) {
+            Map<Integer, Boolean> statuses = pending.get(key);
+            if (statuses == null) {
+                statuses = new HashMap<>();
+                pending.put(key, statuses);
+            }
+            for (int i = 0; i < studentIds.length; i++) {
+                statuses.put(studentIds[i], presentStatuses[i]);
+            }
+            unsynced.write(records.array(), 0, records.position());
+            if (!syncScheduled) {
+                syncScheduled = true;
+                journalThread.schedule(this::sync, SYNC_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Statuses recorded for a session and not written to roll_call_drafts yet (background thread)
+     * Waits until the records of a previous process have been read back.
+     * @return Present status by student ID; a copy
+     */
+    Map<Integer, Boolean> getPending(int classId, long epochDay) {
+        awaitRestored();
+        synchronized (pending) {
+            Map<Integer, Boolean> statuses = pending.get(new SessionKey(classId, epochDay));
+            return statuses == null ? new HashMap<Integer, Boolean>() : new HashMap<>(statuses);
+        }
+    }
+
+    /**
+     * Drop toggles once they are written to the database
+     * Toggles recorded after {@code written} was taken, with another status, are kept.
+     * @param written Statuses that were written, by session and student ID
+     */
+    void onWritten(Map<SessionKey, Map<Integer, Boolean>> written) {
+        synchronized (pending) {
+            for (Map.Entry<SessionKey, Map<Integer, Boolean>> session : written.entrySet()) {
+                Map<Integer, Boolean> statuses = pending.get(session.getKey());
+                if (statuses == null) {
+                    continue;
+                }
+                for (Map.Entry<Integer, Boolean> status : session.getValue().entrySet()) {
+                    if (status.getValue().equals(statuses.get(status.getKey()))) {
+                        statuses.remove(status.getKey());
+                    }
+                }
+                if (statuses.isEmpty()) {
+                    pending.remove(session.getKey());
+                }
+            }
+            journalThread.execute(this::rewrite);
+        }
+    }
+
+    /**
+     * Queue a write-behind of every pending toggle, unless one is already scheduled
+     * Called with the pending lock held.
+     */
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            journalThread.schedule(() -> executors.diskWrite().execute(this::flush),
+                    FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Write every pending toggle to roll_call_drafts in one batch (writer thread)
+     * A failed batch stays pending and is retried with the next toggle.
+     */
+    private void flush() {
+        Map<SessionKey, Map<Integer, Boolean>> toggles = new HashMap<>();
+        synchronized (pending) {
+            flushScheduled = false;
+            for (Map.Entry<SessionKey, Map<Integer, Boolean>> session : pending.entrySet()) {
+                toggles.put(session.getKey(), new HashMap<>(session.getValue()));
+            }
+        }
+        if (toggles.isEmpty()) {
+            return;
+        }
+        try {
+            draftWriter.writeDrafts(toggles);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Writing roll call toggles behind failed", e);
+            return;
+        }
+        onWritten(toggles);
+    }
+
+    private void awaitRestored() {
+        try {
+            restored.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Read back the records of a previous process and queue their write-behind (journal thread)
+     */
+    private void restore() {
+        try {
+            if (file.length() >= RECORD_SIZE) {
+                byte[] bytes = new byte[(int) file.length()];
+                int read = 0;
+                try (FileInputStream in = new FileInputStream(file)) {
+                    int count;
+                    while (read < bytes.length && (count = in.read(bytes, read, bytes.length - read)) > 0) {
+                        read += count;
+                    }
+                }
+                // A record cut short by the kill is dropped
+                ByteBuffer records = ByteBuffer.wrap(bytes, 0, read - read % RECORD_SIZE);
+                synchronized (pending) {
+                    while (records.hasRemaining()) {
+                        SessionKey key = new SessionKey(records.getInt(), records.getLong());
+                        int studentId = records.getInt();
+                        boolean present = records.get() != 0;
+                        Map<Integer, Boolean> statuses = pending.get(key);
+                        if (statuses == null) {
+                            statuses = new HashMap<>();
+                            pending.put(key, statuses);
+                        }
+                        statuses.put(studentId, present);
+                    }
+                    if (!pending.isEmpty()) {
+                        scheduleFlush();
+                    }
+                }
+                Log.i(TAG, "Restored " + read / RECORD_SIZE + " unwritten roll call toggles");
+            }
+            journal = new FileOutputStream(file, true);
+        } catch (IOException e) {
+            Log.e(TAG, "Reading the roll call journal failed", e);
+        } finally {
+            restored.countDown();
+        }
+    }
+
+    /**
+     * Append the records buffered since the last sync and force them to disk (journal thread)
+     */
+    private void sync() {
+        byte[] records;
+        synchronized (pending) {
+            syncScheduled = false;
+            records = unsynced.toByteArray();
+            unsynced.reset();
+        }
+        if (journal == null || records.length == 0) {
+            return;
+        }
+        try {
+            journal.write(records);
+            journal.getFD().sync();
+        } catch (IOException e) {
+            Log.e(TAG, "Appending to the roll call journal failed", e);
+        }
+    }
+
+    /**
+     * Replace the file with the toggles still pending (journal thread)
+     * They include any record still buffered, which is dropped. Written to a temporary file
+     * first, so a kill meanwhile leaves the old journal whole.
+     */
+    private void rewrite() {
+        ByteBuffer records;
+        synchronized (pending) {
+            int count = 0;
+            for (Map<Integer, Boolean> statuses : pending.values()) {
+                count += statuses.size();
+            }
+            records = ByteBuffer.allocate(count * RECORD_SIZE);
+            for (Map.Entry<SessionKey, Map<Integer, Boolean>> session : pending.entrySet()) {
+                for (Map.Entry<Integer, Boolean> status : session.getValue().entrySet()) {
+                    records.putInt(session.getKey().classId).putLong(session.getKey().epochDay)
+                            .putInt(status.getKey()).put((byte) (status.getValue() ? 1 : 0));
+                }
+            }
+            unsynced.reset();
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                out.write(records.array());
+                out.getFD().sync();
+            }
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+            if (!temp.renameTo(file)) {
+                throw new IOException("Renaming " + temp + " failed");
+            }
+            journal = new FileOutputStream(file, true);
+        } catch (IOException e) {
+            Log.e(TAG, "Rewriting the roll call journal failed", e);
+            if (journal == null) {
+                try {
+                    journal = new FileOutputStream(file, true);
+                } catch (IOException reopen) {
+                    Log.e(TAG, "Reopening the roll call journal failed", reopen);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.attendancesystem.repository;
+
+import android.content.Context;
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.example.attendancesystem.R;
+import com.example.attendancesystem.dao.EnrollmentSql;
+import com.example.attendancesystem.dao.StudentSql;
+import com.example.attendancesystem.database.AppDatabase;
+import com.example.attendancesystem.model.RosterImportReport;
+import com.example.attendancesystem.util.CsvReader;
+import com.example.attendancesystem.util.TextNormalizer;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Imports students from a CSV file, optionally enrolling them in a class
+ * 
+ * Columns are name and student number, in that order, as in an exported report; further
+ * columns are ignored and a header row is skipped. The file is parsed incrementally on
+ * the file thread, leaving the reader pool to queries, and written in chunks, each in one
+ * transaction on the writer thread, so other writes can run between chunks. Students are
+ * upserted by student number through its unique index: a known number updates the name
+ * and a new one is inserted, even if another writer added it meanwhile. A number repeated
+ * within the file is rejected.
+ */
+public class RosterImporter {
+
+    /** Import into no class */
+    public static final int NO_CLASS = 0;
+
+    /** Rows written per transaction */
+    private static final int CHUNK_SIZE = 1000;
+
+    /**
+     * Receives the progress and outcome of an import on the main thread
+     * A cancelled import never calls back.
+     */
+    public interface Listener {
+        void onProgress(int rowsRead);
+
+        void onComplete(@NonNull RosterImportReport report);
+
+        void onError(@NonNull Exception error);
+    }
+
+    /**
+     * A parsed row waiting to be written
+     */
+    private static class Row {
+        final int lineNumber;
+        final String name;
+        final String studentNumber;
+
+        Row(int lineNumber, String name, String studentNumber) {
+            this.lineNumber = lineNumber;
+            this.name = name;
+            this.studentNumber = studentNumber;
+        }
+    }
+
+    private final Context context;
+    private final AppDatabase database;
+    private final AppExecutors executors;
+
+    public RosterImporter(Context context) {
+        this.context = context.getApplicationContext();
+        database = AppDatabase.getInstance(context);
+        executors = AppExecutors.getInstance();
+    }
+
+    /**
+     * Import a CSV roster in the background
+     * Chunks written before a cancellation or error stay imported.
+     * @param uri Document to read, e.g. from ActivityResultContracts.OpenDocument
+     * @param classId Class to enroll every imported student in, or {@link #NO_CLASS}
+     * @param listener Receives progress and the outcome on the main thread
+     * @return Future that can be used to cancel the import
+     */
+    public Future<?> importCsv(Uri uri, int classId, Listener listener) {
+        return executors.fileIo().submit(() -> {
+            try {
+                RosterImportReport report = readRoster(uri, classId, listener);
+                post(() -> listener.onComplete(report));
+            } catch (InterruptedIOException e) {
+                // Cancelled
+            } catch (IOException | RuntimeException e) {
+                post(() -> listener.onError(e));
+            }
+        });
+    }
+
+    private RosterImportReport readRoster(Uri uri, int classId, Listener listener) throws IOException {
+        RosterImportReport report = new RosterImportReport();
+        Map<String, Integer> linesByNumber = new HashMap<>();
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<String> fields = new ArrayList<>();
+        int rowsRead = 0;
+
+        try (InputStream in = context.getContentResolver().openInputStream(uri)) {
+            if (in == null) {
+                throw new FileNotFoundException(uri.toString());
+            }
+            CsvReader csv = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            boolean firstRecord = true;
+            while (csv.readRecord(fields)) {
+                int lineNumber = csv.getRecordLine();
+                if (fields.size() == 1 && fields.get(0).trim().isEmpty()) {
+                    continue;
+                }
+                String name = fields.get(0).trim();
+                String studentNumber = fields.size() > 1 ? TextNormalizer.normalize(fields.get(1).trim()) : "";
+                if (firstRecord) {
+                    firstRecord = false;
+                    if (isHeader(studentNumber)) {
+                        continue;
+                    }
+                }
+                rowsRead++;
+
+                if (name.isEmpty() || studentNumber.isEmpty()) {
+                    report.reject(lineNumber, context.getString(R.string.import_error_missing_fields));
+                    continue;
+                }
+                Integer firstLine = linesByNumber.put(studentNumber, lineNumber);
+                if (firstLine != null) {
+                    linesByNumber.put(studentNumber, firstLine);
+                    report.reject(lineNumber, context.getString(R.string.import_error_duplicate, firstLine));
+                    continue;
+                }
+                chunk.add(new Row(lineNumber, name, studentNumber));
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, classId, report);
+                    chunk.clear();
+                    post(progress(listener, rowsRead));
+                }
+            }
+        }
+        writeChunk(chunk, classId, report);
+        return report;
+    }
+
+    /**
+     * A header row has no digits where the student number should be
+     */
+    private static boolean isHeader(String studentNumber) {
+        for (int i = 0; i < studentNumber.length(); i++) {
+            if (Character.isDigit(studentNumber.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write a chunk in one transaction on the writer thread and wait for it
+     * Each row is inserted unless its number is taken, renamed otherwise, then enrolled.
+     * The three statements are compiled once per chunk and rebound per row; INSERT ... ON
+     * CONFLICT(studentNumber) DO UPDATE would save one, but it needs SQLite 3.24 (API 30)
+     * and minSdk is 23.
+     */
+    private void writeChunk(List<Row> chunk, int classId, RosterImportReport report) throws InterruptedIOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Future<?> write = executors.diskWrite().submit(() -> database.runInTransaction(() -> {
+            // Parameters are numbered by their first appearance: :name, then :studentNumber,
+            // and :classId, then :studentNumber for the enrollment
+            SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+            SupportSQLiteStatement insert = db.compileStatement(StudentSql.INSERT_OR_IGNORE);
+            SupportSQLiteStatement rename = db.compileStatement(StudentSql.RENAME_BY_NUMBER);
+            SupportSQLiteStatement enroll = null;
+            if (classId != NO_CLASS) {
+                enroll = db.compileStatement(EnrollmentSql.ENROLL_BY_NUMBER);
+                enroll.bindLong(1, classId);
+            }
+            for (Row row : chunk) {
+                insert.bindString(1, row.name);
+                insert.bindString(2, row.studentNumber);
+                // -1 when the number is taken and the insert was ignored
+                if (insert.executeInsert() != -1) {
+                    report.insertedCount++;
+                } else {
+                    rename.bindString(1, row.name);
+                    rename.bindString(2, row.studentNumber);
+                    if (rename.executeUpdateDelete() > 0) {
+                        report.updatedCount++;
+                    } else {
+                        report.unchangedCount++;
+                    }
+                }
+                if (enroll != null) {
+                    enroll.bindString(2, row.studentNumber);
+                    enroll.executeInsert();
+                }
+            }
+        }));
+        try {
+            write.get();
+        } catch (InterruptedException e) {
+            // The chunk in flight still completes; later ones are skipped
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import cancelled");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+    }
+
+    private static Runnable progress(Listener listener, int rowsRead) {
+        return () -> listener.onProgress(rowsRead);
+    }
+
+    private void post(Runnable callback) {
+        if (!Thread.currentThread().isInterrupted()) {
+            executors.mainThread().execute(callback);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.attendancesystem.repository;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+import androidx.room.InvalidationTracker;
+
+import com.example.attendancesystem.dao.StudentDao;
+import com.example.attendancesystem.database.AppDatabase;
+import com.example.attendancesystem.entity.Student;
+import com.example.attendancesystem.util.TextNormalizer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+/**
+ * Asynchronous access to students
+ * Reads run on the reader pool, writes on the single writer thread,
+ * and callbacks are delivered on the main thread
+ */
+public class StudentRepository {
+
+    /**
+     * Number of students loaded per page of a roster
+     */
+    private static final int PAGE_SIZE = 50;
+
+    /**
+     * Maximum number of search results
+     */
+    public static final int SEARCH_LIMIT = 200;
+
+    private static volatile StudentRepository instance;
+
+    private final AppDatabase database;
+    private final StudentDao studentDao;
+    private final AppExecutors executors;
+    private final DeletionService deletionService;
+
+    private StudentRepository(Context context) {
+        database = AppDatabase.getInstance(context);
+        studentDao = database.studentDao();
+        executors = AppExecutors.getInstance();
+        deletionService = DeletionService.getInstance(context);
+    }
+
+    /**
+     * Gets the singleton instance of the repository
+     * @param context Any context, the application context is retained
+     * @return Shared StudentRepository
+     */
+    public static StudentRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (StudentRepository.class) {
+                if (instance == null) {
+                    instance = new StudentRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get notified whenever the students table changes
+     * Driven by Room's invalidation tracker, so nothing is queried until a change is committed
+     * @param onChanged Run on the main thread after each change
+     * @return Handle to pass to {@link #removeObserver(InvalidationTracker.Observer)}
+     */
+    public InvalidationTracker.Observer observeStudentChanges(Runnable onChanged) {
+        InvalidationTracker.Observer observer = new InvalidationTracker.Observer("students") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                executors.mainThread().execute(onChanged);
+            }
+        };
+        database.getInvalidationTracker().addObserver(observer);
+        return observer;
+    }
+
+    /**
+     * Get notified whenever a class roster may have changed: students or enrollments
+     * @param onChanged Run on the main thread after each change
+     * @return Handle to pass to {@link #removeObserver(InvalidationTracker.Observer)}
+     */
+    public InvalidationTracker.Observer observeRosterChanges(Runnable onChanged) {
+        InvalidationTracker.Observer observer = new InvalidationTracker.Observer("students", "enrollments") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                executors.mainThread().execute(onChanged);
+            }
+        };
+        database.getInvalidationTracker().addObserver(observer);
+        return observer;
+    }
+
+    /**
+     * Stop notifications registered with {@link #observeStudentChanges(Runnable)}
+     * or {@link #observeRosterChanges(Runnable)}
+     * @param observer The handle returned on registration
+     */
+    public void removeObserver(InvalidationTracker.Observer observer) {
+        database.getInvalidationTracker().removeObserver(observer);
+    }
+
+    public Future<List<Student>> getAllStudents(DataCallback<List<Student>> callback) {
+        return executors.read(studentDao::getAllStudents, callback);
+    }
+
+    /**
+     * Get all students one page at a time, in roster order
+     * New pages are loaded on demand as the list scrolls, and the stream
+     * reloads by itself when the students table changes
+     * @return Stream of paged student lists
+     */
+    public LiveData<PagingData<Student>> getStudentsPaged() {
+        Pager<Integer, Student> pager = new Pager<>(
+                new PagingConfig(PAGE_SIZE), studentDao::getStudentsPaged);
+        return PagingLiveData.getLiveData(pager);
+    }
+
+    /**
+     * Get the students enrolled in a class, page by page, in roster order
+     * The stream reloads by itself when students or enrollments change
+     * @param classId The class ID
+     * @return Stream of paged class rosters
+     */
+    public LiveData<PagingData<Student>> getStudentsPagedByClass(int classId) {
+        Pager<Integer, Student> pager = new Pager<>(
+                new PagingConfig(PAGE_SIZE), () -> studentDao.getStudentsPagedByClass(classId));
+        return PagingLiveData.getLiveData(pager);
+    }
+
+    public Future<Student> getStudentById(int id, DataCallback<Student> callback) {
+        return executors.read(() -> studentDao.getStudentById(id), callback);
+    }
+
+    public Future<Student> getStudentByNumber(String studentNumber, DataCallback<Student> callback) {
+        return executors.read(() -> studentDao.getStudentByNumber(TextNormalizer.normalize(studentNumber)), callback);
+    }
+
+    /**
+     * Search students by name or student number
+     * Every word of the query must prefix a word of the name or number;
+     * Persian/Arabic letter and digit variants match each other
+     * @param query Text typed by the user
+     * @param callback Receives at most {@link #SEARCH_LIMIT} students, most relevant first
+     */
+    public Future<List<Student>> searchStudents(String query, DataCallback<List<Student>> callback) {
+        return executors.read(() -> {
+            String match = TextNormalizer.toPrefixMatchQuery(query);
+            if (match.isEmpty()) {
+                return Collections.<Student>emptyList();
+            }
+            return studentDao.searchStudents(match, TextNormalizer.normalize(query.trim()), SEARCH_LIMIT);
+        }, callback);
+    }
+
+    public Future<Integer> getStudentCount(DataCallback<Integer> callback) {
+        return executors.read(studentDao::getStudentCount, callback);
+    }
+
+    public Future<Long> insert(Student student, @Nullable DataCallback<Long> callback) {
+        return executors.writeForResult(() -> studentDao.insert(student), callback);
+    }
+
+    public Future<long[]> insertAll(List<Student> students, @Nullable DataCallback<long[]> callback) {
+        return executors.writeForResult(() -> studentDao.insertAll(students), callback);
+    }
+
+    public Future<Void> update(Student student, @Nullable Runnable onComplete) {
+        return executors.write(() -> studentDao.update(student.getId(), student.getName(),
+                TextNormalizer.normalize(student.getStudentNumber())), onComplete);
+    }
+
+    /**
+     * Add a student unless their student number is taken
+     * The number is normalized first, so Persian and Latin digits of one number collide
+     * @param name Student's full name
+     * @param studentNumber Student's identification number as typed
+     * @param callback Receives true if the student was added, false if the number is taken
+     */
+    public Future<Boolean> insertIfNew(String name, String studentNumber, @Nullable DataCallback<Boolean> callback) {
+        return executors.writeForResult(
+                () -> studentDao.insertIfNumberIsNew(name, TextNormalizer.normalize(studentNumber)), callback);
+    }
+
+    /**
+     * Change a student's name and number unless the number belongs to another student
+     * @param id The student ID
+     * @param name New full name
+     * @param studentNumber New identification number as typed
+     * @param callback Receives true if the student was updated, false if the number is taken
+     */
+    public Future<Boolean> updateIfNumberIsFree(int id, String name, String studentNumber,
+                                                @Nullable DataCallback<Boolean> callback) {
+        return executors.writeForResult(
+                () -> studentDao.updateIfNumberIsFree(id, name, TextNormalizer.normalize(studentNumber)) > 0, callback);
+    }
+
+    /**
+     * Delete a student together with their attendance records
+     * The student disappears at once; their records are purged in the background, see DeletionService
+     * @param student The student to delete
+     * @param onComplete Run on the main thread once the student is hidden, may be null
+     */
+    public Future<Void> delete(Student student, @Nullable Runnable onComplete) {
+        return deletionService.deleteStudent(student.getId(), onComplete);
+    }
+}
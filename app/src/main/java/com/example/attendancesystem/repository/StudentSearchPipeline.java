@@ -0,0 +1,207 @@
+package com.example.attendancesystem.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import com.example.attendancesystem.entity.Student;
+import com.example.attendancesystem.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * Turns search-box keystrokes into student searches
+ * 
+ * Queries are debounced, a newer query cancels the one in flight, and result sets are
+ * cached by normalized query. When a cached result for a shorter prefix of the query is
+ * complete (below the search limit), the new results are filtered from it in memory
+ * instead of querying the database. Results are only delivered for the latest query.
+ * Must be used from the main thread.
+ */
+public class StudentSearchPipeline {
+
+    /**
+     * Listener receiving search results on the main thread
+     */
+    public interface Listener {
+        void onResults(String query, List<Student> students);
+    }
+
+    /**
+     * Delay after the last keystroke before a query runs
+     */
+    private static final long DEBOUNCE_MS = 250;
+
+    /**
+     * Number of result sets kept
+     */
+    private static final int CACHE_SIZE = 32;
+
+    private final StudentRepository repository;
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final LruCache<String, List<Student>> cache = new LruCache<>(CACHE_SIZE);
+    private final Runnable pendingQueryTask = this::runPendingQuery;
+
+    private String pendingQuery;
+    private Future<List<Student>> inFlight;
+    private int generation;
+
+    public StudentSearchPipeline(StudentRepository repository, Listener listener) {
+        this.repository = repository;
+        this.listener = listener;
+    }
+
+    /**
+     * Search for a query once the user stops typing
+     * Any earlier query that has not delivered yet is dropped
+     * @param query Text typed by the user
+     */
+    public void submit(String query) {
+        cancel();
+        pendingQuery = query;
+        handler.postDelayed(pendingQueryTask, DEBOUNCE_MS);
+    }
+
+    /**
+     * Drop the pending query and cancel the one in flight
+     */
+    public void cancel() {
+        generation++;
+        handler.removeCallbacks(pendingQueryTask);
+        if (inFlight != null) {
+            inFlight.cancel(false);
+            inFlight = null;
+        }
+    }
+
+    /**
+     * Forget cached results, e.g. after students were modified
+     */
+    public void clearCache() {
+        cache.evictAll();
+    }
+
+    private void runPendingQuery() {
+        final String query = pendingQuery;
+        final String key = TextNormalizer.normalize(query.trim());
+
+        List<Student> cached = cache.get(key);
+        if (cached != null) {
+            listener.onResults(query, cached);
+            return;
+        }
+
+        List<Student> prefixResult = findCompletePrefixResult(key);
+        if (prefixResult != null) {
+            List<Student> filtered = filter(prefixResult, key);
+            cache.put(key, filtered);
+            listener.onResults(query, filtered);
+            return;
+        }
+
+        final int queryGeneration = generation;
+        inFlight = repository.searchStudents(query, students -> {
+            if (queryGeneration != generation) {
+                return;
+            }
+            inFlight = null;
+            cache.put(key, students);
+            listener.onResults(query, students);
+        });
+    }
+
+    /**
+     * Find the cached result of the longest shorter prefix that holds every match
+     * Every student matching the query also matches any prefix of it, so a complete
+     * result for a prefix is a superset of the query's result
+     */
+    private List<Student> findCompletePrefixResult(String key) {
+        List<Student> best = null;
+        int bestLength = 0;
+        for (Map.Entry<String, List<Student>> entry : cache.snapshot().entrySet()) {
+            String prefix = entry.getKey();
+            if (prefix.length() > bestLength && key.startsWith(prefix)
+                    && entry.getValue().size() < StudentRepository.SEARCH_LIMIT) {
+                best = entry.getValue();
+                bestLength = prefix.length();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Filter and order students the same way StudentDao.searchStudents does
+     */
+    private static List<Student> filter(List<Student> students, String key) {
+        List<String> queryTokens = lowerCase(TextNormalizer.tokenize(key));
+        List<Student> result = new ArrayList<>();
+        for (Student student : students) {
+            List<String> words = lowerCase(TextNormalizer.tokenize(
+                    TextNormalizer.normalize(student.getName() + " " + student.getStudentNumber())));
+            if (matchesAll(queryTokens, words)) {
+                result.add(student);
+            }
+        }
+        final String lowerKey = key.toLowerCase(Locale.ROOT);
+        // Written out: the Comparator combinators need API 24
+        Collections.sort(result, (a, b) -> {
+            int byRank = Integer.compare(rank(a, key, lowerKey), rank(b, key, lowerKey));
+            if (byRank != 0) {
+                return byRank;
+            }
+            int byName = compareNullsFirst(a.getName(), b.getName());
+            if (byName != 0) {
+                return byName;
+            }
+            return Integer.compare(a.getId(), b.getId());
+        });
+        return result;
+    }
+
+    private static int compareNullsFirst(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return a.compareTo(b);
+    }
+
+    private static int rank(Student student, String key, String lowerKey) {
+        if (key.equals(TextNormalizer.normalize(student.getStudentNumber()))) {
+            return 0;
+        }
+        String name = TextNormalizer.normalize(student.getName());
+        if (name != null && name.toLowerCase(Locale.ROOT).startsWith(lowerKey)) {
+            return 1;
+        }
+        return 2;
+    }
+
+    private static boolean matchesAll(List<String> queryTokens, List<String> words) {
+        for (String token : queryTokens) {
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(token)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> lowerCase(List<String> tokens) {
+        for (int i = 0; i < tokens.size(); i++) {
+            tokens.set(i, tokens.get(i).toLowerCase(Locale.ROOT));
+        }
+        return tokens;
+    }
+}
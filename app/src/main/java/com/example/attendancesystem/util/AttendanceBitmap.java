@@ -0,0 +1,118 @@
+package com.example.attendancesystem.util;
+
+/**
+ * Encoding of a packed attendance session
+ * 
+ * A packed session stores its roster as student IDs sorted ascending, four little-endian
+ * bytes each, and presence as a bitmap where bit i (byte i / 8, bit i % 8) is set when the
+ * student at roster position i was present. Lookups work directly on the encoded bytes.
+ */
+public final class AttendanceBitmap {
+
+    private AttendanceBitmap() {
+    }
+
+    /**
+     * Encode roster student IDs
+     * @param sortedIds Student IDs sorted ascending
+     * @return Encoded roster
+     */
+    public static byte[] encodeIds(int[] sortedIds) {
+        byte[] encoded = new byte[sortedIds.length * 4];
+        for (int i = 0; i < sortedIds.length; i++) {
+            int id = sortedIds[i];
+            int offset = i * 4;
+            encoded[offset] = (byte) id;
+            encoded[offset + 1] = (byte) (id >>> 8);
+            encoded[offset + 2] = (byte) (id >>> 16);
+            encoded[offset + 3] = (byte) (id >>> 24);
+        }
+        return encoded;
+    }
+
+    /**
+     * Number of students in an encoded roster
+     */
+    public static int size(byte[] rosterIds) {
+        return rosterIds.length / 4;
+    }
+
+    /**
+     * Student ID at a roster position
+     */
+    public static int idAt(byte[] rosterIds, int position) {
+        int offset = position * 4;
+        return (rosterIds[offset] & 0xFF)
+                | (rosterIds[offset + 1] & 0xFF) << 8
+                | (rosterIds[offset + 2] & 0xFF) << 16
+                | (rosterIds[offset + 3] & 0xFF) << 24;
+    }
+
+    /**
+     * Find the roster position of a student
+     * @param rosterIds Encoded roster
+     * @param studentId Student ID to look up
+     * @return Roster position, or -1 if the student is not in the roster
+     */
+    public static int indexOf(byte[] rosterIds, int studentId) {
+        int low = 0;
+        int high = size(rosterIds) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = idAt(rosterIds, mid);
+            if (id < studentId) {
+                low = mid + 1;
+            } else if (id > studentId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Create an empty presence bitmap
+     * @param size Number of students in the roster
+     */
+    public static byte[] newBitmap(int size) {
+        return new byte[(size + 7) / 8];
+    }
+
+    /**
+     * Mark the student at a roster position as present
+     */
+    public static void set(byte[] bitmap, int position) {
+        bitmap[position >>> 3] |= (byte) (1 << (position & 7));
+    }
+
+    /**
+     * Check whether the student at a roster position was present
+     */
+    public static boolean get(byte[] bitmap, int position) {
+        return (bitmap[position >>> 3] & (1 << (position & 7))) != 0;
+    }
+
+    /**
+     * Count present students, eight bytes at a time
+     */
+    public static int popcount(byte[] bitmap) {
+        int count = 0;
+        int i = 0;
+        for (; i + 8 <= bitmap.length; i += 8) {
+            long word = (bitmap[i] & 0xFFL)
+                    | (bitmap[i + 1] & 0xFFL) << 8
+                    | (bitmap[i + 2] & 0xFFL) << 16
+                    | (bitmap[i + 3] & 0xFFL) << 24
+                    | (bitmap[i + 4] & 0xFFL) << 32
+                    | (bitmap[i + 5] & 0xFFL) << 40
+                    | (bitmap[i + 6] & 0xFFL) << 48
+                    | (bitmap[i + 7] & 0xFFL) << 56;
+            count += Long.bitCount(word);
+        }
+        for (; i < bitmap.length; i++) {
+            count += Integer.bitCount(bitmap[i] & 0xFF);
+        }
+        return count;
+    }
+}
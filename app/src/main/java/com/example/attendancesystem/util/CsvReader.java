@@ -0,0 +1,144 @@
+package com.example.attendancesystem.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Incremental RFC 4180 CSV parser
+ * 
+ * Records are read one at a time from a buffered Reader, so memory use does not depend
+ * on the file size. Quoted fields may contain commas, doubled quotes and line breaks.
+ * A leading byte order mark is skipped; lines may end with CRLF or LF.
+ */
+public final class CsvReader implements Closeable {
+
+    /**
+     * Thrown for input that cannot be split into records, such as an unterminated quote
+     */
+    public static final class FormatException extends IOException {
+        public final int lineNumber;
+
+        FormatException(String message, int lineNumber) {
+            super(message + " (line " + lineNumber + ")");
+            this.lineNumber = lineNumber;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder field = new StringBuilder();
+    private int position;
+    private int limit;
+    private int line = 1;
+    private int recordLine;
+    private boolean started;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Read the next record
+     * @param fields Cleared, then filled with the fields of the record
+     * @return false at the end of the input
+     */
+    public boolean readRecord(List<String> fields) throws IOException {
+        fields.clear();
+        int c = read();
+        if (!started) {
+            started = true;
+            if (c == '\uFEFF') {
+                c = read();
+            }
+        }
+        if (c == -1) {
+            return false;
+        }
+        recordLine = line;
+        field.setLength(0);
+        while (true) {
+            if (c == -1) {
+                fields.add(field.toString());
+                return true;
+            } else if (c == '"' && field.length() == 0) {
+                readQuoted();
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                line++;
+                fields.add(field.toString());
+                return true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * @return Line number the last record read started on, 1-based
+     */
+    public int getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Append a quoted field up to its closing quote
+     */
+    private void readQuoted() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw new FormatException("Unterminated quoted field", recordLine);
+            } else if (c == '"') {
+                if (peek() != '"') {
+                    return;
+                }
+                read();
+                field.append('"');
+            } else {
+                if (c == '\n') {
+                    line++;
+                }
+                field.append((char) c);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int count = reader.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = count;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.attendancesystem.util;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Session day keys
+ * 
+ * A session is identified by its epoch day: the number of days since 1970-01-01 of the
+ * local calendar date it took place on. Any timestamp within a day maps to the same key,
+ * so a roll call taken at 10:00 and one picked as "that date" at midnight are one session,
+ * and consecutive days are consecutive integers for range queries.
+ */
+public final class SessionDays {
+
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private SessionDays() {
+    }
+
+    /**
+     * @param millis A timestamp
+     * @return The epoch day of its local calendar date
+     */
+    public static long toEpochDay(long millis) {
+        long localMillis = millis + TimeZone.getDefault().getOffset(millis);
+        long day = localMillis / DAY_MS;
+        // Round toward negative infinity for instants before 1970
+        return localMillis % DAY_MS < 0 ? day - 1 : day;
+    }
+
+    /**
+     * @param epochDay An epoch day
+     * @return Timestamp of local midnight at the start of that day
+     */
+    public static long toMillis(long epochDay) {
+        Calendar utc = Calendar.getInstance(UTC);
+        utc.setTimeInMillis(epochDay * DAY_MS);
+        Calendar local = Calendar.getInstance();
+        local.clear();
+        local.set(utc.get(Calendar.YEAR), utc.get(Calendar.MONTH), utc.get(Calendar.DAY_OF_MONTH));
+        return local.getTimeInMillis();
+    }
+
+    /**
+     * @param year Calendar year
+     * @param month Month, 0-based as in {@link Calendar#MONTH}
+     * @param dayOfMonth Day of the month, 1-based
+     * @return The epoch day of that date
+     */
+    public static long fromDate(int year, int month, int dayOfMonth) {
+        Calendar utc = Calendar.getInstance(UTC);
+        utc.clear();
+        utc.set(year, month, dayOfMonth);
+        return Math.round(utc.getTimeInMillis() / (double) DAY_MS);
+    }
+
+    /**
+     * @return The epoch day of the current local date
+     */
+    public static long today() {
+        return toEpochDay(System.currentTimeMillis());
+    }
+}
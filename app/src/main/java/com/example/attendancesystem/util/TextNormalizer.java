@@ -0,0 +1,125 @@
+package com.example.attendancesystem.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Normalizes Persian/Arabic text for searching
+ * 
+ * Arabic yeh and kaf are folded into their Persian forms, the zero-width non-joiner
+ * becomes a space and Persian/Arabic-Indic digits become ASCII digits. The same mapping
+ * is available as an SQL expression so triggers index exactly what queries look for.
+ */
+public final class TextNormalizer {
+
+    /**
+     * Characters replaced by normalization, and their replacements
+     */
+    private static final char[] FROM;
+    private static final char[] TO;
+
+    static {
+        StringBuilder from = new StringBuilder();
+        StringBuilder to = new StringBuilder();
+
+        // Arabic yeh (ي) and alef maksura (ى) -> Persian yeh (ی)
+        from.append('\u064A').append('\u0649');
+        to.append('\u06CC').append('\u06CC');
+
+        // Arabic kaf (ك) -> Persian keheh (ک)
+        from.append('\u0643');
+        to.append('\u06A9');
+
+        // Zero-width non-joiner separates words in Persian compounds
+        from.append('\u200C');
+        to.append(' ');
+
+        // Arabic-Indic and Persian digits -> ASCII digits
+        for (int i = 0; i < 10; i++) {
+            from.append((char) ('\u0660' + i)).append((char) ('\u06F0' + i));
+            to.append((char) ('0' + i)).append((char) ('0' + i));
+        }
+
+        FROM = from.toString().toCharArray();
+        TO = to.toString().toCharArray();
+    }
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Normalize text for indexing or searching
+     * @param text Text to normalize, may be null
+     * @return Normalized text, or null if text was null
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return null;
+        }
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            for (int j = 0; j < FROM.length; j++) {
+                if (chars[i] == FROM[j]) {
+                    chars[i] = TO[j];
+                    break;
+                }
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Build an SQL expression applying the same normalization as {@link #normalize(String)}
+     * @param expression SQL expression to normalize, e.g. a column name
+     * @return Nested replace() expression
+     */
+    public static String toSqlExpression(String expression) {
+        StringBuilder sql = new StringBuilder(expression);
+        for (int i = 0; i < FROM.length; i++) {
+            sql.insert(0, "replace(")
+                .append(", '").append(FROM[i]).append("', '").append(TO[i]).append("')");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Build a full-text MATCH query finding rows that contain every word of the input as a prefix
+     * @param query Text typed by the user
+     * @return MATCH expression, or an empty string if the input has no searchable words
+     */
+    public static String toPrefixMatchQuery(String query) {
+        List<String> tokens = tokenize(normalize(query));
+        StringBuilder match = new StringBuilder();
+        for (String token : tokens) {
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            // Quoted so words such as OR/NOT are never read as operators
+            match.append('"').append(token).append("*\"");
+        }
+        return match.toString();
+    }
+
+    /**
+     * Split text into words made of letters and digits
+     * @param text Text to split, may be null
+     * @return Words in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
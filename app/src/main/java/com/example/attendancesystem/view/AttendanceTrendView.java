@@ -0,0 +1,151 @@
+package com.example.attendancesystem.view;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.DashPathEffect;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import com.example.attendancesystem.R;
+import com.example.attendancesystem.model.TrendSeries;
+
+/**
+ * Line chart of the attendance rate of each session
+ *
+ * Sessions are spaced evenly from left to right, rates from 0% at the bottom to 100% at
+ * the top, with grid lines at 0, 50 and 100% and a dashed line at the at-risk threshold.
+ * Point coordinates are computed into float arrays when the series or the size changes,
+ * so drawing allocates nothing whatever the number of sessions.
+ */
+public class AttendanceTrendView extends View {
+
+    /** Rate of the dashed threshold line */
+    private static final float THRESHOLD_RATE = 0.75f;
+
+    private final Paint gridPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint thresholdPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint pointPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    /** Dashes are drawn from a path, drawLine ignores path effects on some hardware canvases */
+    private final Path thresholdPath = new Path();
+
+    @Nullable
+    private TrendSeries series;
+    private int from;
+    private int to;
+
+    /** x0, y0, x1, y1 of each segment, for Canvas#drawLines */
+    private float[] segments = new float[0];
+    /** x, y of each session, for Canvas#drawPoints */
+    private float[] points = new float[0];
+    private int pointCount;
+
+    public AttendanceTrendView(Context context) {
+        this(context, null);
+    }
+
+    public AttendanceTrendView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        float density = getResources().getDisplayMetrics().density;
+
+        gridPaint.setColor(ContextCompat.getColor(context, R.color.divider));
+        gridPaint.setStrokeWidth(density);
+
+        thresholdPaint.setColor(ContextCompat.getColor(context, R.color.absent_red));
+        thresholdPaint.setStrokeWidth(density);
+        thresholdPaint.setStyle(Paint.Style.STROKE);
+        thresholdPaint.setPathEffect(new DashPathEffect(new float[] {4 * density, 4 * density}, 0));
+
+        linePaint.setColor(ContextCompat.getColor(context, R.color.primary));
+        linePaint.setStrokeWidth(2 * density);
+        linePaint.setStrokeCap(Paint.Cap.ROUND);
+
+        pointPaint.setColor(ContextCompat.getColor(context, R.color.primary_dark));
+        pointPaint.setStrokeWidth(5 * density);
+        pointPaint.setStrokeCap(Paint.Cap.ROUND);
+    }
+
+    /**
+     * Show the sessions of a series within a range of days
+     * @param series The series, not modified afterwards; null to clear the chart
+     * @param fromDay First day shown (inclusive)
+     * @param toDay Last day shown (inclusive)
+     */
+    public void setSeries(@Nullable TrendSeries series, long fromDay, long toDay) {
+        this.series = series;
+        if (series == null) {
+            from = 0;
+            to = 0;
+        } else {
+            from = series.lowerBound(fromDay);
+            to = toDay == Long.MAX_VALUE ? series.size() : series.lowerBound(toDay + 1);
+        }
+        computePoints();
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        computePoints();
+    }
+
+    private void computePoints() {
+        thresholdPath.reset();
+        thresholdPath.moveTo(getPaddingLeft(), yOf(THRESHOLD_RATE));
+        thresholdPath.lineTo(getWidth() - getPaddingRight(), yOf(THRESHOLD_RATE));
+
+        pointCount = series == null ? 0 : to - from;
+        if (points.length < pointCount * 2) {
+            points = new float[pointCount * 2];
+            segments = new float[Math.max(pointCount - 1, 0) * 4];
+        }
+        if (pointCount == 0) {
+            return;
+        }
+        float left = getPaddingLeft();
+        float width = getWidth() - getPaddingLeft() - getPaddingRight();
+        // A single session is drawn in the middle
+        float step = pointCount > 1 ? width / (pointCount - 1) : 0;
+        float offset = pointCount > 1 ? 0 : width / 2;
+        for (int i = 0; i < pointCount; i++) {
+            // Sessions run left to right whatever the layout direction, like the dates they stand for
+            points[i * 2] = left + offset + i * step;
+            points[i * 2 + 1] = yOf(series.rateAt(from + i));
+        }
+        for (int i = 0; i < pointCount - 1; i++) {
+            segments[i * 4] = points[i * 2];
+            segments[i * 4 + 1] = points[i * 2 + 1];
+            segments[i * 4 + 2] = points[i * 2 + 2];
+            segments[i * 4 + 3] = points[i * 2 + 3];
+        }
+    }
+
+    private float yOf(float rate) {
+        float top = getPaddingTop();
+        float height = getHeight() - getPaddingTop() - getPaddingBottom();
+        return top + (1 - rate) * height;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        float left = getPaddingLeft();
+        float right = getWidth() - getPaddingRight();
+        canvas.drawLine(left, yOf(0f), right, yOf(0f), gridPaint);
+        canvas.drawLine(left, yOf(0.5f), right, yOf(0.5f), gridPaint);
+        canvas.drawLine(left, yOf(1f), right, yOf(1f), gridPaint);
+        canvas.drawPath(thresholdPath, thresholdPaint);
+        if (pointCount > 1) {
+            canvas.drawLines(segments, 0, (pointCount - 1) * 4, linePaint);
+        }
+        if (pointCount > 0) {
+            canvas.drawPoints(points, 0, pointCount * 2, pointPaint);
+        }
+    }
+}
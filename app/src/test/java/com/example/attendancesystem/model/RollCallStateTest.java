@@ -0,0 +1,82 @@
+package com.example.attendancesystem.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.attendancesystem.entity.Attendance;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class RollCallStateTest {
+
+    private static final int[] ROSTER = {42, 7, 19};
+
+    @Test
+    public void newState_hasEveryStudentPresent() {
+        RollCallState state = new RollCallState(ROSTER);
+
+        assertEquals(3, state.size());
+        assertArrayEquals(new boolean[] {true, true, true}, state.copyPresentStatuses());
+        assertEquals(0, RollCallState.empty().size());
+    }
+
+    @Test
+    public void positionOf_followsRosterOrder() {
+        RollCallState state = new RollCallState(ROSTER);
+
+        assertEquals(0, state.positionOf(42));
+        assertEquals(1, state.positionOf(7));
+        assertEquals(2, state.positionOf(19));
+        assertEquals(-1, state.positionOf(8));
+        assertEquals(19, state.getStudentId(2));
+    }
+
+    @Test
+    public void fromRecords_marksAbsentStudentsOnly() {
+        RollCallState state = RollCallState.fromRecords(ROSTER, Arrays.asList(
+                new Attendance(7, 1, 100, false),
+                new Attendance(42, 1, 100, true),
+                // Not in the roster any more
+                new Attendance(99, 1, 100, false)));
+
+        assertArrayEquals(new boolean[] {true, false, true}, state.copyPresentStatuses());
+    }
+
+    @Test
+    public void toggleAndSet_changeOneStudent() {
+        RollCallState state = new RollCallState(ROSTER);
+
+        assertFalse(state.toggle(1));
+        assertFalse(state.isPresent(1));
+        assertTrue(state.toggle(1));
+        state.setPresent(2, false);
+
+        assertArrayEquals(new boolean[] {true, true, false}, state.copyPresentStatuses());
+    }
+
+    @Test
+    public void markAllAndInvert_changeEveryStudent() {
+        RollCallState state = new RollCallState(ROSTER);
+
+        state.markAll(false);
+        assertArrayEquals(new boolean[] {false, false, false}, state.copyPresentStatuses());
+        state.setPresent(0, true);
+        state.invert();
+        assertArrayEquals(new boolean[] {false, true, true}, state.copyPresentStatuses());
+        state.markAll(true);
+        assertArrayEquals(new boolean[] {true, true, true}, state.copyPresentStatuses());
+    }
+
+    @Test
+    public void copyStudentIds_isACopy() {
+        RollCallState state = new RollCallState(ROSTER.clone());
+        int[] ids = state.copyStudentIds();
+        ids[0] = 0;
+
+        assertArrayEquals(ROSTER, state.copyStudentIds());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.attendancesystem.model;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TrendSeriesTest {
+
+    @Test
+    public void put_keepsSessionsInDayOrder() {
+        TrendSeries series = new TrendSeries(1);
+        series.put(10, 3, 4);
+        series.put(30, 1, 2);
+        series.put(20, 2, 2);
+        series.put(5, 0, 1);
+
+        assertEquals(4, series.size());
+        assertEquals(5, series.dayAt(0));
+        assertEquals(10, series.dayAt(1));
+        assertEquals(20, series.dayAt(2));
+        assertEquals(30, series.dayAt(3));
+        assertEquals(3, series.presentCountAt(1));
+        assertEquals(4, series.totalCountAt(1));
+    }
+
+    @Test
+    public void put_replacesOrRemovesAnExistingSession() {
+        TrendSeries series = new TrendSeries(4);
+        series.put(10, 3, 4);
+        series.put(20, 2, 2);
+        series.put(10, 1, 4);
+
+        assertEquals(2, series.size());
+        assertEquals(1, series.presentCountAt(0));
+
+        series.put(10, 0, 0);
+        assertEquals(1, series.size());
+        assertEquals(20, series.dayAt(0));
+
+        // Removing a session that is not there changes nothing
+        series.put(15, 0, 0);
+        assertEquals(1, series.size());
+    }
+
+    @Test
+    public void rateAt_isTheFractionPresent() {
+        TrendSeries series = new TrendSeries(2);
+        series.put(10, 3, 4);
+
+        assertEquals(0.75f, series.rateAt(0), 0f);
+    }
+
+    @Test
+    public void lowerBound_findsTheFirstSessionOnOrAfterADay() {
+        TrendSeries series = new TrendSeries(4);
+        series.put(10, 1, 1);
+        series.put(20, 1, 1);
+
+        assertEquals(0, series.lowerBound(5));
+        assertEquals(0, series.lowerBound(10));
+        assertEquals(1, series.lowerBound(11));
+        assertEquals(2, series.lowerBound(21));
+    }
+
+    @Test
+    public void copy_isNotChangedByLaterPuts() {
+        TrendSeries series = new TrendSeries(4);
+        series.put(10, 1, 2);
+        TrendSeries copy = series.copy();
+        series.put(10, 2, 2);
+        series.put(20, 1, 1);
+
+        assertEquals(1, copy.size());
+        assertEquals(1, copy.presentCountAt(0));
+    }
+}
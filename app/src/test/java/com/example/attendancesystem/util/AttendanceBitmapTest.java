@@ -0,0 +1,75 @@
+package com.example.attendancesystem.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.attendancesystem.entity.PackedSession;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class AttendanceBitmapTest {
+
+    @Test
+    public void encodeIds_isLittleEndianAndRoundTrips() {
+        int[] ids = {1, 256, 70000, Integer.MAX_VALUE};
+        byte[] encoded = AttendanceBitmap.encodeIds(ids);
+
+        assertArrayEquals(new byte[] {1, 0, 0, 0}, Arrays.copyOf(encoded, 4));
+        assertEquals(ids.length, AttendanceBitmap.size(encoded));
+        for (int position = 0; position < ids.length; position++) {
+            assertEquals(ids[position], AttendanceBitmap.idAt(encoded, position));
+        }
+    }
+
+    @Test
+    public void indexOf_findsRosterPositions() {
+        byte[] rosterIds = AttendanceBitmap.encodeIds(new int[] {3, 8, 15, 42, 1000});
+
+        assertEquals(0, AttendanceBitmap.indexOf(rosterIds, 3));
+        assertEquals(3, AttendanceBitmap.indexOf(rosterIds, 42));
+        assertEquals(4, AttendanceBitmap.indexOf(rosterIds, 1000));
+        assertEquals(-1, AttendanceBitmap.indexOf(rosterIds, 1));
+        assertEquals(-1, AttendanceBitmap.indexOf(rosterIds, 9));
+        assertEquals(-1, AttendanceBitmap.indexOf(AttendanceBitmap.encodeIds(new int[0]), 3));
+    }
+
+    @Test
+    public void bitmap_setsAndCountsPresentStudents() {
+        byte[] bitmap = AttendanceBitmap.newBitmap(70);
+        assertEquals(9, bitmap.length);
+
+        AttendanceBitmap.set(bitmap, 0);
+        AttendanceBitmap.set(bitmap, 7);
+        AttendanceBitmap.set(bitmap, 8);
+        AttendanceBitmap.set(bitmap, 63);
+        AttendanceBitmap.set(bitmap, 69);
+
+        assertTrue(AttendanceBitmap.get(bitmap, 0));
+        assertTrue(AttendanceBitmap.get(bitmap, 7));
+        assertFalse(AttendanceBitmap.get(bitmap, 9));
+        assertTrue(AttendanceBitmap.get(bitmap, 69));
+        assertEquals(5, AttendanceBitmap.popcount(bitmap));
+    }
+
+    @Test
+    public void packedSession_readsBackEachStudentsStatus() {
+        int[] rosterIds = {2, 5, 9};
+        byte[] presence = AttendanceBitmap.newBitmap(rosterIds.length);
+        AttendanceBitmap.set(presence, 1);
+
+        PackedSession session = new PackedSession();
+        session.setRosterSize(rosterIds.length);
+        session.setRosterIds(AttendanceBitmap.encodeIds(rosterIds));
+        session.setPresence(presence);
+        session.setPresentCount(AttendanceBitmap.popcount(presence));
+
+        assertEquals(1, session.getPresentCount());
+        assertFalse(AttendanceBitmap.get(session.getPresence(), AttendanceBitmap.indexOf(session.getRosterIds(), 2)));
+        assertTrue(AttendanceBitmap.get(session.getPresence(), AttendanceBitmap.indexOf(session.getRosterIds(), 5)));
+        assertEquals(-1, AttendanceBitmap.indexOf(session.getRosterIds(), 7));
+    }
+}
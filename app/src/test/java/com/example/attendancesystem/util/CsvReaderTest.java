@@ -0,0 +1,86 @@
+package com.example.attendancesystem.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class CsvReaderTest {
+
+    @Test
+    public void readRecord_splitsFieldsAndLines() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("name,number\r\nAli,1\nSara,2"));
+        List<String> fields = new ArrayList<>();
+
+        assertTrue(reader.readRecord(fields));
+        assertEquals(Arrays.asList("name", "number"), fields);
+        assertEquals(1, reader.getRecordLine());
+        assertTrue(reader.readRecord(fields));
+        assertEquals(Arrays.asList("Ali", "1"), fields);
+        assertEquals(2, reader.getRecordLine());
+        assertTrue(reader.readRecord(fields));
+        assertEquals(Arrays.asList("Sara", "2"), fields);
+        assertFalse(reader.readRecord(fields));
+        assertTrue(fields.isEmpty());
+    }
+
+    @Test
+    public void readRecord_readsQuotedFields() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("\"Doe, John\",\"say \"\"hi\"\"\",\"two\nlines\"\nnext,1\n"));
+        List<String> fields = new ArrayList<>();
+
+        assertTrue(reader.readRecord(fields));
+        assertEquals(Arrays.asList("Doe, John", "say \"hi\"", "two\nlines"), fields);
+        assertTrue(reader.readRecord(fields));
+        assertEquals(Arrays.asList("next", "1"), fields);
+        assertEquals(3, reader.getRecordLine());
+        assertFalse(reader.readRecord(fields));
+    }
+
+    @Test
+    public void readRecord_skipsByteOrderMarkAndKeepsEmptyFields() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("\uFEFFa,,c,\n"));
+        List<String> fields = new ArrayList<>();
+
+        assertTrue(reader.readRecord(fields));
+        assertEquals(Arrays.asList("a", "", "c", ""), fields);
+        assertFalse(reader.readRecord(fields));
+    }
+
+    @Test
+    public void readRecord_readsRecordsLongerThanTheBuffer() throws IOException {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            name.append('x');
+        }
+        CsvReader reader = new CsvReader(new StringReader("\"" + name + "\",1\n2,3\n"));
+        List<String> fields = new ArrayList<>();
+
+        assertTrue(reader.readRecord(fields));
+        assertEquals(Arrays.asList(name.toString(), "1"), fields);
+        assertTrue(reader.readRecord(fields));
+        assertEquals(Arrays.asList("2", "3"), fields);
+    }
+
+    @Test
+    public void readRecord_rejectsUnterminatedQuote() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,1\n\"b,2\n"));
+        List<String> fields = new ArrayList<>();
+
+        assertTrue(reader.readRecord(fields));
+        try {
+            reader.readRecord(fields);
+            fail("Expected a FormatException");
+        } catch (CsvReader.FormatException e) {
+            assertEquals(2, e.lineNumber);
+        }
+    }
+}
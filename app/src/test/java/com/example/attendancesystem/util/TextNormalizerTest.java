@@ -0,0 +1,54 @@
+package com.example.attendancesystem.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class TextNormalizerTest {
+
+    @Test
+    public void normalize_foldsArabicLettersAndDigits() {
+        assertEquals("علی", TextNormalizer.normalize("علي"));
+        assertEquals("علی", TextNormalizer.normalize("على"));
+        assertEquals("کاظم", TextNormalizer.normalize("كاظم"));
+        assertEquals("0123456789", TextNormalizer.normalize("۰۱۲۳۴۵۶۷۸۹"));
+        assertEquals("0123456789", TextNormalizer.normalize("٠١٢٣٤٥٦٧٨٩"));
+    }
+
+    @Test
+    public void normalize_replacesZeroWidthNonJoinerWithSpace() {
+        assertEquals("می شود", TextNormalizer.normalize("می‌شود"));
+    }
+
+    @Test
+    public void normalize_keepsOtherTextAndNull() {
+        assertEquals("Ali 42", TextNormalizer.normalize("Ali 42"));
+        assertNull(TextNormalizer.normalize(null));
+    }
+
+    @Test
+    public void tokenize_splitsOnNonWordCharacters() {
+        assertEquals(Arrays.asList("Ali", "Reza", "42"), TextNormalizer.tokenize(" Ali,Reza - 42 "));
+        assertEquals(Collections.emptyList(), TextNormalizer.tokenize(" - "));
+        assertEquals(Collections.emptyList(), TextNormalizer.tokenize(null));
+    }
+
+    @Test
+    public void toPrefixMatchQuery_quotesEveryNormalizedWord() {
+        assertEquals("\"علی*\" \"12*\"", TextNormalizer.toPrefixMatchQuery("علي ۱۲"));
+        assertEquals("\"OR*\"", TextNormalizer.toPrefixMatchQuery("OR"));
+        assertEquals("", TextNormalizer.toPrefixMatchQuery("  "));
+    }
+
+    @Test
+    public void toSqlExpression_replacesEveryMappedCharacter() {
+        String sql = TextNormalizer.toSqlExpression("name");
+        assertTrue(sql.contains("name, 'ي', 'ی')"));
+        assertTrue(sql.contains(", '۵', '5')"));
+    }
+}
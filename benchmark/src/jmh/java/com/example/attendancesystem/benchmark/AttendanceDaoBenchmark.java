@@ -0,0 +1,192 @@
+package com.example.attendancesystem.benchmark;
+
+import androidx.sqlite.SQLiteStatement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+
+/**
+ * Attendance writes and report reads at different attendance table sizes
+ *
+ * Statements are prepared once and reused. Room does the same for insert and update
+ * methods, but prepares a query method's statement on every call, so the read numbers
+ * leave out statement preparation.
+ * Each invocation targets the next class in turn, so caches don't see one hot class.
+ */
+@State(Scope.Benchmark)
+public class AttendanceDaoBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int attendanceRows;
+
+    private BenchmarkDatabase database;
+    private SQLiteStatement insertClassSession;
+    private SQLiteStatement insertAttendance;
+    private SQLiteStatement updateSessionStatus;
+    private SQLiteStatement insertSessionStatus;
+    private SQLiteStatement changes;
+    private SQLiteStatement attendanceByClass;
+    private SQLiteStatement studentAttendanceInfo;
+    private SQLiteStatement classTotals;
+    private SQLiteStatement classTotalsBetween;
+
+    private int nextClass;
+    private boolean rollCallFlip;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        database = BenchmarkDatabase.create(attendanceRows);
+        insertClassSession = database.connection.prepare(DaoQueries.INSERT_CLASS_SESSION);
+        insertAttendance = database.connection.prepare(DaoQueries.INSERT_ATTENDANCE);
+        updateSessionStatus = database.connection.prepare(DaoQueries.UPDATE_SESSION_STATUS);
+        insertSessionStatus = database.connection.prepare(DaoQueries.INSERT_SESSION_STATUS);
+        changes = database.connection.prepare("SELECT changes()");
+        attendanceByClass = database.connection.prepare(DaoQueries.ATTENDANCE_BY_CLASS);
+        studentAttendanceInfo = database.connection.prepare(DaoQueries.STUDENT_ATTENDANCE_INFO);
+        classTotals = database.connection.prepare(DaoQueries.CLASS_TOTALS);
+        classTotalsBetween = database.connection.prepare(DaoQueries.CLASS_TOTALS_BETWEEN);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        insertClassSession.close();
+        insertAttendance.close();
+        updateSessionStatus.close();
+        insertSessionStatus.close();
+        changes.close();
+        attendanceByClass.close();
+        studentAttendanceInfo.close();
+        classTotals.close();
+        classTotalsBetween.close();
+        database.close();
+    }
+
+    private int nextClassId() {
+        nextClass = (nextClass + 1) % database.classCount;
+        return nextClass + 1;
+    }
+
+    /**
+     * AttendanceDao#insertAll of a new session for a whole roster
+     * Rolled back afterwards so the table size stays fixed; commit cost is measured by saveRollCall
+     */
+    @Benchmark
+    public void insertSession() {
+        int classId = nextClassId();
+        long epochDay = BenchmarkDatabase.sessionDay(database.sessionsPerClass);
+        database.exec("BEGIN IMMEDIATE");
+        insertClassSession.bindLong(1, classId);
+        insertClassSession.bindLong(2, epochDay);
+        insertClassSession.step();
+        insertClassSession.reset();
+        for (int studentId : database.rosterOf(classId)) {
+            insertAttendance.bindLong(1, 0);
+            insertAttendance.bindLong(2, studentId);
+            insertAttendance.bindLong(3, classId);
+            insertAttendance.bindLong(4, epochDay);
+            insertAttendance.bindLong(5, 1);
+            insertAttendance.step();
+            insertAttendance.reset();
+        }
+        database.exec("ROLLBACK");
+    }
+
+    /**
+     * AttendanceRepository#upsertSession over an existing session, committed
+     * Statuses alternate between invocations so every update changes a row
+     */
+    @Benchmark
+    public void saveRollCall() {
+        int classId = nextClassId();
+        long epochDay = BenchmarkDatabase.sessionDay(0);
+        rollCallFlip = !rollCallFlip;
+        database.exec("BEGIN IMMEDIATE");
+        int position = 0;
+        for (int studentId : database.rosterOf(classId)) {
+            long isPresent = (position++ % 2 == 0) == rollCallFlip ? 1 : 0;
+            updateSessionStatus.bindLong(1, isPresent);
+            updateSessionStatus.bindLong(2, classId);
+            updateSessionStatus.bindLong(3, epochDay);
+            updateSessionStatus.bindLong(4, studentId);
+            updateSessionStatus.step();
+            updateSessionStatus.reset();
+
+            changes.step();
+            long updated = changes.getLong(0);
+            changes.reset();
+            if (updated == 0) {
+                insertSessionStatus.bindLong(1, studentId);
+                insertSessionStatus.bindLong(2, classId);
+                insertSessionStatus.bindLong(3, epochDay);
+                insertSessionStatus.bindLong(4, isPresent);
+                insertSessionStatus.step();
+                insertSessionStatus.reset();
+            }
+        }
+        database.exec("COMMIT");
+    }
+
+    /**
+     * AttendanceDao#getAttendanceByClass, reading every column of every row
+     */
+    @Benchmark
+    public void attendanceByClass(Blackhole blackhole) {
+        attendanceByClass.bindLong(1, nextClassId());
+        while (attendanceByClass.step()) {
+            blackhole.consume(attendanceByClass.getLong(0));
+            blackhole.consume(attendanceByClass.getLong(1));
+            blackhole.consume(attendanceByClass.getLong(2));
+            blackhole.consume(attendanceByClass.getLong(3));
+            blackhole.consume(attendanceByClass.getLong(4));
+        }
+        attendanceByClass.reset();
+    }
+
+    /**
+     * AttendanceDao#getStudentAttendanceInfo followed by getClassTotals, as the report screen loads
+     */
+    @Benchmark
+    public void classReport(Blackhole blackhole) {
+        int classId = nextClassId();
+        classTotals.bindLong(1, classId);
+        if (classTotals.step()) {
+            blackhole.consume(classTotals.getLong(0));
+            blackhole.consume(classTotals.getLong(1));
+        }
+        classTotals.reset();
+
+        studentAttendanceInfo.bindLong(1, classId);
+        while (studentAttendanceInfo.step()) {
+            blackhole.consume(studentAttendanceInfo.getLong(0));
+            blackhole.consume(studentAttendanceInfo.getText(1));
+            blackhole.consume(studentAttendanceInfo.getText(2));
+            blackhole.consume(studentAttendanceInfo.getLong(3));
+            blackhole.consume(studentAttendanceInfo.getLong(4));
+        }
+        studentAttendanceInfo.reset();
+    }
+
+    /**
+     * AttendanceDao#getClassTotalsBetween over the last four weeks of sessions
+     */
+    @Benchmark
+    public void classTotalsLastFourWeeks(Blackhole blackhole) {
+        long lastDay = BenchmarkDatabase.sessionDay(database.sessionsPerClass - 1);
+        classTotalsBetween.bindLong(1, nextClassId());
+        classTotalsBetween.bindLong(2, lastDay - 27);
+        classTotalsBetween.bindLong(3, lastDay);
+        if (classTotalsBetween.step()) {
+            blackhole.consume(classTotalsBetween.getLong(0));
+            blackhole.consume(classTotalsBetween.getLong(1));
+        }
+        classTotalsBetween.reset();
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.attendancesystem.benchmark;
+
+import androidx.sqlite.SQLiteConnection;
+import androidx.sqlite.SQLiteStatement;
+import androidx.sqlite.driver.bundled.BundledSQLiteDriver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * A populated database file for the benchmarks
+ *
+ * Every class has {@link #ROSTER_SIZE} enrolled students of its own and the same
+ * number of sessions; both are chosen so the attendance table holds exactly the
+ * requested number of rows. Data is generated from a fixed seed, so runs compare.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    /**
+     * Students enrolled in each class
+     */
+    static final int ROSTER_SIZE = 100;
+
+    /**
+     * Share of records marked present
+     */
+    private static final double PRESENT_RATE = 0.85;
+
+    /** 2023-11-14 */
+    private static final long FIRST_SESSION_DAY = 19_675;
+
+    private static final String[] FIRST_NAMES = {
+        "علی", "محمد", "زهرا", "فاطمه", "حسین", "مریم", "رضا", "سارا", "مهدی", "نرگس",
+        "امیر", "کیانا", "یاسمین", "پارسا", "نگار", "آرش", "الهام", "سینا", "هانیه", "کاوه"
+    };
+    private static final String[] LAST_NAMES = {
+        "احمدی", "محمدی", "رضایی", "حسینی", "کریمی", "موسوی", "جعفری", "کاظمی", "رحیمی", "صادقی",
+        "قاسمی", "نوری", "یوسفی", "کیانی", "شریفی", "بهرامی", "عباسی", "طاهری", "اکبری", "فرهادی"
+    };
+
+    final SQLiteConnection connection;
+    final int classCount;
+    final int sessionsPerClass;
+    final int studentCount;
+
+    private final File file;
+
+    private BenchmarkDatabase(File file, int attendanceRows) {
+        this.file = file;
+        this.sessionsPerClass = attendanceRows <= 10_000 ? Math.max(1, attendanceRows / ROSTER_SIZE) : 100;
+        this.classCount = Math.max(1, attendanceRows / (ROSTER_SIZE * sessionsPerClass));
+        this.studentCount = classCount * ROSTER_SIZE;
+        this.connection = new BundledSQLiteDriver().open(file.getPath());
+    }
+
+    /**
+     * Create and fill a database in a temporary file
+     * @param attendanceRows Number of attendance rows to generate
+     */
+    static BenchmarkDatabase create(int attendanceRows) throws IOException {
+        File file = Files.createTempFile("attendance-benchmark", ".db").toFile();
+        file.delete();
+        BenchmarkDatabase database = new BenchmarkDatabase(file, attendanceRows);
+        database.configure();
+        database.populate();
+        return database;
+    }
+
+    /**
+     * Settings Room uses on Android: WAL journal and enforced foreign keys
+     */
+    private void configure() {
+        query("PRAGMA journal_mode = WAL");
+        exec("PRAGMA synchronous = NORMAL");
+        exec("PRAGMA foreign_keys = ON");
+        for (String sql : BenchmarkSchema.createStatements()) {
+            exec(sql);
+        }
+    }
+
+    private void populate() {
+        Random random = new Random(42);
+        exec("BEGIN IMMEDIATE");
+        try (SQLiteStatement insertStudent = connection.prepare(
+                     "INSERT INTO students (id, name, studentNumber) VALUES (?, ?, ?)");
+             SQLiteStatement insertClass = connection.prepare(
+                     "INSERT INTO classes (id, courseName, instructorName, day, time) VALUES (?, ?, ?, ?, ?)");
+             SQLiteStatement enroll = connection.prepare(
+                     "INSERT INTO enrollments (classId, studentId) VALUES (?, ?)");
+             SQLiteStatement insertSession = connection.prepare(
+                     "INSERT INTO class_sessions (classId, epochDay) VALUES (?, ?)");
+             SQLiteStatement insertAttendance = connection.prepare(
+                     "INSERT INTO attendance (studentId, classId, epochDay, isPresent) VALUES (?, ?, ?, ?)")) {
+            for (int studentId = 1; studentId <= studentCount; studentId++) {
+                insertStudent.bindLong(1, studentId);
+                insertStudent.bindText(2, studentName(studentId));
+                insertStudent.bindText(3, studentNumber(studentId));
+                insertStudent.step();
+                insertStudent.reset();
+            }
+            for (int classId = 1; classId <= classCount; classId++) {
+                insertClass.bindLong(1, classId);
+                insertClass.bindText(2, "درس " + classId);
+                insertClass.bindText(3, LAST_NAMES[classId % LAST_NAMES.length]);
+                insertClass.bindText(4, "شنبه");
+                insertClass.bindText(5, "08:00");
+                insertClass.step();
+                insertClass.reset();
+
+                for (int studentId : rosterOf(classId)) {
+                    enroll.bindLong(1, classId);
+                    enroll.bindLong(2, studentId);
+                    enroll.step();
+                    enroll.reset();
+                }
+                for (int session = 0; session < sessionsPerClass; session++) {
+                    insertSession.bindLong(1, classId);
+                    insertSession.bindLong(2, sessionDay(session));
+                    insertSession.step();
+                    insertSession.reset();
+                    for (int studentId : rosterOf(classId)) {
+                        insertAttendance.bindLong(1, studentId);
+                        insertAttendance.bindLong(2, classId);
+                        insertAttendance.bindLong(3, sessionDay(session));
+                        insertAttendance.bindLong(4, random.nextDouble() < PRESENT_RATE ? 1 : 0);
+                        insertAttendance.step();
+                        insertAttendance.reset();
+                    }
+                }
+            }
+        }
+        exec("COMMIT");
+        exec("ANALYZE");
+    }
+
+    /**
+     * @param classId Class ID, from 1 to classCount
+     * @return IDs of the students enrolled in the class, ascending
+     */
+    int[] rosterOf(int classId) {
+        int[] roster = new int[ROSTER_SIZE];
+        int firstStudentId = (classId - 1) * ROSTER_SIZE + 1;
+        for (int i = 0; i < ROSTER_SIZE; i++) {
+            roster[i] = firstStudentId + i;
+        }
+        return roster;
+    }
+
+    /**
+     * @param session Session index, from 0 to sessionsPerClass - 1 for existing sessions
+     * @return Day of the session (epoch day)
+     */
+    static long sessionDay(int session) {
+        return FIRST_SESSION_DAY + session;
+    }
+
+    static String studentName(int studentId) {
+        return FIRST_NAMES[studentId % FIRST_NAMES.length] + " "
+                + LAST_NAMES[(studentId / FIRST_NAMES.length) % LAST_NAMES.length];
+    }
+
+    static String studentNumber(int studentId) {
+        return String.format("4%08d", studentId);
+    }
+
+    /**
+     * Run a statement that returns no rows
+     */
+    void exec(String sql) {
+        try (SQLiteStatement statement = connection.prepare(sql)) {
+            statement.step();
+        }
+    }
+
+    /**
+     * Run a statement and return the first column of its first row
+     */
+    String query(String sql) {
+        try (SQLiteStatement statement = connection.prepare(sql)) {
+            return statement.step() ? statement.getText(0) : null;
+        }
+    }
+
+    @Override
+    public void close() {
+        connection.close();
+        new File(file.getPath() + "-wal").delete();
+        new File(file.getPath() + "-shm").delete();
+        file.delete();
+    }
+}
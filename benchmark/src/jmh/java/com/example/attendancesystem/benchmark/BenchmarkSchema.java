@@ -0,0 +1,114 @@
+package com.example.attendancesystem.benchmark;
+
+import com.example.attendancesystem.database.TriggerSql;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The app's database schema, as Room creates it
+ *
+ * Table and index statements are read from Room's exported schema of AppDatabase
+ * version {@link #VERSION} (app/schemas, on the benchmark classpath); triggers come
+ * from {@link TriggerSql}, the same class the app uses. Bump VERSION with the
+ * database version.
+ */
+final class BenchmarkSchema {
+
+    /**
+     * AppDatabase version whose exported schema is used
+     */
+    static final int VERSION = 12;
+
+    private static final String SCHEMA_RESOURCE =
+            "/com.example.attendancesystem.database.AppDatabase/" + VERSION + ".json";
+
+    private static final JSONArray ENTITIES = readSchema().getJSONObject("database").getJSONArray("entities");
+
+    private BenchmarkSchema() {
+    }
+
+    /**
+     * @return Every statement needed to create an empty database, in order
+     */
+    static List<String> createStatements() {
+        List<String> statements = new ArrayList<>();
+        for (int i = 0; i < ENTITIES.length(); i++) {
+            JSONObject entity = ENTITIES.getJSONObject(i);
+            String tableName = entity.getString("tableName");
+            statements.add(forTable(entity.getString("createSql"), tableName));
+            JSONArray indices = entity.optJSONArray("indices");
+            for (int j = 0; indices != null && j < indices.length(); j++) {
+                statements.add(forTable(indices.getJSONObject(j).getString("createSql"), tableName));
+            }
+        }
+        Collections.addAll(statements, TriggerSql.SEARCH_INDEX_TRIGGERS);
+        Collections.addAll(statements, TriggerSql.ATTENDANCE_STATS_TRIGGERS);
+        return statements;
+    }
+
+    /**
+     * The statement Room generates for an @Insert method of an entity
+     * An auto-generated primary key bound as 0 is left for SQLite to assign.
+     * @param tableName Table of the entity
+     * @param onConflict Conflict strategy of the method, e.g. ABORT
+     */
+    static String insertStatement(String tableName, String onConflict) {
+        JSONObject entity = entity(tableName);
+        JSONObject primaryKey = entity.getJSONObject("primaryKey");
+        String autoGenerated = primaryKey.getBoolean("autoGenerate")
+                ? primaryKey.getJSONArray("columnNames").getString(0) : null;
+        JSONArray fields = entity.getJSONArray("fields");
+        StringBuilder columns = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < fields.length(); i++) {
+            String column = fields.getJSONObject(i).getString("columnName");
+            if (i > 0) {
+                columns.append(',');
+                values.append(',');
+            }
+            columns.append('`').append(column).append('`');
+            values.append(column.equals(autoGenerated) ? "nullif(?, 0)" : "?");
+        }
+        return "INSERT OR " + onConflict + " INTO `" + tableName + "` (" + columns + ") VALUES (" + values + ")";
+    }
+
+    private static JSONObject entity(String tableName) {
+        for (int i = 0; i < ENTITIES.length(); i++) {
+            if (ENTITIES.getJSONObject(i).getString("tableName").equals(tableName)) {
+                return ENTITIES.getJSONObject(i);
+            }
+        }
+        throw new IllegalArgumentException("No table " + tableName + " in schema version " + VERSION);
+    }
+
+    private static String forTable(String sql, String tableName) {
+        return sql.replace("${TABLE_NAME}", tableName);
+    }
+
+    private static JSONObject readSchema() {
+        try (InputStream in = BenchmarkSchema.class.getResourceAsStream(SCHEMA_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing exported schema " + SCHEMA_RESOURCE);
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) > 0) {
+                bytes.write(buffer, 0, count);
+            }
+            return new JSONObject(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
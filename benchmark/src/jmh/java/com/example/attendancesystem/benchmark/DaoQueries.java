@@ -0,0 +1,44 @@
+package com.example.attendancesystem.benchmark;
+
+import com.example.attendancesystem.dao.AttendanceSql;
+import com.example.attendancesystem.dao.StudentSql;
+
+/**
+ * SQL of the benchmarked DAO methods
+ *
+ * Queries are the constants the DAO annotations reference or the repository compiles;
+ * SQLite binds Room's :name parameters itself, numbered by first appearance. Insert
+ * statements are derived from the exported schema the way Room generates them.
+ */
+final class DaoQueries {
+
+    /** AttendanceDao#insert */
+    static final String INSERT_ATTENDANCE = BenchmarkSchema.insertStatement("attendance", "ABORT");
+
+    /** AttendanceRepository#writeSession */
+    static final String UPDATE_SESSION_STATUS = AttendanceSql.UPDATE_SESSION_STATUS;
+
+    /** AttendanceDao#insertSessionStatus, AttendanceRepository#writeSession */
+    static final String INSERT_SESSION_STATUS = AttendanceSql.INSERT_SESSION_STATUS;
+
+    /** AttendanceDao#insertClassSession */
+    static final String INSERT_CLASS_SESSION = AttendanceSql.INSERT_CLASS_SESSION;
+
+    /** AttendanceDao#getAttendanceByClass */
+    static final String ATTENDANCE_BY_CLASS = AttendanceSql.ATTENDANCE_BY_CLASS;
+
+    /** AttendanceDao#getStudentAttendanceInfo */
+    static final String STUDENT_ATTENDANCE_INFO = AttendanceSql.STUDENT_ATTENDANCE_INFO;
+
+    /** AttendanceDao#getClassTotals */
+    static final String CLASS_TOTALS = AttendanceSql.CLASS_TOTALS;
+
+    /** AttendanceDao#getClassTotalsBetween */
+    static final String CLASS_TOTALS_BETWEEN = AttendanceSql.CLASS_TOTALS_BETWEEN;
+
+    /** StudentDao#searchStudents */
+    static final String SEARCH_STUDENTS = StudentSql.SEARCH_STUDENTS;
+
+    private DaoQueries() {
+    }
+}
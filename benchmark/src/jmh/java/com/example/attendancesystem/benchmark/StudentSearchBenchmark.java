@@ -0,0 +1,69 @@
+package com.example.attendancesystem.benchmark;
+
+import androidx.sqlite.SQLiteStatement;
+
+import com.example.attendancesystem.util.TextNormalizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+
+/**
+ * StudentDao#searchStudents through the full-text index
+ *
+ * Queries are built the way StudentRepository builds them; the student count grows
+ * with the attendance table (100 students per class).
+ */
+@State(Scope.Benchmark)
+public class StudentSearchBenchmark {
+
+    /**
+     * Typed queries: name prefixes of growing length, a full name and a student number prefix
+     */
+    private static final String[] QUERIES = {"ع", "مح", "زهر", "علی", "علی احمدی", "سارا ک", "4000", "40000012"};
+
+    /** StudentRepository.SEARCH_LIMIT */
+    private static final int SEARCH_LIMIT = 200;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int attendanceRows;
+
+    private BenchmarkDatabase database;
+    private SQLiteStatement searchStudents;
+    private int nextQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        database = BenchmarkDatabase.create(attendanceRows);
+        searchStudents = database.connection.prepare(DaoQueries.SEARCH_STUDENTS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        searchStudents.close();
+        database.close();
+    }
+
+    @Benchmark
+    public void searchStudents(Blackhole blackhole) {
+        String query = QUERIES[nextQuery];
+        nextQuery = (nextQuery + 1) % QUERIES.length;
+
+        searchStudents.bindText(1, TextNormalizer.toPrefixMatchQuery(query));
+        searchStudents.bindText(2, TextNormalizer.normalize(query.trim()));
+        searchStudents.bindLong(3, SEARCH_LIMIT);
+        while (searchStudents.step()) {
+            blackhole.consume(searchStudents.getLong(0));
+            blackhole.consume(searchStudents.getText(1));
+            blackhole.consume(searchStudents.getText(2));
+        }
+        searchStudents.reset();
+    }
+}